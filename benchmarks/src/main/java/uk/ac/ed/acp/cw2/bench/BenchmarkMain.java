@@ -0,0 +1,30 @@
+package uk.ac.ed.acp.cw2.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH entry point that always attaches the GC profiler, so every run reports allocation
+ * rate (gc.alloc.rate.norm) next to time. Accepts the usual JMH command line,
+ * e.g. {@code java -jar target/benchmarks.jar Pathfinding -p scenario=CORRIDOR}.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList()) {
+            // Plain JMH handles -h and -l
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
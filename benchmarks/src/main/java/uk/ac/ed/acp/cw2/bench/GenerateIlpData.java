@@ -0,0 +1,66 @@
+package uk.ac.ed.acp.cw2.bench;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Command line front end for {@link SyntheticIlpGenerator} and {@link StubIlpServer}.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar uk.ac.ed.acp.cw2.bench.GenerateIlpData \
+ *     --scale 100 --seed 1 --out data/synthetic-100 --batch-size 25 --serve 8099
+ * </pre>
+ *
+ * Without --serve it writes the files and exits; with it, it keeps serving until killed.
+ */
+public final class GenerateIlpData {
+
+    private GenerateIlpData() {}
+
+    public static void main(String[] args) throws Exception {
+        int scale = 1;
+        long seed = 1;
+        Path out = null;
+        int batchSize = 0;
+        Integer port = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--scale" -> scale = Integer.parseInt(require(args[i], value));
+                case "--seed" -> seed = Long.parseLong(require(args[i], value));
+                case "--out" -> out = Path.of(require(args[i], value));
+                case "--batch-size" -> batchSize = Integer.parseInt(require(args[i], value));
+                case "--serve" -> port = Integer.parseInt(require(args[i], value));
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+            i++;
+        }
+        if (out == null && port == null) {
+            throw new IllegalArgumentException("Give --out, --serve or both");
+        }
+
+        SyntheticIlpGenerator.Spec spec = SyntheticIlpGenerator.Spec.atScale(scale, seed);
+        SyntheticIlpGenerator.Dataset dataset = SyntheticIlpGenerator.generate(spec);
+        System.out.printf("Generated %d drones, %d service points, %d restricted areas, %d orders (%s)%n",
+                dataset.drones().size(), dataset.servicePoints().size(), dataset.restrictedAreas().size(),
+                dataset.orders().size(), spec);
+
+        if (out != null) {
+            SyntheticIlpGenerator.write(dataset, out, batchSize);
+            System.out.println("Wrote " + out.toAbsolutePath());
+        }
+        if (port != null) {
+            StubIlpServer server = StubIlpServer.start(dataset, port);
+            System.out.println("Serving ILP data at " + server.url());
+            new CountDownLatch(1).await();
+        }
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,80 @@
+package uk.ac.ed.acp.cw2.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves a generated dataset on the ILP REST paths from the JDK's built-in HTTP server,
+ * so the application can be pointed at it with {@code ILP_ENDPOINT=http://localhost:<port>}.
+ * Bodies are serialised once up front; only GET is supported.
+ */
+public final class StubIlpServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    private StubIlpServer(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Start serving on {@code port} (0 picks a free one) at localhost.
+     */
+    public static StubIlpServer start(SyntheticIlpGenerator.Dataset dataset, int port) throws IOException {
+        ObjectMapper mapper = SyntheticIlpGenerator.objectMapper();
+        Map<String, byte[]> bodies = Map.of(
+                "/drones", json(mapper, dataset.drones()),
+                "/service-points", json(mapper, dataset.servicePoints()),
+                "/drones-for-service-points", json(mapper, dataset.dronesForServicePoints()),
+                "/restricted-areas", json(mapper, dataset.restrictedAreas()));
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/", exchange -> respond(exchange, bodies));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return new StubIlpServer(server);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String url() {
+        return "http://localhost:" + port();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, Map<String, byte[]> bodies) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = bodies.get(exchange.getRequestURI().getPath());
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static byte[] json(ObjectMapper mapper, Object value) throws JsonProcessingException {
+        return mapper.writeValueAsBytes(value);
+    }
+}
@@ -0,0 +1,264 @@
+package uk.ac.ed.acp.cw2.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import uk.ac.ed.acp.cw2.dto.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generator for ILP-shaped reference data and order batches.
+ *
+ * The same {@link Spec} always produces the same dataset. Restricted areas keep a fixed
+ * density, so the city grows with the area count instead of packing polygons tighter,
+ * and service points and deliveries are never placed inside one.
+ */
+public final class SyntheticIlpGenerator {
+
+    // Appleton Tower, roughly the middle of the ILP data
+    private static final double CENTRE_LNG = -3.186874;
+    private static final double CENTRE_LAT = 55.944494;
+
+    // City half-extent at scale 1, in degrees
+    private static final double BASE_HALF_LNG = 0.03;
+    private static final double BASE_HALF_LAT = 0.015;
+
+    private static final double MIN_AREA_RADIUS = 0.0004;
+    private static final double MAX_AREA_RADIUS = 0.0015;
+
+    // Deliveries land within this distance of some service point
+    private static final double DELIVERY_REACH = 0.02;
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 12, 22);
+
+    private SyntheticIlpGenerator() {}
+
+    /**
+     * @param polygonVertices vertices per restricted area, excluding the closing repeat
+     * @param concavity 0 for convex areas; up to 0.9 pulls every other vertex inwards
+     */
+    public record Spec(long seed, int drones, int servicePoints, int restrictedAreas,
+                       int polygonVertices, double concavity, int orders, int days) {
+
+        public Spec {
+            if (drones < 1 || servicePoints < 1 || restrictedAreas < 0 || orders < 0 || days < 1) {
+                throw new IllegalArgumentException("Counts must be positive");
+            }
+            if (polygonVertices < 3) {
+                throw new IllegalArgumentException("polygonVertices must be at least 3");
+            }
+            if (concavity < 0 || concavity > 0.9) {
+                throw new IllegalArgumentException("concavity must be between 0 and 0.9");
+            }
+        }
+
+        /**
+         * The live ILP dataset (10 drones, 2 service points, 4 restricted areas) times
+         * {@code scale}, with ten orders per drone spread over a week.
+         */
+        public static Spec atScale(int scale, long seed) {
+            if (scale < 1) {
+                throw new IllegalArgumentException("scale must be at least 1");
+            }
+            return new Spec(seed, 10 * scale, 2 * scale, 4 * scale, 8, 0.4, 10 * scale, 7);
+        }
+    }
+
+    public record Dataset(List<DroneInfo> drones,
+                          List<ServicePoints> servicePoints,
+                          List<DronesForServicePoints> dronesForServicePoints,
+                          List<RestrictedAreas> restrictedAreas,
+                          List<MedDispatchRec> orders) {}
+
+    private record Circle(double lng, double lat, double radius) {}
+
+    public static Dataset generate(Spec spec) {
+        Random random = new Random(spec.seed());
+        double scale = Math.sqrt(Math.max(1.0, spec.restrictedAreas() / 4.0));
+        double halfLng = BASE_HALF_LNG * scale;
+        double halfLat = BASE_HALF_LAT * scale;
+
+        List<Circle> keepOut = new ArrayList<>();
+        List<RestrictedAreas> areas = new ArrayList<>(spec.restrictedAreas());
+        for (int i = 0; i < spec.restrictedAreas(); i++) {
+            Circle circle = placeArea(random, keepOut, halfLng, halfLat);
+            if (circle == null) break;
+            keepOut.add(circle);
+            areas.add(new RestrictedAreas("Restricted " + (i + 1), i + 1, new Limits(0, -1),
+                    polygon(random, circle, spec.polygonVertices(), spec.concavity())));
+        }
+
+        List<ServicePoints> servicePoints = new ArrayList<>(spec.servicePoints());
+        for (int i = 0; i < spec.servicePoints(); i++) {
+            servicePoints.add(new ServicePoints("Service Point " + (i + 1), i + 1,
+                    freePoint(random, keepOut, CENTRE_LNG, CENTRE_LAT, halfLng, halfLat)));
+        }
+
+        List<DroneInfo> drones = new ArrayList<>(spec.drones());
+        List<List<ListDrones>> bySp = new ArrayList<>();
+        for (int i = 0; i < spec.servicePoints(); i++) {
+            bySp.add(new ArrayList<>());
+        }
+        for (int id = 1; id <= spec.drones(); id++) {
+            drones.add(new DroneInfo("Drone " + id, id, capability(random)));
+            // Every service point gets at least one drone when there are enough to go round
+            int sp = id <= spec.servicePoints() ? id - 1 : random.nextInt(spec.servicePoints());
+            bySp.get(sp).add(new ListDrones(id, availability(random)));
+        }
+        List<DronesForServicePoints> dronesForServicePoints = new ArrayList<>(spec.servicePoints());
+        for (int i = 0; i < spec.servicePoints(); i++) {
+            dronesForServicePoints.add(new DronesForServicePoints(i + 1, List.copyOf(bySp.get(i))));
+        }
+
+        List<MedDispatchRec> orders = new ArrayList<>(spec.orders());
+        for (int id = 1; id <= spec.orders(); id++) {
+            LngLat near = servicePoints.get(random.nextInt(servicePoints.size())).location();
+            orders.add(order(random, id, spec.days(),
+                    freePoint(random, keepOut, near.lng(), near.lat(), DELIVERY_REACH, DELIVERY_REACH)));
+        }
+
+        return new Dataset(List.copyOf(drones), List.copyOf(servicePoints), List.copyOf(dronesForServicePoints),
+                List.copyOf(areas), List.copyOf(orders));
+    }
+
+    // ==================== Files ====================
+
+    public static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Write each dataset under the file name of its ILP path (drones.json, service-points.json,
+     * ...) plus orders.json, and the orders again in batches of {@code batchSize}.
+     */
+    public static void write(Dataset dataset, Path directory, int batchSize) throws IOException {
+        ObjectMapper mapper = objectMapper();
+        Files.createDirectories(directory);
+
+        mapper.writeValue(directory.resolve("drones.json").toFile(), dataset.drones());
+        mapper.writeValue(directory.resolve("service-points.json").toFile(), dataset.servicePoints());
+        mapper.writeValue(directory.resolve("drones-for-service-points.json").toFile(), dataset.dronesForServicePoints());
+        mapper.writeValue(directory.resolve("restricted-areas.json").toFile(), dataset.restrictedAreas());
+        mapper.writeValue(directory.resolve("orders.json").toFile(), dataset.orders());
+
+        if (batchSize > 0) {
+            Path batches = Files.createDirectories(directory.resolve("batches"));
+            List<MedDispatchRec> orders = dataset.orders();
+            for (int from = 0, n = 1; from < orders.size(); from += batchSize, n++) {
+                mapper.writeValue(batches.resolve(String.format("orders-%04d.json", n)).toFile(),
+                        orders.subList(from, Math.min(orders.size(), from + batchSize)));
+            }
+        }
+    }
+
+    // ==================== Generators ====================
+
+    private static Circle placeArea(Random random, List<Circle> placed, double halfLng, double halfLat) {
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            double radius = MIN_AREA_RADIUS + random.nextDouble() * (MAX_AREA_RADIUS - MIN_AREA_RADIUS);
+            double lng = CENTRE_LNG + (random.nextDouble() * 2 - 1) * halfLng;
+            double lat = CENTRE_LAT + (random.nextDouble() * 2 - 1) * halfLat;
+            if (clear(placed, lng, lat, radius)) {
+                return new Circle(lng, lat, radius);
+            }
+        }
+        return null;
+    }
+
+    private static List<LngLat> polygon(Random random, Circle circle, int n, double concavity) {
+        List<LngLat> vertices = new ArrayList<>(n + 1);
+        double offset = random.nextDouble() * 2 * Math.PI;
+        for (int i = 0; i < n; i++) {
+            double angle = offset + 2 * Math.PI * (i + 0.3 * (random.nextDouble() - 0.5)) / n;
+            double r = circle.radius() * (0.85 + 0.15 * random.nextDouble());
+            if (i % 2 == 1) {
+                r *= 1 - concavity;
+            }
+            vertices.add(new LngLat(circle.lng() + r * Math.cos(angle), circle.lat() + r * Math.sin(angle)));
+        }
+        vertices.add(vertices.getFirst());
+        return List.copyOf(vertices);
+    }
+
+    private static LngLat freePoint(Random random, List<Circle> keepOut, double lng, double lat,
+                                    double halfLng, double halfLat) {
+        while (true) {
+            double x = lng + (random.nextDouble() * 2 - 1) * halfLng;
+            double y = lat + (random.nextDouble() * 2 - 1) * halfLat;
+            if (clear(keepOut, x, y, 0)) {
+                return new LngLat(round(x, 6), round(y, 6));
+            }
+        }
+    }
+
+    // Circles bound their polygons, so staying outside every circle stays outside every area
+    private static boolean clear(List<Circle> circles, double lng, double lat, double radius) {
+        for (Circle c : circles) {
+            double min = c.radius() + radius + MIN_AREA_RADIUS;
+            double dx = c.lng() - lng;
+            double dy = c.lat() - lat;
+            if (dx * dx + dy * dy < min * min) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static DroneCapability capability(Random random) {
+        return new DroneCapability(
+                random.nextDouble() < 0.3,
+                random.nextDouble() < 0.4,
+                4 + random.nextInt(17),
+                1000 + 100 * random.nextInt(16),
+                round(0.01 + 0.04 * random.nextDouble(), 2),
+                round(1 + 4 * random.nextDouble(), 2),
+                round(1 + 4 * random.nextDouble(), 2));
+    }
+
+    // One or two windows on five to seven days, on quarter hours
+    private static List<DroneAvailability> availability(Random random) {
+        List<DroneAvailability> slots = new ArrayList<>();
+        int days = 5 + random.nextInt(3);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.getValue() > days) break;
+            int start = 6 * 4 + random.nextInt(4 * 4);
+            int end = start + 4 * 4 + random.nextInt(6 * 4);
+            slots.add(new DroneAvailability(day.name(), quarter(start), quarter(end)));
+            if (random.nextBoolean() && end + 8 < 23 * 4) {
+                int secondEnd = Math.min(23 * 4, end + 8 + random.nextInt(4 * 4));
+                slots.add(new DroneAvailability(day.name(), quarter(end + 4), quarter(secondEnd)));
+            }
+        }
+        return List.copyOf(slots);
+    }
+
+    private static MedDispatchRec order(Random random, int id, int days, LngLat delivery) {
+        boolean cooling = random.nextDouble() < 0.15;
+        boolean heating = !cooling && random.nextDouble() < 0.15;
+        Double maxCost = random.nextBoolean() ? null : round(5 + 45 * random.nextDouble(), 2);
+        return new MedDispatchRec(id,
+                FIRST_DAY.plusDays(random.nextInt(days)),
+                quarter(8 * 4 + random.nextInt(10 * 4)),
+                new DispatchRequirements(round(0.5 + 7.5 * random.nextDouble(), 2), cooling, heating, maxCost),
+                delivery);
+    }
+
+    private static LocalTime quarter(int quarters) {
+        return LocalTime.of(quarters / 4, (quarters % 4) * 15);
+    }
+
+    private static double round(double value, int places) {
+        double factor = Math.pow(10, places);
+        return Math.round(value * factor) / factor;
+    }
+}
@@ -0,0 +1,205 @@
+package uk.ac.ed.acp.cw2.dto;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ed.acp.cw2.data.Directions.STEP_SIZE;
+
+/**
+ * Request binding and response writing for /calcDeliveryPath, outside the planner.
+ *
+ * The mapper is built the way Spring Boot builds the application's one (unknown properties
+ * ignored, ISO dates) and bodies go through streams as they do in the message converters.
+ * Binding is split into Jackson alone, Bean Validation alone and both, so their shares of
+ * a request can be read off directly.
+ */
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadBenchmark {
+
+    private static final LngLat APPLETON_TOWER = new LngLat(-3.186874, 55.944494);
+
+    @State(Scope.Benchmark)
+    public static class Json {
+        ObjectMapper mapper;
+        ValidatorFactory validatorFactory;
+        Validator validator;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            mapper = objectMapper();
+            validatorFactory = Validation.buildDefaultValidatorFactory();
+            validator = validatorFactory.getValidator();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            validatorFactory.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Dispatches {
+        @Param({"1", "10", "100", "1000"})
+        int batchSize;
+
+        ObjectReader reader;
+        byte[] body;
+        List<MedDispatchRec> parsed;
+
+        @Setup(Level.Trial)
+        public void setUp(Json json) throws IOException {
+            JavaType type = json.mapper.getTypeFactory().constructCollectionType(List.class, MedDispatchRec.class);
+            reader = json.mapper.readerFor(type);
+            body = json.mapper.writeValueAsBytes(dispatches(batchSize, new Random(42)));
+            parsed = reader.readValue(body);
+            if (validate(json.validator, parsed) != 0) {
+                throw new IllegalStateException("Generated dispatches should be valid");
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Plan {
+        @Param({"1", "10", "100"})
+        int deliveries;
+
+        @Param({"50", "500", "5000"})
+        int movesPerDelivery;
+
+        ObjectWriter writer;
+        DeliveryPlan plan;
+        ByteArrayOutputStream out;
+
+        @Setup(Level.Trial)
+        public void setUp(Json json) throws IOException {
+            writer = json.mapper.writerFor(DeliveryPlan.class);
+            plan = plan(deliveries, movesPerDelivery, new Random(42));
+            out = new ByteArrayOutputStream();
+            writer.writeValue(out, plan);
+        }
+    }
+
+    @Benchmark
+    public List<MedDispatchRec> readDispatches(Dispatches state) throws IOException {
+        return state.reader.readValue(new ByteArrayInputStream(state.body));
+    }
+
+    @Benchmark
+    public int validateDispatches(Json json, Dispatches state) {
+        return validate(json.validator, state.parsed);
+    }
+
+    // What the controller pays before calcDeliveryPlan is called
+    @Benchmark
+    public int bindDispatches(Json json, Dispatches state) throws IOException {
+        List<MedDispatchRec> dispatches = state.reader.readValue(new ByteArrayInputStream(state.body));
+        return validate(json.validator, dispatches);
+    }
+
+    // The output buffer is reused, so its own growth isn't counted
+    @Benchmark
+    public int writePlan(Plan state) throws IOException {
+        state.out.reset();
+        state.writer.writeValue(state.out, state.plan);
+        return state.out.size();
+    }
+
+    // ==================== Fixtures ====================
+
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS,
+                        DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    // Each record is validated as @Valid does for the list's elements
+    static int validate(Validator validator, List<MedDispatchRec> dispatches) {
+        int violations = 0;
+        for (MedDispatchRec dispatch : dispatches) {
+            Set<ConstraintViolation<MedDispatchRec>> found = validator.validate(dispatch);
+            violations += found.size();
+        }
+        return violations;
+    }
+
+    static List<MedDispatchRec> dispatches(int count, Random random) {
+        LocalDate monday = LocalDate.of(2025, 12, 22);
+        List<MedDispatchRec> dispatches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DispatchRequirements requirements = new DispatchRequirements(
+                    0.5 + random.nextInt(20) * 0.5,
+                    random.nextInt(4) == 0,
+                    random.nextInt(6) == 0,
+                    random.nextBoolean() ? null : 5.0 + random.nextInt(40));
+            dispatches.add(new MedDispatchRec(
+                    1000 + i,
+                    monday.plusDays(random.nextInt(7)),
+                    LocalTime.of(8 + random.nextInt(10), random.nextInt(4) * 15),
+                    requirements,
+                    new LngLat(APPLETON_TOWER.lng() + (random.nextDouble() - 0.5) * 0.04,
+                            APPLETON_TOWER.lat() + (random.nextDouble() - 0.5) * 0.02)));
+        }
+        return dispatches;
+    }
+
+    /**
+     * Flight paths are random walks of 16-direction moves, so coordinates carry the same
+     * long decimal expansions as real ones; each delivery ends with a hover, as planned
+     * paths do. Deliveries are shared out over up to four drones.
+     */
+    static DeliveryPlan plan(int deliveries, int movesPerDelivery, Random random) {
+        int drones = Math.min(4, deliveries);
+        List<List<DeliveryPath>> perDrone = new ArrayList<>(drones);
+        for (int d = 0; d < drones; d++) {
+            perDrone.add(new ArrayList<>());
+        }
+
+        LngLat position = APPLETON_TOWER;
+        for (int i = 0; i < deliveries; i++) {
+            List<LngLat> flightPath = new ArrayList<>(movesPerDelivery + 1);
+            flightPath.add(position);
+            for (int m = 1; m < movesPerDelivery; m++) {
+                double angle = Math.toRadians(22.5 * random.nextInt(16));
+                position = new LngLat(position.lng() + STEP_SIZE * Math.cos(angle),
+                        position.lat() + STEP_SIZE * Math.sin(angle));
+                flightPath.add(position);
+            }
+            flightPath.add(position);
+            perDrone.get(i % drones).add(new DeliveryPath(1000 + i, flightPath));
+        }
+
+        List<DronePath> dronePaths = new ArrayList<>(drones);
+        for (int d = 0; d < drones; d++) {
+            dronePaths.add(new DronePath(d + 1, perDrone.get(d)));
+        }
+        int totalMoves = deliveries * movesPerDelivery;
+        return new DeliveryPlan(totalMoves * 0.02, totalMoves, dronePaths);
+    }
+}
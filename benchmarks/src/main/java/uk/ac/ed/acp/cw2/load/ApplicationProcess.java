@@ -0,0 +1,110 @@
+package uk.ac.ed.acp.cw2.load;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application under test, run from its executable jar in a separate JVM so the load
+ * generator doesn't compete with it for heap and JIT. It gets a scratch working directory,
+ * which keeps its H2 database and log apart from any real ones.
+ */
+final class ApplicationProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Process process;
+    private final URI baseUri;
+    private final Path workDir;
+
+    private ApplicationProcess(Process process, URI baseUri, Path workDir) {
+        this.process = process;
+        this.baseUri = baseUri;
+        this.workDir = workDir;
+    }
+
+    static ApplicationProcess start(Path jar, String ilpUrl, List<String> jvmArgs)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        Path workDir = Files.createTempDirectory("meddrone-load-");
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        command.add("--server.port=" + port);
+        command.add("--ILP_ENDPOINT=" + ilpUrl);
+        // Always start from the stub's data, not a snapshot left by an earlier run
+        command.add("--ilp.snapshot.enabled=false");
+
+        Process process = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("app.log").toFile())
+                .start();
+
+        ApplicationProcess app = new ApplicationProcess(process, URI.create("http://localhost:" + port), workDir);
+        try {
+            app.awaitHealthy();
+        } catch (IOException | RuntimeException | InterruptedException e) {
+            app.close();
+            throw e;
+        }
+        return app;
+    }
+
+    URI baseUri() {
+        return baseUri;
+    }
+
+    Path log() {
+        return workDir.resolve("app.log");
+    }
+
+    private void awaitHealthy() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest health = HttpRequest.newBuilder(baseUri.resolve("/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("Application exited with " + process.exitValue() + ", see " + log());
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IOException("Application not healthy after " + STARTUP_TIMEOUT + ", see " + log());
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
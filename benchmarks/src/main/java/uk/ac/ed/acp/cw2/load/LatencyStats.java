@@ -0,0 +1,131 @@
+package uk.ac.ed.acp.cw2.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and outcome counts per endpoint.
+ *
+ * Latency is measured from when a request was due to be sent, not when it was, so a
+ * backed-up server shows up in the percentiles instead of silently lowering the send rate.
+ */
+final class LatencyStats {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private static final class Endpoint {
+        final Recorder latency = new Recorder(MAX_TRACKABLE_NANOS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        // Frozen by finish(), so requests still in flight afterwards don't skew the report
+        Histogram total;
+        long okTotal;
+        long errorsTotal;
+        long failuresTotal;
+    }
+
+    private final Map<LoadEndpoint, Endpoint> endpoints = new EnumMap<>(LoadEndpoint.class);
+
+    LatencyStats() {
+        for (LoadEndpoint endpoint : LoadEndpoint.values()) {
+            endpoints.put(endpoint, new Endpoint());
+        }
+    }
+
+    void success(LoadEndpoint endpoint, long dueNanos, long doneNanos) {
+        Endpoint e = endpoints.get(endpoint);
+        e.latency.recordValue(Math.min(MAX_TRACKABLE_NANOS, doneNanos - dueNanos));
+        e.ok.increment();
+    }
+
+    /**
+     * A response with a non-2xx status; its latency still counts.
+     */
+    void error(LoadEndpoint endpoint, long dueNanos, long doneNanos) {
+        Endpoint e = endpoints.get(endpoint);
+        e.latency.recordValue(Math.min(MAX_TRACKABLE_NANOS, doneNanos - dueNanos));
+        e.errors.increment();
+    }
+
+    /**
+     * No response at all: connection failure or timeout.
+     */
+    void failure(LoadEndpoint endpoint) {
+        endpoints.get(endpoint).failures.increment();
+    }
+
+    /**
+     * Drop everything recorded so far, e.g. at the end of warm-up.
+     */
+    void reset() {
+        for (Endpoint e : endpoints.values()) {
+            e.latency.reset();
+            e.ok.reset();
+            e.errors.reset();
+            e.failures.reset();
+        }
+    }
+
+    /**
+     * Freeze the measurement window; call once when the run ends.
+     */
+    void finish() {
+        for (Endpoint e : endpoints.values()) {
+            e.total = e.latency.getIntervalHistogram();
+            e.okTotal = e.ok.sum();
+            e.errorsTotal = e.errors.sum();
+            e.failuresTotal = e.failures.sum();
+        }
+    }
+
+    void print(PrintStream out, double seconds) {
+        out.printf("%-22s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<LoadEndpoint, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint e = entry.getValue();
+            long errors = e.errorsTotal;
+            long failures = e.failuresTotal;
+            long requests = e.okTotal + errors + failures;
+            if (requests == 0) continue;
+
+            Histogram h = e.total;
+            out.printf("%-22s %9d %9.1f %7.2f%% %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().label, requests, requests / seconds,
+                    100.0 * errors / requests, 100.0 * failures / requests,
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                    millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)),
+                    millis(h.getMaxValue()));
+        }
+    }
+
+    /**
+     * Write one .hgrm percentile distribution per endpoint, for comparing builds with
+     * the HdrHistogram plotter.
+     */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<LoadEndpoint, Endpoint> entry : endpoints.entrySet()) {
+            Histogram h = entry.getValue().total;
+            if (h.getTotalCount() == 0) continue;
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(directory.resolve(entry.getKey().label + ".hgrm")))) {
+                h.outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,129 @@
+package uk.ac.ed.acp.cw2.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import uk.ac.ed.acp.cw2.bench.SyntheticIlpGenerator.Dataset;
+import uk.ac.ed.acp.cw2.dto.MedDispatchRec;
+import uk.ac.ed.acp.cw2.dto.QueryAttributes;
+import uk.ac.ed.acp.cw2.dto.ServicePoints;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Endpoints the load test drives, each building its request bodies from the generated
+ * dataset so the orders, drones and locations exist on the stub ILP service.
+ */
+enum LoadEndpoint {
+
+    CALC_DELIVERY_PATH("calcDeliveryPath") {
+        @Override
+        Object body(Dataset data, Random random, int ordersPerPlan) {
+            return sampleOrders(data, random, ordersPerPlan);
+        }
+    },
+    QUERY_AVAILABLE_DRONES("queryAvailableDrones") {
+        @Override
+        Object body(Dataset data, Random random, int ordersPerPlan) {
+            return sampleOrders(data, random, 1 + random.nextInt(3));
+        }
+    },
+    QUERY("query") {
+        @Override
+        Object body(Dataset data, Random random, int ordersPerPlan) {
+            List<QueryAttributes> attributes = new ArrayList<>();
+            attributes.add(new QueryAttributes("capacity", ">", Integer.toString(4 + random.nextInt(12))));
+            switch (random.nextInt(3)) {
+                case 0 -> attributes.add(new QueryAttributes("cooling", "=", "true"));
+                case 1 -> attributes.add(new QueryAttributes("costPerMove", "<", "0.03"));
+                default -> attributes.add(new QueryAttributes("maxMoves", ">", Integer.toString(1000 + 100 * random.nextInt(10))));
+            }
+            return attributes;
+        }
+    },
+    GRAPHQL("graphql") {
+        @Override
+        String path() {
+            return "/graphql";
+        }
+
+        @Override
+        Object body(Dataset data, Random random, int ordersPerPlan) {
+            return switch (random.nextInt(3)) {
+                case 0 -> Map.of("query",
+                        "query($min: Float) { drones(filters: { capability: { minCapacity: $min } }, "
+                                + "orderBy: { field: COST_PER_MOVE, direction: ASC }, limit: 10) "
+                                + "{ id name capability { capacity costPerMove } } }",
+                        "variables", Map.of("min", (double) (4 + random.nextInt(12))));
+                case 1 -> Map.of("query",
+                        "query($id: Int!) { drone(id: $id) { id name currentServicePoint { name location { lng lat } } } }",
+                        "variables", Map.of("id", 1 + random.nextInt(data.drones().size())));
+                default -> {
+                    ServicePoints sp = data.servicePoints().get(random.nextInt(data.servicePoints().size()));
+                    yield Map.of("query",
+                            "query($lng: Float!, $lat: Float!) { nearestServicePoints(to: { lng: $lng, lat: $lat }, count: 3) "
+                                    + "{ id name } }",
+                            "variables", Map.of("lng", sp.location().lng() + 0.001, "lat", sp.location().lat()));
+                }
+            };
+        }
+    };
+
+    final String label;
+
+    LoadEndpoint(String label) {
+        this.label = label;
+    }
+
+    String path() {
+        return "/api/v1/" + label;
+    }
+
+    abstract Object body(Dataset data, Random random, int ordersPerPlan);
+
+    HttpRequest request(URI base, ObjectMapper mapper, Dataset data, Random random,
+                        int ordersPerPlan, Duration timeout) {
+        byte[] json;
+        try {
+            json = mapper.writeValueAsBytes(body(data, random, ordersPerPlan));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HttpRequest.newBuilder(base.resolve(path()))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json))
+                .build();
+    }
+
+    static LoadEndpoint byLabel(String label) {
+        for (LoadEndpoint endpoint : values()) {
+            if (endpoint.label.equals(label)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + label);
+    }
+
+    // Distinct orders, so batches look like real dispatch lists
+    private static List<MedDispatchRec> sampleOrders(Dataset data, Random random, int count) {
+        List<MedDispatchRec> all = data.orders();
+        int n = Math.min(count, all.size());
+        LinkedHashSet<Integer> picked = new LinkedHashSet<>();
+        while (picked.size() < n) {
+            picked.add(random.nextInt(all.size()));
+        }
+        List<MedDispatchRec> orders = new ArrayList<>(n);
+        for (int index : picked) {
+            orders.add(all.get(index));
+        }
+        return orders;
+    }
+}
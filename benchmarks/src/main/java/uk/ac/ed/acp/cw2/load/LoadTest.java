@@ -0,0 +1,258 @@
+package uk.ac.ed.acp.cw2.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import uk.ac.ed.acp.cw2.bench.StubIlpServer;
+import uk.ac.ed.acp.cw2.bench.SyntheticIlpGenerator;
+import uk.ac.ed.acp.cw2.bench.SyntheticIlpGenerator.Dataset;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test against the REST and GraphQL endpoints.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar uk.ac.ed.acp.cw2.load.LoadTest \
+ *     --app-jar ../target/IlpTutorial1-0.0.1-SNAPSHOT-exec.jar --scale 10 \
+ *     --mix calcDeliveryPath=1,queryAvailableDrones=3,query=3,graphql=3 \
+ *     --rate 200 --concurrency 64 --warmup 15 --duration 60 --hgrm results/build-a
+ * </pre>
+ *
+ * A seeded synthetic dataset is served from a stub ILP service. With --app-jar the
+ * application is started against it; with --target an already running instance is used,
+ * which should itself point ILP_ENDPOINT at the printed stub URL (fix its port with
+ * --ilp-port). A --rate above zero sends requests on a fixed schedule (open model, capped
+ * at --concurrency in flight); zero runs --concurrency workers back to back (closed model).
+ */
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    private record Options(URI target, Path appJar, List<String> jvmArgs, int ilpPort,
+                           int scale, long seed, Map<LoadEndpoint, Integer> mix,
+                           double rate, int concurrency, Duration warmup, Duration duration,
+                           int ordersPerPlan, Duration timeout, Path hgrm) {}
+
+    public static void main(String[] args) throws Exception {
+        Options options = parse(args);
+
+        Dataset data = SyntheticIlpGenerator.generate(SyntheticIlpGenerator.Spec.atScale(options.scale(), options.seed()));
+        try (StubIlpServer ilp = StubIlpServer.start(data, options.ilpPort())) {
+            System.out.printf("Stub ILP at %s: %d drones, %d service points, %d restricted areas, %d orders%n",
+                    ilp.url(), data.drones().size(), data.servicePoints().size(),
+                    data.restrictedAreas().size(), data.orders().size());
+
+            if (options.appJar() == null) {
+                run(options, options.target(), data);
+                return;
+            }
+            try (ApplicationProcess app = ApplicationProcess.start(options.appJar(), ilp.url(), options.jvmArgs())) {
+                System.out.println("Application at " + app.baseUri() + ", log " + app.log());
+                run(options, app.baseUri(), data);
+            }
+        }
+    }
+
+    private static void run(Options options, URI base, Dataset data) throws IOException, InterruptedException {
+        ObjectMapper mapper = SyntheticIlpGenerator.objectMapper();
+        LatencyStats stats = new LatencyStats();
+        LoadEndpoint[] schedule = weighted(options.mix());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+            Sender sender = new Sender(client, stats);
+
+            long start = System.nanoTime();
+            long measureFrom = start + options.warmup().toNanos();
+            long end = measureFrom + options.duration().toNanos();
+
+            Thread resetter = Thread.ofPlatform().daemon().start(() -> {
+                LockSupport.parkNanos(measureFrom - System.nanoTime());
+                stats.reset();
+                System.out.println("Warm-up done, measuring for " + options.duration().toSeconds() + "s");
+            });
+
+            if (options.rate() > 0) {
+                openModel(options, base, data, mapper, schedule, sender, executor, start, end);
+            } else {
+                closedModel(options, base, data, mapper, schedule, sender, end);
+            }
+            resetter.join();
+            stats.finish();
+        }
+
+        System.out.println();
+        stats.print(System.out, options.duration().toNanos() / 1e9);
+        if (options.hgrm() != null) {
+            stats.writeDistributions(options.hgrm());
+            System.out.println("Wrote percentile distributions to " + options.hgrm().toAbsolutePath());
+        }
+    }
+
+    /**
+     * Requests are due at fixed intervals whatever the server does. When --concurrency are
+     * already in flight the next one waits, and that wait counts towards its latency.
+     */
+    private static void openModel(Options options, URI base, Dataset data, ObjectMapper mapper,
+                                  LoadEndpoint[] schedule, Sender sender, ExecutorService executor,
+                                  long start, long end) throws InterruptedException {
+        Random random = new Random(options.seed());
+        Semaphore inFlight = new Semaphore(options.concurrency());
+        double intervalNanos = 1e9 / options.rate();
+
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * intervalNanos);
+            if (due >= end) break;
+            LockSupport.parkNanos(due - System.nanoTime());
+
+            LoadEndpoint endpoint = schedule[random.nextInt(schedule.length)];
+            HttpRequest request = endpoint.request(base, mapper, data, random, options.ordersPerPlan(), options.timeout());
+            inFlight.acquire();
+            executor.execute(() -> {
+                try {
+                    sender.send(endpoint, request, due);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        // Let the last requests finish before the run is closed off
+        inFlight.acquire(options.concurrency());
+    }
+
+    private static void closedModel(Options options, URI base, Dataset data, ObjectMapper mapper,
+                                    LoadEndpoint[] schedule, Sender sender, long end)
+            throws InterruptedException {
+        List<Thread> workers = new ArrayList<>(options.concurrency());
+        for (int w = 0; w < options.concurrency(); w++) {
+            Random random = new Random(options.seed() + w);
+            workers.add(Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < end) {
+                    LoadEndpoint endpoint = schedule[random.nextInt(schedule.length)];
+                    HttpRequest request = endpoint.request(base, mapper, data, random,
+                            options.ordersPerPlan(), options.timeout());
+                    sender.send(endpoint, request, System.nanoTime());
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private record Sender(HttpClient client, LatencyStats stats) {
+        void send(LoadEndpoint endpoint, HttpRequest request, long dueNanos) {
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                long done = System.nanoTime();
+                if (status >= 200 && status < 300) {
+                    stats.success(endpoint, dueNanos, done);
+                } else {
+                    stats.error(endpoint, dueNanos, done);
+                }
+            } catch (IOException e) {
+                stats.failure(endpoint);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stats.failure(endpoint);
+            }
+        }
+    }
+
+    // Each endpoint repeated by its weight, so a uniform pick follows the mix
+    private static LoadEndpoint[] weighted(Map<LoadEndpoint, Integer> mix) {
+        List<LoadEndpoint> slots = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(endpoint);
+            }
+        });
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("--mix needs at least one positive weight");
+        }
+        return slots.toArray(LoadEndpoint[]::new);
+    }
+
+    // ==================== Options ====================
+
+    private static Options parse(String[] args) {
+        URI target = null;
+        Path appJar = null;
+        List<String> jvmArgs = List.of();
+        int ilpPort = 0;
+        int scale = 1;
+        long seed = 1;
+        Map<LoadEndpoint, Integer> mix = parseMix("calcDeliveryPath=1,queryAvailableDrones=3,query=3,graphql=3");
+        double rate = 0;
+        int concurrency = 16;
+        Duration warmup = Duration.ofSeconds(15);
+        Duration duration = Duration.ofSeconds(60);
+        int ordersPerPlan = 5;
+        Duration timeout = Duration.ofSeconds(30);
+        Path hgrm = null;
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException(args[i] + " needs a value");
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--target" -> target = URI.create(value);
+                case "--app-jar" -> appJar = Path.of(value);
+                case "--jvm-args" -> jvmArgs = Arrays.asList(value.trim().split("\\s+"));
+                case "--ilp-port" -> ilpPort = Integer.parseInt(value);
+                case "--scale" -> scale = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--mix" -> mix = parseMix(value);
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--concurrency" -> concurrency = Integer.parseInt(value);
+                case "--warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "--duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "--orders-per-plan" -> ordersPerPlan = Integer.parseInt(value);
+                case "--timeout" -> timeout = Duration.ofSeconds(Long.parseLong(value));
+                case "--hgrm" -> hgrm = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        if ((target == null) == (appJar == null)) {
+            throw new IllegalArgumentException("Give exactly one of --target and --app-jar");
+        }
+        if (concurrency < 1 || duration.isZero() || duration.isNegative() || rate < 0 || ordersPerPlan < 1) {
+            throw new IllegalArgumentException("--concurrency, --duration and --orders-per-plan must be positive");
+        }
+        return new Options(target, appJar, jvmArgs, ilpPort, scale, seed, mix, rate, concurrency,
+                warmup, duration, ordersPerPlan, timeout, hgrm);
+    }
+
+    private static Map<LoadEndpoint, Integer> parseMix(String spec) {
+        Map<LoadEndpoint, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Bad --mix entry " + part);
+            }
+            mix.put(LoadEndpoint.byLabel(kv[0].trim()), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,172 @@
+package uk.ac.ed.acp.cw2.services;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ed.acp.cw2.dto.LngLat;
+
+import java.awt.geom.Path2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ed.acp.cw2.data.Directions.STEP_SIZE;
+
+/**
+ * Point-in-polygon and segment tests across polygon sizes, shapes and point placement.
+ *
+ * Each invocation takes the next of a fixed, seeded set of points (or one-move segments
+ * starting at them), so the branch predictor can't settle on a single answer.
+ */
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeometryBenchmark {
+
+    private static final LngLat CENTRE = new LngLat(-3.1880, 55.9440);
+    private static final double RADIUS = 0.002;
+    private static final int SAMPLES = 1024;
+
+    public enum Shape { CONVEX, CONCAVE }
+
+    public enum Placement { INSIDE, OUTSIDE, BORDER }
+
+    @State(Scope.Thread)
+    public static class Polygon {
+        @Param({"4", "16", "64", "256", "1000"})
+        int vertexCount;
+
+        @Param({"CONVEX", "CONCAVE"})
+        Shape shape;
+
+        @Param({"INSIDE", "OUTSIDE", "BORDER"})
+        Placement placement;
+
+        List<LngLat> vertices;
+        LngLat[] points;
+        LngLat[] moveEnds;
+        DroneRoutingService routing;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            vertices = shape == Shape.CONVEX ? regular(vertexCount) : concave(vertexCount);
+            Random random = new Random(42);
+            points = sample(vertices, placement, random);
+
+            moveEnds = new LngLat[SAMPLES];
+            for (int i = 0; i < SAMPLES; i++) {
+                double angle = Math.toRadians(22.5 * random.nextInt(16));
+                moveEnds[i] = new LngLat(points[i].lng() + STEP_SIZE * Math.cos(angle),
+                        points[i].lat() + STEP_SIZE * Math.sin(angle));
+            }
+            routing = RoutingFixtures.routingService(List.of());
+        }
+
+        int next() {
+            int i = next;
+            next = (i + 1) & (SAMPLES - 1);
+            return i;
+        }
+    }
+
+    @Benchmark
+    public boolean isInRegion(Polygon state) {
+        return DronePointInRegion.isInRegion(state.points[state.next()], state.vertices);
+    }
+
+    // The border pass of isInRegion on its own
+    @Benchmark
+    public boolean onSegmentEdges(Polygon state) {
+        LngLat p = state.points[state.next()];
+        List<LngLat> v = state.vertices;
+        for (int i = 0; i < v.size() - 1; i++) {
+            LngLat a = v.get(i);
+            LngLat b = v.get(i + 1);
+            if (DronePointInRegion.onSegment(p.lng(), p.lat(), a.lng(), a.lat(), b.lng(), b.lat())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // One A* move tested against every edge, as moveCrossesRestrictedArea does
+    @Benchmark
+    public boolean moveCrossesEdges(Polygon state) {
+        int i = state.next();
+        LngLat from = state.points[i];
+        LngLat to = state.moveEnds[i];
+        List<LngLat> v = state.vertices;
+        for (int e = 0; e < v.size() - 1; e++) {
+            if (state.routing.lineSegmentsIntersect(from, to, v.get(e), v.get(e + 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== Fixtures ====================
+
+    static List<LngLat> regular(int n) {
+        List<LngLat> vertices = new ArrayList<>(n + 1);
+        for (int i = 0; i < n; i++) {
+            vertices.add(polar(RADIUS, 2 * Math.PI * i / n));
+        }
+        vertices.add(vertices.getFirst());
+        return List.copyOf(vertices);
+    }
+
+    // A star (alternating radii) from 6 vertices up; with 4, an arrowhead
+    static List<LngLat> concave(int n) {
+        List<LngLat> vertices = new ArrayList<>(n + 1);
+        if (n == 4) {
+            vertices.add(polar(RADIUS, 0));
+            vertices.add(polar(RADIUS, 0.75 * Math.PI));
+            vertices.add(polar(0.3 * RADIUS, Math.PI));
+            vertices.add(polar(RADIUS, 1.25 * Math.PI));
+        } else {
+            for (int i = 0; i < n; i++) {
+                vertices.add(polar(i % 2 == 0 ? RADIUS : 0.5 * RADIUS, 2 * Math.PI * i / n));
+            }
+        }
+        vertices.add(vertices.getFirst());
+        return List.copyOf(vertices);
+    }
+
+    /**
+     * Inside and outside points are drawn from a box 1.5x the polygon's extent, so outside
+     * points sit near the shape rather than trivially far away. Border points lie on edges.
+     */
+    static LngLat[] sample(List<LngLat> vertices, Placement placement, Random random) {
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        path.moveTo(vertices.getFirst().lng(), vertices.getFirst().lat());
+        for (LngLat v : vertices) {
+            path.lineTo(v.lng(), v.lat());
+        }
+
+        LngLat[] points = new LngLat[SAMPLES];
+        int count = 0;
+        while (count < SAMPLES) {
+            if (placement == Placement.BORDER) {
+                int edge = random.nextInt(vertices.size() - 1);
+                LngLat a = vertices.get(edge);
+                LngLat b = vertices.get(edge + 1);
+                double t = random.nextDouble();
+                points[count++] = new LngLat(a.lng() + t * (b.lng() - a.lng()), a.lat() + t * (b.lat() - a.lat()));
+                continue;
+            }
+
+            double lng = CENTRE.lng() + (random.nextDouble() * 2 - 1) * 1.5 * RADIUS;
+            double lat = CENTRE.lat() + (random.nextDouble() * 2 - 1) * 1.5 * RADIUS;
+            if (path.contains(lng, lat) == (placement == Placement.INSIDE)) {
+                points[count++] = new LngLat(lng, lat);
+            }
+        }
+        return points;
+    }
+
+    private static LngLat polar(double radius, double angle) {
+        return new LngLat(CENTRE.lng() + radius * Math.cos(angle), CENTRE.lat() + radius * Math.sin(angle));
+    }
+}
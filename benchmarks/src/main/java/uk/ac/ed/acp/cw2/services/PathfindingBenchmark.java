@@ -0,0 +1,87 @@
+package uk.ac.ed.acp.cw2.services;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ed.acp.cw2.data.Node;
+import uk.ac.ed.acp.cw2.dto.LngLat;
+import uk.ac.ed.acp.cw2.dto.RestrictedAreas;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ed.acp.cw2.services.RoutingFixtures.*;
+
+/**
+ * A* leg search ({@code findPathWithTimeout}, neighbour generation and {@code Node}
+ * allocation) over fixed scenarios. Run through BenchmarkMain for allocation figures.
+ */
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PathfindingBenchmark {
+
+    public enum Scenario {
+        /** Short leg well away from any restricted area. */
+        OPEN_FIELD(new LngLat(-3.1840, 55.9420), new LngLat(-3.1800, 55.9440), CAMPUS),
+        /** Runs alongside the north edge of George Square, between it and the Quadrangle. */
+        NEAR_BOUNDARY(new LngLat(-3.1908, 55.9443), new LngLat(-3.1874, 55.9448), CAMPUS),
+        /** Diagonal that has to funnel through a gap about three moves wide. */
+        CORRIDOR(new LngLat(-3.1835, 55.9365), new LngLat(-3.1805, 55.9405), concat(CAMPUS, RoutingFixtures.CORRIDOR)),
+        /** Roughly 200 moves across the city, detouring around George Square. */
+        CROSS_CITY(new LngLat(-3.2020, 55.9480), new LngLat(-3.1720, 55.9380), CAMPUS),
+        /** Target walled in: the search runs until its iteration limit. */
+        UNREACHABLE(new LngLat(-3.1800, 55.9480), new LngLat(-3.1760, 55.9500), concat(CAMPUS, WALLED_IN));
+
+        final LngLat origin;
+        final LngLat target;
+        final List<RestrictedAreas> areas;
+
+        Scenario(LngLat origin, LngLat target, List<RestrictedAreas> areas) {
+            this.origin = origin;
+            this.target = target;
+            this.areas = areas;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Reachable {
+        @Param({"OPEN_FIELD", "NEAR_BOUNDARY", "CORRIDOR", "CROSS_CITY"})
+        Scenario scenario;
+
+        DroneRoutingService service;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            service = routingService(scenario.areas);
+            if (service.findPathWithTimeout(scenario.origin, scenario.target).isEmpty()) {
+                throw new IllegalStateException(scenario + " should have a path");
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Unreachable {
+        DroneRoutingService service;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            service = routingService(Scenario.UNREACHABLE.areas);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Node> leg(Reachable state) {
+        return state.service.findPathWithTimeout(state.scenario.origin, state.scenario.target);
+    }
+
+    // Each call runs to the iteration cap, so fewer, longer iterations
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 10)
+    @Measurement(iterations = 3, time = 10)
+    public List<Node> unreachableLeg(Unreachable state) {
+        return state.service.findPathWithTimeout(Scenario.UNREACHABLE.origin, Scenario.UNREACHABLE.target);
+    }
+}
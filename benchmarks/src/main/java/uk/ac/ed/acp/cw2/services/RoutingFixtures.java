@@ -0,0 +1,99 @@
+package uk.ac.ed.acp.cw2.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uk.ac.ed.acp.cw2.dto.LngLat;
+import uk.ac.ed.acp.cw2.dto.RestrictedAreas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed geometry shared by the routing benchmarks.
+ *
+ * The campus areas follow the shape of the ILP restricted areas around George Square so the
+ * numbers resemble production; everything is built in code so runs don't depend on the
+ * ILP endpoint.
+ */
+final class RoutingFixtures {
+
+    private RoutingFixtures() {}
+
+    static final List<RestrictedAreas> CAMPUS = List.of(
+            area("George Square Area", 1,
+                    -3.190578818321228, 55.94402412577528,
+                    -3.1899887323379517, 55.94284650540911,
+                    -3.187097311019897, 55.94328811724263,
+                    -3.187682032585144, 55.944477740393744),
+            area("Dr Elsie Inglis Quadrangle", 2,
+                    -3.1907182931900024, 55.94519570234043,
+                    -3.1906163692474365, 55.94498241796357,
+                    -3.1900262832641597, 55.94507554227258,
+                    -3.190133571624756, 55.94529783810495),
+            area("Bristo Square Open Area", 3,
+                    -3.189543485641479, 55.94552313663306,
+                    -3.189382553100586, 55.94553214854692,
+                    -3.189259171485901, 55.94544803726933,
+                    -3.1892001628875732, 55.94533688994374,
+                    -3.189194798469543, 55.94519570234043,
+                    -3.189135789871216, 55.94511759833873,
+                    -3.188138008117676, 55.9452738061846,
+                    -3.1885510683059692, 55.946105902745614,
+                    -3.1895381212234497, 55.94555918427592),
+            area("Bayes Central Area", 4,
+                    -3.1876927614212036, 55.94520696732767,
+                    -3.187555968761444, 55.9449621408666,
+                    -3.186981976032257, 55.94505676722831,
+                    -3.1872327625751495, 55.94536993377657));
+
+    /**
+     * Two long blocks south of campus leaving a gap about three moves wide at lng -3.1820,
+     * so going round either end costs far more than threading the gap.
+     */
+    static final List<RestrictedAreas> CORRIDOR = List.of(
+            rectangle("Corridor West", 10, -3.1900, 55.9370, -3.1822, 55.9400),
+            rectangle("Corridor East", 11, -3.1818, 55.9370, -3.1740, 55.9400));
+
+    /**
+     * Four walls enclosing (-3.1760, 55.9500) with no way in.
+     */
+    static final List<RestrictedAreas> WALLED_IN = List.of(
+            rectangle("Wall North", 20, -3.1775, 55.9512, -3.1745, 55.9515),
+            rectangle("Wall South", 21, -3.1775, 55.9485, -3.1745, 55.9488),
+            rectangle("Wall West", 22, -3.1775, 55.9485, -3.1772, 55.9515),
+            rectangle("Wall East", 23, -3.1748, 55.9485, -3.1745, 55.9515));
+
+    static List<RestrictedAreas> concat(List<RestrictedAreas> a, List<RestrictedAreas> b) {
+        List<RestrictedAreas> all = new ArrayList<>(a);
+        all.addAll(b);
+        return List.copyOf(all);
+    }
+
+    /**
+     * Routing service whose restricted areas come from memory. Only the geometry paths are
+     * exercised, so availability and the REST client are left out.
+     */
+    static DroneRoutingService routingService(List<RestrictedAreas> areas) {
+        DroneQueryService queries = new DroneQueryService(null, null) {
+            @Override
+            public List<RestrictedAreas> fetchRestrictedAreas() {
+                return areas;
+            }
+        };
+        return new DroneRoutingService(null, queries, new SimpleMeterRegistry(), null);
+    }
+
+    static RestrictedAreas rectangle(String name, int id, double minLng, double minLat,
+                                     double maxLng, double maxLat) {
+        return area(name, id, minLng, minLat, maxLng, minLat, maxLng, maxLat, minLng, maxLat);
+    }
+
+    // Closes the ring by repeating the first vertex, as the ILP data does
+    static RestrictedAreas area(String name, int id, double... lngLat) {
+        List<LngLat> vertices = new ArrayList<>(lngLat.length / 2 + 1);
+        for (int i = 0; i < lngLat.length; i += 2) {
+            vertices.add(new LngLat(lngLat[i], lngLat[i + 1]));
+        }
+        vertices.add(vertices.getFirst());
+        return new RestrictedAreas(name, id, null, List.copyOf(vertices));
+    }
+}
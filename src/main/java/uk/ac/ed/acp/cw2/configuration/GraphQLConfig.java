@@ -1,17 +1,91 @@
 package uk.ac.ed.acp.cw2.configuration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import uk.ac.ed.acp.cw2.graphql.CachingDocumentProvider;
+import uk.ac.ed.acp.cw2.graphql.PersistedQueryInterceptor;
+import uk.ac.ed.acp.cw2.graphql.PersistedQueryRequestFilter;
+import uk.ac.ed.acp.cw2.graphql.QueryCostCalculator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
- * THIS FILE IS NO LONGER USED
+ * GraphQL engine customisation.
  *
- * It was created for GraphQL instrumentation which has been reverted.
- * This file can be safely deleted.
+ * Parsed documents are cached and persisted queries are resolved by
+ * {@link CachingDocumentProvider}. Queries found under the persisted-queries location
+ * are registered at startup, so clients can send only their hash; over HTTP such
+ * requests go through {@link PersistedQueryRequestFilter} and
+ * {@link PersistedQueryInterceptor}.
  *
- * Keeping it here as a placeholder to avoid issues,
- * but it doesn't register any beans and will not affect the application.
+ * Queries deeper than {@code graphql.limits.max-depth} or costlier than
+ * {@code graphql.limits.max-complexity} (see {@link QueryCostCalculator}) are
+ * rejected before any resolver runs.
  */
 @Configuration
 public class GraphQLConfig {
-    // Disabled - no longer used
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphQLConfig.class);
+
+    @Bean
+    public CachingDocumentProvider graphQlDocumentProvider(
+            @Value("${graphql.document-cache.max-entries:500}") int maxDocuments,
+            @Value("${graphql.persisted-queries.max-entries:1000}") int maxPersistedQueries,
+            @Value("${graphql.persisted-queries.allow-registration:true}") boolean allowRegistration,
+            @Value("${graphql.persisted-queries.location:classpath*:graphql/persisted/*.graphql}") String location,
+            MeterRegistry meterRegistry) throws IOException {
+
+        CachingDocumentProvider provider = new CachingDocumentProvider(
+                maxDocuments, maxPersistedQueries, allowRegistration, meterRegistry);
+
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location);
+        for (Resource resource : resources) {
+            String hash = provider.register(resource.getContentAsString(StandardCharsets.UTF_8));
+            logger.info("Registered persisted query {} as {}", resource.getFilename(), hash);
+        }
+
+        return provider;
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer graphQlDocumentCacheCustomizer(CachingDocumentProvider documentProvider) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentProvider));
+    }
+
+    // spring.graphql.http.path takes over from spring.graphql.path in later Boot versions
+    @Bean
+    public PersistedQueryRequestFilter persistedQueryRequestFilter(
+            ObjectMapper objectMapper,
+            @Value("${spring.graphql.http.path:${spring.graphql.path:/graphql}}") String path) {
+        return new PersistedQueryRequestFilter(objectMapper, path);
+    }
+
+    @Bean
+    public PersistedQueryInterceptor persistedQueryInterceptor() {
+        return new PersistedQueryInterceptor();
+    }
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+            @Value("${graphql.limits.max-depth:8}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+            @Value("${graphql.limits.max-complexity:5000}") int maxComplexity,
+            @Value("${graphql.limits.default-list-size:20}") int defaultListSize) {
+        return new MaxQueryComplexityInstrumentation(maxComplexity, new QueryCostCalculator(defaultListSize, maxComplexity));
+    }
 }
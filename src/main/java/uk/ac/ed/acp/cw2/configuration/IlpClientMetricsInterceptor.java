@@ -0,0 +1,127 @@
+package uk.ac.ed.acp.cw2.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Records per-endpoint response sizes and transport failures for ILP calls.
+ * Latency and status are already covered by the http.client.requests observation.
+ *
+ * Sizes are counted on the decoded body as it is read, since Content-Length is
+ * absent for gzip-encoded responses.
+ */
+class IlpClientMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    IlpClientMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        String uri = request.getURI().getPath();
+        try {
+            return new CountingResponse(execution.execute(request, body), sizeSummary(uri));
+        } catch (IOException e) {
+            Counter.builder("ilp.client.errors")
+                    .description("ILP requests that failed before a response was received")
+                    .tag("uri", uri)
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        }
+    }
+
+    private DistributionSummary sizeSummary(String uri) {
+        return DistributionSummary.builder("ilp.client.response.size")
+                .description("Decoded ILP response body size")
+                .baseUnit("bytes")
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+
+    private static final class CountingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final DistributionSummary summary;
+        private CountingStream body;
+
+        CountingResponse(ClientHttpResponse delegate, DistributionSummary summary) {
+            this.delegate = delegate;
+            this.summary = summary;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (body != null) {
+                summary.record(body.count);
+            }
+            delegate.close();
+        }
+    }
+
+    private static final class CountingStream extends FilterInputStream {
+        long count;
+
+        CountingStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -1,10 +1,23 @@
 package uk.ac.ed.acp.cw2.configuration;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.client.RestClient;
 
 @Configuration
 @EnableScheduling
@@ -17,5 +30,56 @@ public class IlpRestServiceConfig {
     public String endPoint(@Value("${ILP_ENDPOINT:" + defaultUrl + "}") String url) {
         return url;
     }
+
+    /**
+     * Shared HTTP transport: pooled keep-alive connections, explicit timeouts,
+     * and transparent gzip/deflate (Apache HttpClient negotiates and decodes it by default).
+     * Spring closes the pool on shutdown through the factory's destroy().
+     */
+    @Bean
+    public ClientHttpRequestFactory ilpRequestFactory(
+            @Value("${ilp.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${ilp.http.read-timeout-ms:10000}") long readTimeoutMs,
+            @Value("${ilp.http.max-connections:50}") int maxConnections,
+            @Value("${ilp.http.max-connections-per-route:20}") int maxConnectionsPerRoute) {
+
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * Client for the ILP REST upstream. The Boot-provided builder records
+     * http.client.requests timers (latency, status, outcome per URI); the interceptor
+     * adds response sizes.
+     */
+    @Bean
+    public RestClient ilpRestClient(RestClient.Builder builder,
+                                    @Qualifier("endPoint") String endPoint,
+                                    @Qualifier("ilpRequestFactory") ClientHttpRequestFactory requestFactory,
+                                    MeterRegistry meterRegistry) {
+        return builder
+                .baseUrl(endPoint)
+                .requestFactory(requestFactory)
+                .requestInterceptor(new IlpClientMetricsInterceptor(meterRegistry))
+                .build();
+    }
 }
 
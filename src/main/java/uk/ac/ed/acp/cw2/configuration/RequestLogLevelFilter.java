@@ -0,0 +1,51 @@
+package uk.ac.ed.acp.cw2.configuration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Lets a single request or tenant log below the configured level.
+ *
+ * A request carries its override in the MDC (see {@link RequestLoggingContextFilter}).
+ * A tenant's override is the level of the logger named {@code tenant.<id>}, so it can be
+ * switched at runtime through the actuator loggers endpoint, which the ops profile exposes
+ * on the localhost-only management port, e.g.
+ * {@code POST /actuator/loggers/tenant.acme {"configuredLevel": "DEBUG"}}.
+ * Only this application's loggers are affected. With no override in play this costs two
+ * MDC lookups, and guarded hot-path logging checks the level once per leg.
+ */
+public class RequestLogLevelFilter extends TurboFilter {
+
+    static final String LEVEL_KEY = "logLevel";
+    static final String TENANT_KEY = "tenant";
+    static final String TENANT_LOGGER_PREFIX = "tenant.";
+
+    private static final String APP_LOGGER_PREFIX = "uk.ac.ed.acp.cw2.";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level,
+                              String format, Object[] params, Throwable t) {
+        if (level == null || !logger.getName().startsWith(APP_LOGGER_PREFIX)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        Level override = Level.toLevel(MDC.get(LEVEL_KEY), null);
+
+        String tenant = MDC.get(TENANT_KEY);
+        if (tenant != null) {
+            // exists() never creates a logger, so unknown tenant ids cost nothing to keep
+            Logger tenantLogger = ((LoggerContext) getContext()).exists(TENANT_LOGGER_PREFIX + tenant);
+            Level tenantLevel = tenantLogger == null ? null : tenantLogger.getLevel();
+            if (tenantLevel != null && (override == null || tenantLevel.toInt() < override.toInt())) {
+                override = tenantLevel;
+            }
+        }
+
+        return override != null && level.isGreaterOrEqual(override) ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+}
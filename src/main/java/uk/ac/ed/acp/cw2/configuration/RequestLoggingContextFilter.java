@@ -0,0 +1,52 @@
+package uk.ac.ed.acp.cw2.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Puts the caller's tenant and any requested log level into the MDC for
+ * {@link RequestLogLevelFilter}. The X-Log-Level header is ignored unless
+ * logging.request-level.enabled is set, so clients can't switch on tracing by default.
+ */
+@Component
+public class RequestLoggingContextFilter extends OncePerRequestFilter {
+
+    static final String TENANT_HEADER = "X-Tenant-Id";
+    static final String LOG_LEVEL_HEADER = "X-Log-Level";
+
+    private static final int MAX_TENANT_LENGTH = 64;
+
+    private final boolean levelHeaderEnabled;
+
+    public RequestLoggingContextFilter(@Value("${logging.request-level.enabled:false}") boolean levelHeaderEnabled) {
+        this.levelHeaderEnabled = levelHeaderEnabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String tenant = request.getHeader(TENANT_HEADER);
+        String level = levelHeaderEnabled ? request.getHeader(LOG_LEVEL_HEADER) : null;
+
+        if (tenant != null && !tenant.isBlank() && tenant.length() <= MAX_TENANT_LENGTH) {
+            MDC.put(RequestLogLevelFilter.TENANT_KEY, tenant);
+        }
+        if (level != null && !level.isBlank()) {
+            MDC.put(RequestLogLevelFilter.LEVEL_KEY, level);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(RequestLogLevelFilter.TENANT_KEY);
+            MDC.remove(RequestLogLevelFilter.LEVEL_KEY);
+        }
+    }
+}
@@ -19,4 +19,9 @@ public class DroneAvailabilityController {
     public int[] queryAvailableDrones(@RequestBody List<MedDispatchRec> dispatches) {
         return availabilityService.queryAvailableDrones(dispatches);
     }
+
+    @PostMapping("/queryAvailableDronesBulk")
+    public int[][] queryAvailableDronesBulk(@RequestBody List<List<MedDispatchRec>> groups) {
+        return availabilityService.queryAvailableDronesBulk(groups);
+    }
 }
\ No newline at end of file
@@ -1,9 +1,16 @@
 package uk.ac.ed.acp.cw2.controller;
 
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import uk.ac.ed.acp.cw2.dto.*;
+import uk.ac.ed.acp.cw2.services.DeliveryPlanCache;
+import uk.ac.ed.acp.cw2.services.DeliveryPlanCache.CachedPlan;
+import uk.ac.ed.acp.cw2.services.DeliveryPlanRepository;
 import uk.ac.ed.acp.cw2.services.DroneRoutingService;
+import uk.ac.ed.acp.cw2.services.PlanProfileRecorder;
 import java.util.List;
 import java.util.Map;
 
@@ -11,18 +18,61 @@ import java.util.Map;
 @RequestMapping("/api/v1")
 public class DroneRoutingController {
 
+    // Id under which a computed plan can be fetched again from /deliveryPlans/{planId}
+    static final String PLAN_ID_HEADER = "X-Plan-Id";
+    // Opt-in: "true" attaches a PlanProfile to the plan
+    static final String PLAN_PROFILE_HEADER = "X-Plan-Profile";
+
     private final DroneRoutingService droneRoutingService;
-    public DroneRoutingController(DroneRoutingService droneRoutingService1) {
+    private final DeliveryPlanRepository planRepository;
+    private final DeliveryPlanCache planCache;
+    public DroneRoutingController(DroneRoutingService droneRoutingService1,
+                                  DeliveryPlanRepository planRepository,
+                                  DeliveryPlanCache planCache) {
         this.droneRoutingService = droneRoutingService1;
+        this.planRepository = planRepository;
+        this.planCache = planCache;
     }
 
+    // Resubmitting the same orders (in any order) returns the cached plan and its original id
     @PostMapping("/calcDeliveryPath")
-    public DeliveryPlan calcDeliveryPath(@Valid @RequestBody List<MedDispatchRec> req) {
-        return droneRoutingService.calcDeliveryPlan(req);
+    public ResponseEntity<?> calcDeliveryPath(
+            @Valid @RequestBody List<MedDispatchRec> req,
+            @RequestHeader(value = PLAN_PROFILE_HEADER, defaultValue = "false") boolean profile) {
+        PlanProfileRecorder recorder = profile ? new PlanProfileRecorder() : null;
+
+        CachedPlan result = planCache.get(req, () -> {
+            DeliveryPlan plan = droneRoutingService.calcDeliveryPlan(req, recorder);
+            return new CachedPlan(planRepository.save(req, plan), plan);
+        }, recorder);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.planId() != null) {
+            response.header(PLAN_ID_HEADER, result.planId());
+        }
+        if (recorder != null) {
+            return response.body(new ProfiledDeliveryPlan(result.plan(), recorder.build()));
+        }
+        return response.body(result.plan());
     }
 
     @PostMapping("/calcDeliveryPathAsGeoJson")
     public Map<String, Object> calcDeliveryPathAsGeoJson(@Valid @RequestBody List<MedDispatchRec> req) {
         return droneRoutingService.calcDeliveryPathAsGeoJson(req);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/deliveryPlans/{planId}")
+    public ResponseEntity<DeliveryPlan> deliveryPlan(@PathVariable String planId) {
+        return planRepository.findById(planId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/deliveryPlans")
+    public List<DeliveryPlanSummary> recentDeliveryPlans(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > 500) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and 500");
+        }
+        return planRepository.findRecent(limit);
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.server.ResponseStatusException;
+import uk.ac.ed.acp.cw2.data.InvalidQueryException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -13,6 +14,11 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(ex.getStatusCode()).body(ex.getReason());
     }
 
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<String> handleInvalidQueryException(InvalidQueryException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<String> handleValidationException(MethodArgumentNotValidException ex) {
         return ResponseEntity.badRequest().body("Validation error: " + ex.getMessage());
@@ -0,0 +1,214 @@
+package uk.ac.ed.acp.cw2.data;
+
+import uk.ac.ed.acp.cw2.dto.DroneAvailability;
+import uk.ac.ed.acp.cw2.dto.DronesForServicePoints;
+import uk.ac.ed.acp.cw2.dto.ListDrones;
+import uk.ac.ed.acp.cw2.dto.MedDispatchRec;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Precompiled weekly availability for every drone, built once per availability dataset.
+ *
+ * Each drone gets a dense slot. Per slot and per {@link DayOfWeek} the availability windows
+ * are merged into a sorted array of [from, until] pairs (nano-of-day, inclusive), so
+ * "is this drone free at this time" is a binary search. An eighth list holds the union
+ * over all days for dispatches that carry a time but no date.
+ *
+ * Matching rules are those of the original slot scan: a dispatch with neither date nor
+ * time matches any scheduled drone, a date alone matches any window on that day, and a
+ * drone listed at several service points uses its first listing.
+ */
+public final class AvailabilityCalendar {
+
+    private static final int ANY_DAY = 7;
+    private static final long[] NO_WINDOWS = new long[0];
+
+    private final List<DronesForServicePoints> source;
+    private final Map<Integer, Integer> slotByDrone = new HashMap<>();
+
+    // [slot][day or ANY_DAY] -> flattened merged windows {from0, until0, from1, until1, ...}
+    private final long[][][] windows;
+
+    // [slot] -> days with at least one listed window, whatever its times
+    private final boolean[][] listedDays;
+
+    private AvailabilityCalendar(List<DronesForServicePoints> source) {
+        this.source = source;
+
+        Map<Integer, List<DroneAvailability>> firstListing = new LinkedHashMap<>();
+        if (source != null) {
+            for (DronesForServicePoints sp : source) {
+                if (sp.drones() == null) continue;
+                for (ListDrones ld : sp.drones()) {
+                    firstListing.putIfAbsent(ld.id(), ld.availability());
+                }
+            }
+        }
+
+        List<long[][]> windowList = new ArrayList<>();
+        List<boolean[]> listedList = new ArrayList<>();
+
+        for (Map.Entry<Integer, List<DroneAvailability>> entry : firstListing.entrySet()) {
+            List<DroneAvailability> slots = entry.getValue();
+            if (slots == null || slots.isEmpty()) continue;
+
+            slotByDrone.put(entry.getKey(), windowList.size());
+            windowList.add(compileWindows(slots));
+            listedList.add(listedDays(slots));
+        }
+
+        this.windows = windowList.toArray(new long[0][][]);
+        this.listedDays = listedList.toArray(new boolean[0][]);
+    }
+
+    public static AvailabilityCalendar build(List<DronesForServicePoints> all) {
+        return new AvailabilityCalendar(all);
+    }
+
+    /**
+     * The dataset this calendar was built from; callers compare it by identity
+     * to decide whether the calendar is still current.
+     */
+    public List<DronesForServicePoints> source() {
+        return source;
+    }
+
+    /**
+     * Number of drones with a non-empty schedule.
+     */
+    public int size() {
+        return windows.length;
+    }
+
+    /**
+     * Dense slot of a drone, or -1 if it has no schedule.
+     */
+    public int slotOf(int droneId) {
+        Integer slot = slotByDrone.get(droneId);
+        return slot == null ? -1 : slot;
+    }
+
+    public boolean isAvailableForAll(int droneId, List<MedDispatchRec> dispatches) {
+        int slot = slotOf(droneId);
+        if (slot < 0) return false;
+
+        for (MedDispatchRec d : dispatches) {
+            if (!isAvailable(slot, d.date(), d.time())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isAvailable(int slot, LocalDate date, LocalTime time) {
+        if (date == null && time == null) {
+            return true;
+        }
+
+        if (time == null) {
+            return listedDays[slot][date.getDayOfWeek().ordinal()];
+        }
+
+        int day = date == null ? ANY_DAY : date.getDayOfWeek().ordinal();
+        return contains(windows[slot][day], time.toNanoOfDay());
+    }
+
+    /**
+     * Slots of all drones free at the given date and time, for sharing across many checks.
+     */
+    public BitSet availableSlots(LocalDate date, LocalTime time) {
+        BitSet result = new BitSet(windows.length);
+        for (int slot = 0; slot < windows.length; slot++) {
+            if (isAvailable(slot, date, time)) {
+                result.set(slot);
+            }
+        }
+        return result;
+    }
+
+    // ==================== Building ====================
+
+    private static long[][] compileWindows(List<DroneAvailability> slots) {
+        List<List<long[]>> perDay = new ArrayList<>();
+        for (int day = 0; day <= ANY_DAY; day++) {
+            perDay.add(new ArrayList<>());
+        }
+
+        for (DroneAvailability a : slots) {
+            // A window without times, or with from after until, never contains a time
+            if (a.from() == null || a.until() == null || a.from().isAfter(a.until())) continue;
+
+            long[] window = {a.from().toNanoOfDay(), a.until().toNanoOfDay()};
+            DayOfWeek day = parseDay(a.dayOfWeek());
+            if (day != null) {
+                perDay.get(day.ordinal()).add(window);
+            }
+            perDay.get(ANY_DAY).add(window);
+        }
+
+        long[][] compiled = new long[ANY_DAY + 1][];
+        for (int day = 0; day <= ANY_DAY; day++) {
+            compiled[day] = merge(perDay.get(day));
+        }
+        return compiled;
+    }
+
+    private static boolean[] listedDays(List<DroneAvailability> slots) {
+        boolean[] days = new boolean[7];
+        for (DroneAvailability a : slots) {
+            DayOfWeek day = parseDay(a.dayOfWeek());
+            if (day != null) {
+                days[day.ordinal()] = true;
+            }
+        }
+        return days;
+    }
+
+    private static long[] merge(List<long[]> windows) {
+        if (windows.isEmpty()) return NO_WINDOWS;
+
+        windows.sort(Comparator.comparingLong(w -> w[0]));
+        long[] merged = new long[windows.size() * 2];
+        int n = 0;
+
+        for (long[] w : windows) {
+            if (n > 0 && w[0] <= merged[n - 1]) {
+                merged[n - 1] = Math.max(merged[n - 1], w[1]);
+            } else {
+                merged[n++] = w[0];
+                merged[n++] = w[1];
+            }
+        }
+        return Arrays.copyOf(merged, n);
+    }
+
+    private static DayOfWeek parseDay(String name) {
+        if (name == null) return null;
+        try {
+            return DayOfWeek.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // ==================== Lookup ====================
+
+    // Binary search for the last window starting at or before t, then check its end
+    private static boolean contains(long[] windows, long t) {
+        int lo = 0, hi = windows.length / 2 - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (windows[2 * mid] <= t) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found >= 0 && windows[2 * found + 1] >= t;
+    }
+}
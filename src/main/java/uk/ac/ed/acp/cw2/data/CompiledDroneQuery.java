@@ -0,0 +1,185 @@
+package uk.ac.ed.acp.cw2.data;
+
+import uk.ac.ed.acp.cw2.dto.DroneCapability;
+import uk.ac.ed.acp.cw2.dto.QueryAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A list of {@link QueryAttributes} compiled into typed criteria.
+ *
+ * Attribute and operator strings are resolved and values parsed once, at compile time,
+ * so evaluating a drone is a handful of field reads and comparisons. Unknown attributes,
+ * unsupported operators and unparsable numbers are rejected here rather than per drone.
+ * All criteria must hold (logical AND); an empty query matches every drone.
+ */
+public final class CompiledDroneQuery implements Predicate<DroneCapability> {
+
+    // Tolerance for numeric equality, same as the original string-based matcher
+    public static final double EPSILON = 1e-9;
+
+    public enum Attribute {
+        COOLING("cooling", null),
+        HEATING("heating", null),
+        CAPACITY("capacity", DroneCapability::capacity),
+        MAX_MOVES("maxMoves", DroneCapability::maxMoves),
+        COST_PER_MOVE("costPerMove", DroneCapability::costPerMove),
+        COST_INITIAL("costInitial", DroneCapability::costInitial),
+        COST_FINAL("costFinal", DroneCapability::costFinal);
+
+        private final String jsonName;
+        private final ToDoubleFunction<DroneCapability> numericValue;
+
+        Attribute(String jsonName, ToDoubleFunction<DroneCapability> numericValue) {
+            this.jsonName = jsonName;
+            this.numericValue = numericValue;
+        }
+
+        public String jsonName() {
+            return jsonName;
+        }
+
+        public boolean isBoolean() {
+            return numericValue == null;
+        }
+
+        public double numericValue(DroneCapability cap) {
+            return numericValue.applyAsDouble(cap);
+        }
+
+        public boolean booleanValue(DroneCapability cap) {
+            return this == COOLING ? cap.cooling() : cap.heating();
+        }
+
+        static Attribute fromJsonName(String name) {
+            for (Attribute a : values()) {
+                if (a.jsonName.equals(name)) return a;
+            }
+            throw new InvalidQueryException("Unknown attribute: " + name);
+        }
+    }
+
+    public enum Operator {
+        EQ("="), NE("!="), LT("<"), GT(">");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        static Operator fromSymbol(String symbol) {
+            for (Operator op : values()) {
+                if (op.symbol.equals(symbol)) return op;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One resolved comparison. For boolean attributes only {@code flag} is meaningful,
+     * for numeric ones only {@code number}.
+     */
+    public record Criterion(Attribute attribute, Operator operator, double number, boolean flag)
+            implements Predicate<DroneCapability> {
+
+        @Override
+        public boolean test(DroneCapability cap) {
+            if (attribute.isBoolean()) {
+                boolean value = attribute.booleanValue(cap);
+                return operator == Operator.EQ ? value == flag : value != flag;
+            }
+
+            double value = attribute.numericValue(cap);
+            return switch (operator) {
+                case EQ -> Math.abs(value - number) < EPSILON;
+                case NE -> Math.abs(value - number) >= EPSILON;
+                case LT -> value < number;
+                case GT -> value > number;
+            };
+        }
+    }
+
+    private final List<Criterion> criteria;
+
+    private CompiledDroneQuery(List<Criterion> criteria) {
+        this.criteria = List.copyOf(criteria);
+    }
+
+    /**
+     * Compile a request list.
+     *
+     * @throws InvalidQueryException on an unknown attribute, an operator the attribute
+     *                               does not support, or a missing or non-numeric value
+     */
+    public static CompiledDroneQuery compile(List<QueryAttributes> reqs) {
+        List<Criterion> criteria = new ArrayList<>();
+        if (reqs != null) {
+            for (QueryAttributes r : reqs) {
+                criteria.add(compile(r));
+            }
+        }
+        return new CompiledDroneQuery(criteria);
+    }
+
+    private static Criterion compile(QueryAttributes r) {
+        Attribute attribute = Attribute.fromJsonName(r.attribute());
+        Operator op = Operator.fromSymbol(r.operator());
+        if (r.value() == null) {
+            throw new InvalidQueryException("Missing value for attribute '" + r.attribute() + "'");
+        }
+
+        if (attribute.isBoolean()) {
+            if (op != Operator.EQ && op != Operator.NE) {
+                throw new InvalidQueryException(
+                        "Operator '" + r.operator() + "' not supported for boolean");
+            }
+            return new Criterion(attribute, op, Double.NaN, Boolean.parseBoolean(r.value()));
+        }
+
+        if (op == null) {
+            throw new InvalidQueryException(
+                    "Operator '" + r.operator() + "' not supported for numeric (use =, !=, <, >)");
+        }
+        double number;
+        try {
+            number = Double.parseDouble(r.value());
+        } catch (NumberFormatException e) {
+            throw new InvalidQueryException("Value '" + r.value() + "' for attribute '" + r.attribute()
+                    + "' is not a number");
+        }
+        return new Criterion(attribute, op, number, false);
+    }
+
+    /**
+     * Order-independent cache key for a request list, computed from the raw strings
+     * so that a cache hit needs no parsing.
+     */
+    public static String canonicalForm(List<QueryAttributes> reqs) {
+        if (reqs == null || reqs.isEmpty()) {
+            return "";
+        }
+
+        List<String> parts = new ArrayList<>(reqs.size());
+        for (QueryAttributes r : reqs) {
+            parts.add(r.attribute() + '\u0000' + r.operator() + '\u0000' + r.value());
+        }
+        parts.sort(null);
+        return String.join("\u0001", parts);
+    }
+
+    @Override
+    public boolean test(DroneCapability cap) {
+        for (Criterion c : criteria) {
+            if (!c.test(cap)) return false;
+        }
+        return true;
+    }
+
+    public List<Criterion> criteria() {
+        return criteria;
+    }
+}
@@ -0,0 +1,211 @@
+package uk.ac.ed.acp.cw2.data;
+
+import uk.ac.ed.acp.cw2.data.CompiledDroneQuery.Attribute;
+import uk.ac.ed.acp.cw2.data.CompiledDroneQuery.Criterion;
+import uk.ac.ed.acp.cw2.dto.DroneCapability;
+import uk.ac.ed.acp.cw2.dto.DroneInfo;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Column-oriented view of the drone fleet for attribute queries.
+ *
+ * Drones are addressed by their position in the source list. Each numeric
+ * {@link DroneCapability} field is stored as a primitive column together with a stable
+ * ascending permutation of positions, so a range predicate is two binary searches plus
+ * a walk over the matching slice. The boolean flags are precomputed bitsets. A query is
+ * the intersection of one bitset per criterion; ids come back in fleet order.
+ *
+ * Drones without a capability record never match.
+ */
+public final class FleetIndex {
+
+    private final List<DroneInfo> source;
+    private final DroneInfo[] drones;
+    private final int[] ids;
+
+    // Indexed by Attribute.ordinal(); null for the boolean attributes
+    private final int[][] sortedPositions;
+    private final double[][] sortedValues;
+
+    private final BitSet valid;
+    private final BitSet cooling;
+    private final BitSet heating;
+
+    private FleetIndex(List<DroneInfo> source) {
+        this.source = source;
+        int n = source.size();
+        this.drones = source.toArray(new DroneInfo[0]);
+        this.ids = new int[n];
+        this.valid = new BitSet(n);
+        this.cooling = new BitSet(n);
+        this.heating = new BitSet(n);
+
+        for (int pos = 0; pos < n; pos++) {
+            DroneInfo d = drones[pos];
+            ids[pos] = d.id();
+            DroneCapability cap = d.capability();
+            if (cap == null) continue;
+
+            valid.set(pos);
+            if (cap.cooling()) cooling.set(pos);
+            if (cap.heating()) heating.set(pos);
+        }
+
+        Attribute[] attributes = Attribute.values();
+        this.sortedPositions = new int[attributes.length][];
+        this.sortedValues = new double[attributes.length][];
+
+        for (Attribute a : attributes) {
+            if (a.isBoolean()) continue;
+
+            List<Integer> order = new ArrayList<>(valid.cardinality());
+            double[] column = new double[n];
+            for (int pos = valid.nextSetBit(0); pos >= 0; pos = valid.nextSetBit(pos + 1)) {
+                column[pos] = a.numericValue(drones[pos].capability());
+                order.add(pos);
+            }
+            // List.sort is stable, so equal values keep fleet order
+            order.sort(Comparator.comparingDouble(pos -> column[pos]));
+
+            int[] positions = new int[order.size()];
+            double[] values = new double[order.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = order.get(i);
+                values[i] = column[positions[i]];
+            }
+            sortedPositions[a.ordinal()] = positions;
+            sortedValues[a.ordinal()] = values;
+        }
+    }
+
+    public static FleetIndex build(List<DroneInfo> drones) {
+        return new FleetIndex(drones);
+    }
+
+    /**
+     * The list this index was built from; callers compare it by identity
+     * to decide whether the index is still current.
+     */
+    public List<DroneInfo> source() {
+        return source;
+    }
+
+    public int size() {
+        return drones.length;
+    }
+
+    public DroneInfo drone(int position) {
+        return drones[position];
+    }
+
+    public int id(int position) {
+        return ids[position];
+    }
+
+    /**
+     * Positions of all drones that have capability data.
+     */
+    public BitSet all() {
+        return (BitSet) valid.clone();
+    }
+
+    /**
+     * Positions of drones satisfying every criterion of the query.
+     */
+    public BitSet select(CompiledDroneQuery query) {
+        BitSet result = all();
+        for (Criterion c : query.criteria()) {
+            if (result.isEmpty()) break;
+            result.and(select(c));
+        }
+        return result;
+    }
+
+    public BitSet select(Criterion c) {
+        Attribute a = c.attribute();
+
+        if (a.isBoolean()) {
+            BitSet flag = a == Attribute.COOLING ? cooling : heating;
+            boolean wantSet = (c.operator() == CompiledDroneQuery.Operator.EQ) == c.flag();
+            if (wantSet) {
+                return (BitSet) flag.clone();
+            }
+            BitSet result = all();
+            result.andNot(flag);
+            return result;
+        }
+
+        double v = c.number();
+        double eps = CompiledDroneQuery.EPSILON;
+        return switch (c.operator()) {
+            case EQ -> range(a, v - eps, false, v + eps, false);
+            case NE -> {
+                BitSet result = all();
+                result.andNot(range(a, v - eps, false, v + eps, false));
+                yield result;
+            }
+            case LT -> range(a, Double.NEGATIVE_INFINITY, true, v, false);
+            case GT -> range(a, v, false, Double.POSITIVE_INFINITY, true);
+        };
+    }
+
+    /**
+     * Positions whose value of a numeric attribute lies between the two bounds.
+     */
+    public BitSet range(Attribute a, double min, boolean minInclusive, double max, boolean maxInclusive) {
+        double[] values = sortedValues[a.ordinal()];
+        int[] positions = sortedPositions[a.ordinal()];
+
+        int from = minInclusive ? lowerBound(values, min) : upperBound(values, min);
+        int to = maxInclusive ? upperBound(values, max) : lowerBound(values, max);
+
+        BitSet result = new BitSet(drones.length);
+        for (int i = from; i < to; i++) {
+            result.set(positions[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Positions of drones with capability data, ascending by the given attribute.
+     * Drones with equal values appear in fleet order. Callers must not modify the array.
+     */
+    public int[] sortedPositions(Attribute a) {
+        return sortedPositions[a.ordinal()];
+    }
+
+    public int[] ids(BitSet positions) {
+        int[] out = new int[positions.cardinality()];
+        int i = 0;
+        for (int pos = positions.nextSetBit(0); pos >= 0; pos = positions.nextSetBit(pos + 1)) {
+            out[i++] = ids[pos];
+        }
+        return out;
+    }
+
+    // First index with values[i] >= key
+    private static int lowerBound(double[] values, double key) {
+        int lo = 0, hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // First index with values[i] > key
+    private static int upperBound(double[] values, double key) {
+        int lo = 0, hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
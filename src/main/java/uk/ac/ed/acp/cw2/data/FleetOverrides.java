@@ -0,0 +1,196 @@
+package uk.ac.ed.acp.cw2.data;
+
+import uk.ac.ed.acp.cw2.dto.*;
+
+import java.util.*;
+
+/**
+ * Immutable set of local changes layered over the ILP fleet data.
+ *
+ * Every {@code with...} method returns a new instance with a higher version and leaves
+ * this one untouched, so a published instance can be read without locking. Overrides
+ * survive ILP refreshes: they are re-applied to whatever base data is current.
+ *
+ * Capability overrides are patches; only the fields that were supplied replace the
+ * base values. Availability overrides replace a drone's schedule at one service point.
+ * A drone in maintenance keeps its listings but with an empty schedule, so it is never
+ * available while it stays where it is.
+ */
+public final class FleetOverrides {
+
+    public static final FleetOverrides EMPTY = new FleetOverrides(0, Map.of(), Map.of(), Map.of());
+
+    /**
+     * Capability fields to replace; null fields keep the base value.
+     */
+    public record CapabilityPatch(Boolean cooling, Boolean heating, Double capacity, Double maxMoves,
+                                  Double costPerMove, Double costInitial, Double costFinal) {
+
+        public DroneCapability applyTo(DroneCapability base) {
+            if (base == null) {
+                base = new DroneCapability(false, false, 0, 0, 0, 0, 0);
+            }
+            return new DroneCapability(
+                    cooling != null ? cooling : base.cooling(),
+                    heating != null ? heating : base.heating(),
+                    capacity != null ? capacity : base.capacity(),
+                    maxMoves != null ? maxMoves : base.maxMoves(),
+                    costPerMove != null ? costPerMove : base.costPerMove(),
+                    costInitial != null ? costInitial : base.costInitial(),
+                    costFinal != null ? costFinal : base.costFinal());
+        }
+    }
+
+    public record ScheduleKey(int servicePointId, int droneId) {}
+
+    private final long version;
+    private final Map<Integer, String> maintenance;
+    private final Map<Integer, CapabilityPatch> capabilities;
+    private final Map<ScheduleKey, List<DroneAvailability>> schedules;
+
+    private FleetOverrides(long version,
+                           Map<Integer, String> maintenance,
+                           Map<Integer, CapabilityPatch> capabilities,
+                           Map<ScheduleKey, List<DroneAvailability>> schedules) {
+        this.version = version;
+        this.maintenance = maintenance;
+        this.capabilities = capabilities;
+        this.schedules = schedules;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public boolean isEmpty() {
+        return maintenance.isEmpty() && capabilities.isEmpty() && schedules.isEmpty();
+    }
+
+    public boolean inMaintenance(int droneId) {
+        return maintenance.containsKey(droneId);
+    }
+
+    /**
+     * Reason given when the drone was put into maintenance, or null.
+     */
+    public String maintenanceReason(int droneId) {
+        return maintenance.get(droneId);
+    }
+
+    /**
+     * Combined capability patch for the drone, or null.
+     */
+    public CapabilityPatch capabilityPatch(int droneId) {
+        return capabilities.get(droneId);
+    }
+
+    /**
+     * Schedule override for the drone at the service point, or null.
+     */
+    public List<DroneAvailability> schedule(int servicePointId, int droneId) {
+        return schedules.get(new ScheduleKey(servicePointId, droneId));
+    }
+
+    // ==================== Copy-on-write updates ====================
+
+    public FleetOverrides withMaintenance(int droneId, boolean inMaintenance, String reason) {
+        Map<Integer, String> next = new LinkedHashMap<>(maintenance);
+        if (inMaintenance) {
+            // Presence of the key is the flag, so a missing reason is stored as empty
+            next.put(droneId, reason == null ? "" : reason);
+        } else {
+            next.remove(droneId);
+        }
+        return new FleetOverrides(version + 1, Collections.unmodifiableMap(next), capabilities, schedules);
+    }
+
+    public FleetOverrides withCapability(int droneId, CapabilityPatch patch) {
+        Map<Integer, CapabilityPatch> next = new LinkedHashMap<>(capabilities);
+        next.merge(droneId, patch, FleetOverrides::combine);
+        return new FleetOverrides(version + 1, maintenance, Collections.unmodifiableMap(next), schedules);
+    }
+
+    public FleetOverrides withSchedule(int servicePointId, int droneId, List<DroneAvailability> availability) {
+        Map<ScheduleKey, List<DroneAvailability>> next = new LinkedHashMap<>(schedules);
+        next.put(new ScheduleKey(servicePointId, droneId), List.copyOf(availability));
+        return new FleetOverrides(version + 1, maintenance, capabilities, Collections.unmodifiableMap(next));
+    }
+
+    // A later patch wins field by field over an earlier one
+    private static CapabilityPatch combine(CapabilityPatch earlier, CapabilityPatch later) {
+        return new CapabilityPatch(
+                later.cooling() != null ? later.cooling() : earlier.cooling(),
+                later.heating() != null ? later.heating() : earlier.heating(),
+                later.capacity() != null ? later.capacity() : earlier.capacity(),
+                later.maxMoves() != null ? later.maxMoves() : earlier.maxMoves(),
+                later.costPerMove() != null ? later.costPerMove() : earlier.costPerMove(),
+                later.costInitial() != null ? later.costInitial() : earlier.costInitial(),
+                later.costFinal() != null ? later.costFinal() : earlier.costFinal());
+    }
+
+    // ==================== Applying to base data ====================
+
+    public DroneInfo applyTo(DroneInfo drone) {
+        CapabilityPatch patch = capabilities.get(drone.id());
+        return patch == null ? drone : new DroneInfo(drone.name(), drone.id(), patch.applyTo(drone.capability()));
+    }
+
+    /**
+     * Drones with capability overrides applied. Returns the base list itself when
+     * nothing changes it, so indexes keyed on list identity stay valid.
+     */
+    public List<DroneInfo> applyToDrones(List<DroneInfo> base) {
+        if (base == null || capabilities.isEmpty()) return base;
+
+        List<DroneInfo> result = new ArrayList<>(base.size());
+        for (DroneInfo drone : base) {
+            result.add(applyTo(drone));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Availability listings with schedule overrides and maintenance applied. A schedule
+     * override for a drone not yet listed at that service point adds a listing there.
+     * Returns the base list itself when there is nothing to apply.
+     */
+    public List<DronesForServicePoints> applyToAvailability(List<DronesForServicePoints> base) {
+        if (base == null || (maintenance.isEmpty() && schedules.isEmpty())) return base;
+
+        Set<ScheduleKey> unapplied = new LinkedHashSet<>(schedules.keySet());
+        List<DronesForServicePoints> result = new ArrayList<>(base.size());
+
+        for (DronesForServicePoints sp : base) {
+            List<ListDrones> drones = new ArrayList<>();
+            if (sp.drones() != null) {
+                for (ListDrones listing : sp.drones()) {
+                    ScheduleKey key = new ScheduleKey(sp.servicePointId(), listing.id());
+                    List<DroneAvailability> schedule = schedules.getOrDefault(key, listing.availability());
+                    unapplied.remove(key);
+                    drones.add(listing(listing.id(), schedule));
+                }
+            }
+            for (ScheduleKey key : schedules.keySet()) {
+                if (key.servicePointId() == sp.servicePointId() && unapplied.remove(key)) {
+                    drones.add(listing(key.droneId(), schedules.get(key)));
+                }
+            }
+            result.add(new DronesForServicePoints(sp.servicePointId(),
+                    sp.drones() == null && drones.isEmpty() ? null : drones));
+        }
+
+        // Service points that are not in the base listings at all
+        Map<Integer, List<ListDrones>> added = new LinkedHashMap<>();
+        for (ScheduleKey key : unapplied) {
+            added.computeIfAbsent(key.servicePointId(), id -> new ArrayList<>())
+                    .add(listing(key.droneId(), schedules.get(key)));
+        }
+        added.forEach((id, drones) -> result.add(new DronesForServicePoints(id, drones)));
+
+        return Collections.unmodifiableList(result);
+    }
+
+    private ListDrones listing(int droneId, List<DroneAvailability> schedule) {
+        return new ListDrones(droneId, maintenance.containsKey(droneId) ? List.of() : schedule);
+    }
+}
@@ -0,0 +1,329 @@
+package uk.ac.ed.acp.cw2.data;
+
+import uk.ac.ed.acp.cw2.dto.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Last good copy of the ILP reference datasets, persisted as a compact binary file.
+ *
+ * Layout: magic, format version, save time, one length-prefixed section per dataset,
+ * then a CRC32 of everything before it. Files with a different magic or format version,
+ * or a bad checksum, are rejected so a stale or truncated file never gets served.
+ */
+public record IlpSnapshot(
+        long savedAtMillis,
+        List<DroneInfo> drones,
+        List<ServicePoints> servicePoints,
+        List<DronesForServicePoints> dronesForServicePoints,
+        List<RestrictedAreas> restrictedAreas
+) {
+    private static final int MAGIC = 0x494C5053; // "ILPS"
+    public static final int FORMAT_VERSION = 1;
+
+    // ==================== Writing ====================
+
+    /**
+     * Write to a temporary sibling file and move it into place,
+     * so readers never see a half-written snapshot.
+     */
+    public void writeTo(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream raw = Files.newOutputStream(tmp);
+                 BufferedOutputStream buffered = new BufferedOutputStream(raw)) {
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(savedAtMillis);
+                writeDrones(out);
+                writeServicePoints(out);
+                writeDronesForServicePoints(out);
+                writeRestrictedAreas(out);
+                out.flush();
+
+                // Checksum itself is written outside the checked stream
+                new DataOutputStream(buffered).writeLong(crc.getValue());
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void writeDrones(DataOutputStream out) throws IOException {
+        out.writeInt(sizeOf(drones));
+        if (drones == null) return;
+
+        for (DroneInfo d : drones) {
+            out.writeInt(d.id());
+            writeString(out, d.name());
+            DroneCapability cap = d.capability();
+            out.writeBoolean(cap != null);
+            if (cap == null) continue;
+
+            out.writeBoolean(cap.cooling());
+            out.writeBoolean(cap.heating());
+            out.writeDouble(cap.capacity());
+            out.writeDouble(cap.maxMoves());
+            out.writeDouble(cap.costPerMove());
+            out.writeDouble(cap.costInitial());
+            out.writeDouble(cap.costFinal());
+        }
+    }
+
+    private void writeServicePoints(DataOutputStream out) throws IOException {
+        out.writeInt(sizeOf(servicePoints));
+        if (servicePoints == null) return;
+
+        for (ServicePoints sp : servicePoints) {
+            out.writeInt(sp.id());
+            writeString(out, sp.name());
+            writeLngLat(out, sp.location());
+        }
+    }
+
+    private void writeDronesForServicePoints(DataOutputStream out) throws IOException {
+        out.writeInt(sizeOf(dronesForServicePoints));
+        if (dronesForServicePoints == null) return;
+
+        for (DronesForServicePoints sp : dronesForServicePoints) {
+            out.writeInt(sp.servicePointId());
+            out.writeInt(sizeOf(sp.drones()));
+            if (sp.drones() == null) continue;
+
+            for (ListDrones ld : sp.drones()) {
+                out.writeInt(ld.id());
+                out.writeInt(sizeOf(ld.availability()));
+                if (ld.availability() == null) continue;
+
+                for (DroneAvailability a : ld.availability()) {
+                    writeString(out, a.dayOfWeek());
+                    out.writeLong(a.from() == null ? -1 : a.from().toNanoOfDay());
+                    out.writeLong(a.until() == null ? -1 : a.until().toNanoOfDay());
+                }
+            }
+        }
+    }
+
+    private void writeRestrictedAreas(DataOutputStream out) throws IOException {
+        out.writeInt(sizeOf(restrictedAreas));
+        if (restrictedAreas == null) return;
+
+        for (RestrictedAreas area : restrictedAreas) {
+            out.writeInt(area.id());
+            writeString(out, area.name());
+            out.writeBoolean(area.limits() != null);
+            if (area.limits() != null) {
+                out.writeInt(area.limits().lower());
+                out.writeInt(area.limits().upper());
+            }
+            out.writeInt(sizeOf(area.vertices()));
+            if (area.vertices() == null) continue;
+
+            for (LngLat v : area.vertices()) {
+                writeLngLat(out, v);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeLngLat(DataOutputStream out, LngLat p) throws IOException {
+        out.writeBoolean(p != null);
+        if (p == null) return;
+        out.writeDouble(p.lng() == null ? Double.NaN : p.lng());
+        out.writeDouble(p.lat() == null ? Double.NaN : p.lat());
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? -1 : list.size();
+    }
+
+    // ==================== Reading ====================
+
+    /**
+     * Memory-map the file and decode it.
+     *
+     * @throws IOException if the file is unreadable, from another format version, or corrupt
+     */
+    public static IlpSnapshot readFrom(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 24) {
+                throw new IOException("Snapshot file too short: " + size + " bytes");
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buf.slice(0, (int) size - Long.BYTES));
+            long expectedCrc = buf.getLong((int) size - Long.BYTES);
+            if (crc.getValue() != expectedCrc) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Not an ILP snapshot file");
+            }
+            int version = buf.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format version " + version);
+            }
+
+            long savedAt = buf.getLong();
+            return new IlpSnapshot(
+                    savedAt,
+                    readDrones(buf),
+                    readServicePoints(buf),
+                    readDronesForServicePoints(buf),
+                    readRestrictedAreas(buf)
+            );
+        } catch (RuntimeException e) {
+            // BufferUnderflowException etc. from a file that passed the checksum by accident
+            throw new IOException("Malformed snapshot file", e);
+        }
+    }
+
+    private static List<DroneInfo> readDrones(ByteBuffer buf) {
+        int count = buf.getInt();
+        if (count < 0) return null;
+
+        List<DroneInfo> drones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = buf.getInt();
+            String name = readString(buf);
+            DroneCapability cap = null;
+            if (buf.get() != 0) {
+                boolean cooling = buf.get() != 0;
+                boolean heating = buf.get() != 0;
+                cap = new DroneCapability(cooling, heating,
+                        buf.getDouble(), buf.getDouble(), buf.getDouble(),
+                        buf.getDouble(), buf.getDouble());
+            }
+            drones.add(new DroneInfo(name, id, cap));
+        }
+        return drones;
+    }
+
+    private static List<ServicePoints> readServicePoints(ByteBuffer buf) {
+        int count = buf.getInt();
+        if (count < 0) return null;
+
+        List<ServicePoints> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = buf.getInt();
+            String name = readString(buf);
+            points.add(new ServicePoints(name, id, readLngLat(buf)));
+        }
+        return points;
+    }
+
+    private static List<DronesForServicePoints> readDronesForServicePoints(ByteBuffer buf) {
+        int count = buf.getInt();
+        if (count < 0) return null;
+
+        List<DronesForServicePoints> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int servicePointId = buf.getInt();
+            int droneCount = buf.getInt();
+            List<ListDrones> drones = null;
+
+            if (droneCount >= 0) {
+                drones = new ArrayList<>(droneCount);
+                for (int j = 0; j < droneCount; j++) {
+                    int droneId = buf.getInt();
+                    int slotCount = buf.getInt();
+                    List<DroneAvailability> slots = null;
+
+                    if (slotCount >= 0) {
+                        slots = new ArrayList<>(slotCount);
+                        for (int k = 0; k < slotCount; k++) {
+                            String day = readString(buf);
+                            LocalTime from = readTime(buf);
+                            LocalTime until = readTime(buf);
+                            slots.add(new DroneAvailability(day, from, until));
+                        }
+                    }
+                    drones.add(new ListDrones(droneId, slots));
+                }
+            }
+            result.add(new DronesForServicePoints(servicePointId, drones));
+        }
+        return result;
+    }
+
+    private static List<RestrictedAreas> readRestrictedAreas(ByteBuffer buf) {
+        int count = buf.getInt();
+        if (count < 0) return null;
+
+        List<RestrictedAreas> areas = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = buf.getInt();
+            String name = readString(buf);
+            Limits limits = null;
+            if (buf.get() != 0) {
+                limits = new Limits(buf.getInt(), buf.getInt());
+            }
+
+            int vertexCount = buf.getInt();
+            List<LngLat> vertices = null;
+            if (vertexCount >= 0) {
+                vertices = new ArrayList<>(vertexCount);
+                for (int j = 0; j < vertexCount; j++) {
+                    vertices.add(readLngLat(buf));
+                }
+            }
+            areas.add(new RestrictedAreas(name, id, limits, vertices));
+        }
+        return areas;
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) return null;
+
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LngLat readLngLat(ByteBuffer buf) {
+        if (buf.get() == 0) return null;
+        double lng = buf.getDouble();
+        double lat = buf.getDouble();
+        return new LngLat(Double.isNaN(lng) ? null : lng, Double.isNaN(lat) ? null : lat);
+    }
+
+    private static LocalTime readTime(ByteBuffer buf) {
+        long nanos = buf.getLong();
+        return nanos < 0 ? null : LocalTime.ofNanoOfDay(nanos);
+    }
+}
@@ -0,0 +1,12 @@
+package uk.ac.ed.acp.cw2.data;
+
+/**
+ * A drone attribute query that can't be compiled: unknown attribute, unsupported operator,
+ * or a missing or malformed value. Reported to REST clients as 400.
+ */
+public class InvalidQueryException extends IllegalArgumentException {
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,207 @@
+package uk.ac.ed.acp.cw2.data;
+
+import uk.ac.ed.acp.cw2.dto.LngLat;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Static 2-d tree over item locations for radius and nearest-neighbour lookups.
+ *
+ * Distances are Euclidean in degrees, the same measure as {@code GeometryService.distance}.
+ * The tree is stored implicitly: each range of the position array is split at its
+ * median, alternating longitude and latitude, so no node objects are allocated.
+ * Results that tie on distance come back in source order.
+ */
+public final class LocationIndex<T> {
+
+    private final List<T> source;
+    private final List<T> items;
+
+    // Tree layout: the node for range [lo, hi) sits at (lo + hi) / 2
+    private final int[] order;
+    private final double[] lng;
+    private final double[] lat;
+
+    private final Map<LngLat, T> firstAt = new HashMap<>();
+
+    private LocationIndex(List<T> source, Function<T, LngLat> location) {
+        this.source = source;
+        this.items = new ArrayList<>(source.size());
+
+        List<LngLat> points = new ArrayList<>(source.size());
+        for (T item : source) {
+            LngLat p = location.apply(item);
+            if (p == null || p.lng() == null || p.lat() == null) continue;
+
+            firstAt.putIfAbsent(p, item);
+            items.add(item);
+            points.add(p);
+        }
+
+        int n = items.size();
+        this.order = new int[n];
+        this.lng = new double[n];
+        this.lat = new double[n];
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            xs[i] = points.get(i).lng();
+            ys[i] = points.get(i).lat();
+        }
+        build(xs, ys, 0, n, 0);
+        for (int i = 0; i < n; i++) {
+            lng[i] = xs[order[i]];
+            lat[i] = ys[order[i]];
+        }
+    }
+
+    public static <T> LocationIndex<T> build(List<T> items, Function<T, LngLat> location) {
+        return new LocationIndex<>(items, location);
+    }
+
+    /**
+     * The list this index was built from; callers compare it by identity
+     * to decide whether the index is still current.
+     */
+    public List<T> source() {
+        return source;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * First item, in source order, located exactly at the given point.
+     */
+    public T firstAt(LngLat point) {
+        return firstAt.get(point);
+    }
+
+    /**
+     * Items within {@code radius} of the point (inclusive), in source order.
+     */
+    public List<T> withinRadius(LngLat point, double radius) {
+        List<Integer> hits = new ArrayList<>();
+        radiusSearch(point.lng(), point.lat(), radius, 0, order.length, 0, hits);
+        hits.sort(null);
+
+        List<T> result = new ArrayList<>(hits.size());
+        for (int i : hits) {
+            result.add(items.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Up to {@code k} items closest to the point, nearest first.
+     */
+    public List<T> nearest(LngLat point, int k) {
+        if (k <= 0 || order.length == 0) return List.of();
+
+        // Max-heap on (distance, source index) so the worst candidate is evicted first
+        PriorityQueue<double[]> heap = new PriorityQueue<>(
+                (a, b) -> a[0] != b[0] ? Double.compare(b[0], a[0]) : Double.compare(b[1], a[1]));
+        nearestSearch(point.lng(), point.lat(), Math.min(k, order.length), 0, order.length, 0, heap);
+
+        double[][] best = heap.toArray(new double[0][]);
+        Arrays.sort(best, (a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+
+        List<T> result = new ArrayList<>(best.length);
+        for (double[] entry : best) {
+            result.add(items.get((int) entry[1]));
+        }
+        return result;
+    }
+
+    // ==================== Building ====================
+
+    private void build(double[] xs, double[] ys, int lo, int hi, int depth) {
+        if (hi - lo <= 1) return;
+
+        int mid = (lo + hi) >>> 1;
+        double[] keys = depth % 2 == 0 ? xs : ys;
+        select(keys, lo, hi - 1, mid);
+
+        build(xs, ys, lo, mid, depth + 1);
+        build(xs, ys, mid + 1, hi, depth + 1);
+    }
+
+    // Quickselect on order[lo..hi] so that order[k] holds the k-th smallest key
+    private void select(double[] keys, int lo, int hi, int k) {
+        while (hi > lo) {
+            double pivot = keys[order[(lo + hi) >>> 1]];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (keys[order[i]] < pivot) i++;
+                while (keys[order[j]] > pivot) j--;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    // ==================== Queries ====================
+
+    private void radiusSearch(double x, double y, double radius, int lo, int hi, int depth, List<Integer> hits) {
+        if (lo >= hi) return;
+
+        int mid = (lo + hi) >>> 1;
+        if (Math.hypot(lng[mid] - x, lat[mid] - y) <= radius) {
+            hits.add(order[mid]);
+        }
+
+        double delta = depth % 2 == 0 ? x - lng[mid] : y - lat[mid];
+        if (delta - radius <= 0) {
+            radiusSearch(x, y, radius, lo, mid, depth + 1, hits);
+        }
+        if (delta + radius >= 0) {
+            radiusSearch(x, y, radius, mid + 1, hi, depth + 1, hits);
+        }
+    }
+
+    private void nearestSearch(double x, double y, int k, int lo, int hi, int depth, PriorityQueue<double[]> heap) {
+        if (lo >= hi) return;
+
+        int mid = (lo + hi) >>> 1;
+        double[] candidate = {Math.hypot(lng[mid] - x, lat[mid] - y), order[mid]};
+        if (heap.size() < k) {
+            heap.add(candidate);
+        } else if (heap.comparator().compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+
+        double delta = depth % 2 == 0 ? x - lng[mid] : y - lat[mid];
+        boolean leftFirst = delta <= 0;
+
+        if (leftFirst) {
+            nearestSearch(x, y, k, lo, mid, depth + 1, heap);
+        } else {
+            nearestSearch(x, y, k, mid + 1, hi, depth + 1, heap);
+        }
+
+        // The far side can only help if the splitting plane is within the current worst distance
+        if (heap.size() < k || Math.abs(delta) <= heap.peek()[0]) {
+            if (leftFirst) {
+                nearestSearch(x, y, k, mid + 1, hi, depth + 1, heap);
+            } else {
+                nearestSearch(x, y, k, lo, mid, depth + 1, heap);
+            }
+        }
+    }
+}
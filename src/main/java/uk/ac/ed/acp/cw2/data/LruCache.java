@@ -0,0 +1,62 @@
+package uk.ac.ed.acp.cw2.data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Small thread-safe LRU map for caching derived objects by key.
+ * Values are computed outside the lock, so two threads may occasionally
+ * compute the same entry; the first one stored wins.
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    public LruCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public V get(K key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        V computed = loader.apply(key);
+        synchronized (entries) {
+            V existing = entries.putIfAbsent(key, computed);
+            return existing != null ? existing : computed;
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+    }
+
+    public void removeIf(Predicate<? super V> filter) {
+        synchronized (entries) {
+            entries.values().removeIf(filter);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
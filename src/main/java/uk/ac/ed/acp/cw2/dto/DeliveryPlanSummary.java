@@ -0,0 +1,12 @@
+package uk.ac.ed.acp.cw2.dto;
+
+import java.time.Instant;
+
+public record DeliveryPlanSummary(
+        String id,
+        Instant createdAt,
+        int dispatchCount,
+        int droneCount,
+        double totalCost,
+        int totalMoves
+) {}
@@ -0,0 +1,25 @@
+package uk.ac.ed.acp.cw2.dto;
+
+import java.util.List;
+
+/**
+ * Where the time went while computing one delivery plan. Times are in microseconds.
+ */
+public record PlanProfile(
+        // True when the plan came from the plan cache and nothing was computed
+        boolean cached,
+        // True when an identical request was already computing the plan and this one waited for it
+        boolean coalesced,
+        long wallMicros,
+        long cpuMicros,
+        List<Phase> phases,
+        List<Leg> legs,
+        List<DroneAttempt> dronesTried
+) {
+    public record Phase(String name, long wallMicros, long cpuMicros) {}
+
+    public record Leg(LngLat from, LngLat to, String outcome, int iterations,
+                      int openPeak, int legalityChecks, long wallMicros) {}
+
+    public record DroneAttempt(int round, int droneId, int ordersAllocated) {}
+}
@@ -0,0 +1,12 @@
+package uk.ac.ed.acp.cw2.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A delivery plan with its planning profile; serialises as the plan's own fields plus "profile".
+ */
+public record ProfiledDeliveryPlan(
+        @JsonUnwrapped
+        DeliveryPlan plan,
+        PlanProfile profile
+) {}
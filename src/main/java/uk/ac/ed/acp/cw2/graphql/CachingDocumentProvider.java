@@ -0,0 +1,166 @@
+package uk.ac.ed.acp.cw2.graphql;
+
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.graphql.execution.ErrorType;
+import uk.ac.ed.acp.cw2.data.LruCache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caches parsed and validated GraphQL documents by the SHA-256 of the query text,
+ * and resolves persisted queries.
+ *
+ * A persisted query request carries {@code extensions.persistedQuery.sha256Hash} and
+ * may omit the query; the registered text is looked up by hash. A request that sends
+ * both registers the query (when registration is allowed), following the Apollo
+ * automatic persisted query protocol; over HTTP, {@link PersistedQueryRequestFilter} lets
+ * hash-only bodies through. Documents with validation errors are not cached.
+ *
+ * Queries registered through {@link #register} (those loaded at startup) are kept for
+ * good; queries registered by clients share a bounded LRU, so client traffic cannot
+ * evict the startup set.
+ */
+public class CachingDocumentProvider implements PreparsedDocumentProvider {
+
+    static final String PERSISTED_QUERY_NOT_FOUND = "PersistedQueryNotFound";
+    static final String PERSISTED_QUERY_ID_INVALID = "PersistedQueryIdInvalid";
+
+    /**
+     * GraphQL context key set on hash-only requests over HTTP, whose query is a
+     * placeholder (see {@link PersistedQueryInterceptor}); the query is then ignored.
+     */
+    static final String HASH_ONLY = CachingDocumentProvider.class.getName() + ".hashOnly";
+
+    private final LruCache<String, PreparsedDocumentEntry> documents;
+    private final Map<String, String> registeredQueries = new ConcurrentHashMap<>();
+    private final LruCache<String, String> persistedQueries;
+    private final boolean allowRegistration;
+
+    private final Counter documentHits;
+    private final Counter documentMisses;
+    private final Counter persistedHits;
+    private final Counter persistedMisses;
+    private final Counter persistedRegistrations;
+
+    public CachingDocumentProvider(int maxDocuments, int maxPersistedQueries,
+                                   boolean allowRegistration, MeterRegistry meterRegistry) {
+        this.documents = new LruCache<>(maxDocuments);
+        this.persistedQueries = new LruCache<>(maxPersistedQueries);
+        this.allowRegistration = allowRegistration;
+
+        this.documentHits = counter(meterRegistry, "graphql.document.cache", "hit");
+        this.documentMisses = counter(meterRegistry, "graphql.document.cache", "miss");
+        this.persistedHits = counter(meterRegistry, "graphql.persisted.queries", "hit");
+        this.persistedMisses = counter(meterRegistry, "graphql.persisted.queries", "miss");
+        this.persistedRegistrations = counter(meterRegistry, "graphql.persisted.queries", "registered");
+
+        Gauge.builder("graphql.document.cache.size", documents, LruCache::size)
+                .description("Parsed GraphQL documents currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Register a query so clients can send its hash instead of the text. It is never
+     * evicted.
+     */
+    public String register(String query) {
+        String hash = sha256(query);
+        registeredQueries.put(hash, query);
+        return hash;
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+
+        ExecutionInput input = executionInput;
+        String query = input.getQuery();
+        String hash = persistedQueryHash(input);
+
+        if (hash != null) {
+            if (query == null || query.isBlank() || input.getGraphQLContext().getBoolean(HASH_ONLY, false)) {
+                String registered = lookup(hash);
+                if (registered == null) {
+                    persistedMisses.increment();
+                    return error(PERSISTED_QUERY_NOT_FOUND, hash);
+                }
+                persistedHits.increment();
+                input = input.transform(builder -> builder.query(registered));
+            } else {
+                if (!hash.equalsIgnoreCase(sha256(query))) {
+                    return error(PERSISTED_QUERY_ID_INVALID, hash);
+                }
+                if (allowRegistration && lookup(hash) == null) {
+                    persistedQueries.put(hash, query);
+                    persistedRegistrations.increment();
+                }
+            }
+            hash = hash.toLowerCase();
+        } else {
+            hash = sha256(query);
+        }
+
+        PreparsedDocumentEntry cached = documents.get(hash);
+        if (cached != null) {
+            documentHits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        documentMisses.increment();
+        PreparsedDocumentEntry entry = parseAndValidate.apply(input);
+        if (!entry.hasErrors()) {
+            documents.put(hash, entry);
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    private String lookup(String hash) {
+        String registered = registeredQueries.get(hash);
+        return registered != null ? registered : persistedQueries.get(hash);
+    }
+
+    private static String persistedQueryHash(ExecutionInput input) {
+        Map<String, Object> extensions = input.getExtensions();
+        if (extensions == null || !(extensions.get("persistedQuery") instanceof Map<?, ?> persisted)) {
+            return null;
+        }
+        return persisted.get("sha256Hash") instanceof String hash ? hash : null;
+    }
+
+    private static CompletableFuture<PreparsedDocumentEntry> error(String message, String hash) {
+        return CompletableFuture.completedFuture(new PreparsedDocumentEntry(
+                GraphqlErrorBuilder.newError()
+                        .message(message)
+                        .errorType(ErrorType.BAD_REQUEST)
+                        .extensions(Map.of("persistedQueryId", hash))
+                        .build()));
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String result) {
+        return Counter.builder(name)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -2,35 +2,48 @@ package uk.ac.ed.acp.cw2.graphql;
 
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.client.RestClientException;
+import uk.ac.ed.acp.cw2.data.FleetOverrides;
+import uk.ac.ed.acp.cw2.data.FleetOverrides.CapabilityPatch;
 import uk.ac.ed.acp.cw2.dto.*;
 import uk.ac.ed.acp.cw2.graphql.model.DroneAvailabilityInput;
 import uk.ac.ed.acp.cw2.graphql.model.DroneCapabilityInput;
 import uk.ac.ed.acp.cw2.services.DroneQueryService;
+import uk.ac.ed.acp.cw2.services.FleetOverrideStore;
+import uk.ac.ed.acp.cw2.services.IlpSnapshotService;
 
-import java.util.HashMap;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 
 /**
  * GraphQL Mutation Resolver for CW3
  * Demonstrates complete CRUD operations via GraphQL
  *
- * NOTE: This is a DEMONSTRATION implementation for CW3
- * In a production system, these would persist to a database
- * For CW3, we simulate mutations with in-memory storage
+ * Changes are kept as {@link FleetOverrides} layered over the ILP data, so routing and
+ * availability queries see them straight away, and saved to the embedded database. Each mutation republishes
+ * only the dataset it changes: capability updates touch the drone list, maintenance and
+ * schedule updates touch the availability listings. If no ILP data has been loaded yet and
+ * it can't be fetched, the mutation reports failure; the change is still saved.
  */
 @Controller
 public class DroneMutationResolver {
 
     private final DroneQueryService droneQueryService;
+    private final FleetOverrideStore overrideStore;
+    private final IlpSnapshotService snapshotService;
 
-    // In-memory storage for demonstration (would be database in production)
-    private final Map<Integer, Boolean> droneMaintenanceStatus = new HashMap<>();
-    private final Map<Integer, String> droneMaintenanceReason = new HashMap<>();
-
-    public DroneMutationResolver(DroneQueryService droneQueryService) {
+    public DroneMutationResolver(DroneQueryService droneQueryService,
+                                 FleetOverrideStore overrideStore,
+                                 IlpSnapshotService snapshotService) {
         this.droneQueryService = droneQueryService;
+        this.overrideStore = overrideStore;
+        this.snapshotService = snapshotService;
     }
 
     /**
@@ -79,11 +92,33 @@ public class DroneMutationResolver {
             );
         }
 
-        // In production: Update database with new availability
-        // For CW3 demo: Log the change
+        boolean servicePointExists = droneQueryService.fetchServicePoints().stream()
+                .anyMatch(sp -> sp.id() == servicePointId);
+        if (!servicePointExists) {
+            return new DroneAvailabilityUpdateResult(
+                    false,
+                    "Service point with ID " + servicePointId + " not found",
+                    null
+            );
+        }
+
+        List<DroneAvailability> schedule;
+        try {
+            schedule = toSchedule(availability);
+        } catch (IllegalArgumentException e) {
+            return new DroneAvailabilityUpdateResult(false, e.getMessage(), null);
+        }
+
+        overrideStore.setSchedule(servicePointId, droneId, schedule);
+        try {
+            snapshotService.republishAvailability();
+        } catch (RestClientException e) {
+            return new DroneAvailabilityUpdateResult(false, notApplied(e), null);
+        }
+
         String message = String.format(
                 "Successfully updated availability for drone %d at service point %d with %d time slots",
-                droneId, servicePointId, availability.size()
+                droneId, servicePointId, schedule.size()
         );
 
         return new DroneAvailabilityUpdateResult(true, message, drone);
@@ -130,9 +165,12 @@ public class DroneMutationResolver {
             );
         }
 
-        // Store maintenance status (in-memory for demo)
-        droneMaintenanceStatus.put(droneId, inMaintenance);
-        droneMaintenanceReason.put(droneId, reason);
+        overrideStore.setMaintenance(droneId, inMaintenance, reason);
+        try {
+            snapshotService.republishAvailability();
+        } catch (RestClientException e) {
+            return new DroneMaintenanceResult(false, notApplied(e), null);
+        }
 
         String message = inMaintenance
                 ? String.format("Drone %d marked as under maintenance: %s", droneId, reason)
@@ -191,14 +229,68 @@ public class DroneMutationResolver {
             );
         }
 
-        // In production: Update database with new capability
-        // For CW3 demo: Log the change
+        CapabilityPatch patch = new CapabilityPatch(
+                capability.getCooling(), capability.getHeating(), capability.getCapacity(),
+                capability.getMaxMoves(), capability.getCostPerMove(),
+                capability.getCostInitial(), capability.getCostFinal());
+
+        FleetOverrides overrides = overrideStore.patchCapability(droneId, patch);
+        try {
+            snapshotService.republishDrones();
+        } catch (RestClientException e) {
+            return new DroneCapabilityUpdateResult(false, notApplied(e), null);
+        }
+
+        DroneInfo updated = overrides.applyTo(drone);
         String message = String.format(
                 "Successfully updated capability for drone %d (capacity: %.1f, cooling: %b, heating: %b)",
-                droneId, capability.getCapacity(), capability.getCooling(), capability.getHeating()
+                droneId, updated.capability().capacity(), updated.capability().cooling(),
+                updated.capability().heating()
         );
 
-        return new DroneCapabilityUpdateResult(true, message, drone);
+        return new DroneCapabilityUpdateResult(true, message, updated);
+    }
+
+    // Field resolvers for the maintenance flags
+    @SchemaMapping(typeName = "Drone", field = "inMaintenance")
+    public boolean inMaintenance(DroneInfo drone) {
+        return overrideStore.current().inMaintenance(drone.id());
+    }
+
+    @SchemaMapping(typeName = "Drone", field = "maintenanceReason")
+    public String maintenanceReason(DroneInfo drone) {
+        return overrideStore.current().maintenanceReason(drone.id());
+    }
+
+    // The override is stored and goes live with the next successful ILP refresh
+    private static String notApplied(RestClientException e) {
+        return "Change saved but not applied yet, ILP data unavailable: " + e.getMessage();
+    }
+
+    private static List<DroneAvailability> toSchedule(List<DroneAvailabilityInput> availability) {
+        List<DroneAvailability> schedule = new ArrayList<>(availability.size());
+        for (DroneAvailabilityInput slot : availability) {
+            DayOfWeek day;
+            LocalTime from;
+            LocalTime until;
+            try {
+                day = DayOfWeek.valueOf(slot.getDayOfWeek().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Invalid day of week: " + slot.getDayOfWeek());
+            }
+            try {
+                from = LocalTime.parse(slot.getFrom());
+                until = LocalTime.parse(slot.getUntil());
+            } catch (DateTimeParseException | NullPointerException e) {
+                throw new IllegalArgumentException(
+                        "Invalid time slot: " + slot.getFrom() + " - " + slot.getUntil());
+            }
+            if (from.isAfter(until)) {
+                throw new IllegalArgumentException("Time slot starts after it ends: " + from + " - " + until);
+            }
+            schedule.add(new DroneAvailability(day.name(), from, until));
+        }
+        return schedule;
     }
 
     // Mutation result classes
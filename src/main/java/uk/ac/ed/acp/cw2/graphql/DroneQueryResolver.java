@@ -1,9 +1,19 @@
 package uk.ac.ed.acp.cw2.graphql;
 
+import graphql.schema.DataFetchingEnvironment;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+import uk.ac.ed.acp.cw2.data.CompiledDroneQuery.Attribute;
+import uk.ac.ed.acp.cw2.data.CompiledDroneQuery.Criterion;
+import uk.ac.ed.acp.cw2.data.CompiledDroneQuery.Operator;
+import uk.ac.ed.acp.cw2.data.FleetIndex;
+import uk.ac.ed.acp.cw2.data.LocationIndex;
 import uk.ac.ed.acp.cw2.dto.*;
 import uk.ac.ed.acp.cw2.graphql.model.*;
 import uk.ac.ed.acp.cw2.services.DroneQueryService;
@@ -11,17 +21,36 @@ import uk.ac.ed.acp.cw2.services.DroneQueryService;
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Controller
 public class DroneQueryResolver {
 
+    static final String AVAILABLE_DRONES_LOADER = "availableDrones";
+
     private final DroneQueryService droneQueryService;
 
-    public DroneQueryResolver(DroneQueryService droneQueryService) {
+    /**
+     * DataLoader key for ServicePoint.availableDrones, which takes an argument
+     * and so cannot use {@link BatchMapping}.
+     */
+    public record AvailableDronesKey(int servicePointId, String time) {}
+
+    public DroneQueryResolver(DroneQueryService droneQueryService, BatchLoaderRegistry batchLoaderRegistry) {
         this.droneQueryService = droneQueryService;
+
+        batchLoaderRegistry.<AvailableDronesKey, List<DroneInfo>>forName(AVAILABLE_DRONES_LOADER)
+                .registerMappedBatchLoader((keys, env) -> Mono.fromSupplier(() -> loadAvailableDrones(keys)));
     }
 
     @QueryMapping
@@ -30,25 +59,46 @@ public class DroneQueryResolver {
             @Argument OrderBy orderBy,
             @Argument Integer limit) {
 
-        // Fetch all drones
-        List<DroneInfo> allDrones = droneQueryService.fetchDrones();
+        int max = limit != null && limit > 0 ? limit : Integer.MAX_VALUE;
 
-        // Apply filters
-        List<DroneInfo> filtered = applyFilters(allDrones, filters);
+        if (filters == null && orderBy == null) {
+            List<DroneInfo> allDrones = droneQueryService.fetchDrones();
+            return max < allDrones.size() ? new ArrayList<>(allDrones.subList(0, max)) : allDrones;
+        }
 
-        // Apply ordering
-        if (orderBy != null) {
-            filtered = applyOrdering(filtered, orderBy);
+        // Capability and cost filters are range and flag lookups on the indexed fleet
+        FleetIndex index = droneQueryService.fleetIndex();
+        BitSet candidates = selectCandidates(index, filters);
+
+        // Availability needs the schedules, so it is checked only on drones that reach the result
+        AvailabilityFilter availabilityFilter = filters != null ? filters.getAvailability() : null;
+        Map<Integer, List<DroneAvailability>> schedules =
+                availabilityFilter != null ? availabilityByDrone() : Map.of();
+        Predicate<DroneInfo> available = drone -> matchesAvailabilityFilter(
+                schedules.getOrDefault(drone.id(), List.of()), availabilityFilter);
+
+        Attribute sortAttribute = orderBy != null ? sortAttribute(orderBy.getField()) : null;
+        if (sortAttribute != null) {
+            // Walk the presorted column and stop once limit drones qualify
+            return topK(index, sortAttribute, "DESC".equals(orderBy.getDirection()), candidates, available, max);
         }
 
-        // Apply limit
-        if (limit != null && limit > 0) {
-            filtered = filtered.stream()
-                    .limit(limit)
-                    .collect(Collectors.toList());
+        List<DroneInfo> result = new ArrayList<>();
+        for (int pos = candidates.nextSetBit(0); pos >= 0; pos = candidates.nextSetBit(pos + 1)) {
+            DroneInfo drone = index.drone(pos);
+            if (!available.test(drone)) continue;
+
+            result.add(drone);
+            if (orderBy == null && result.size() == max) break;
         }
 
-        return filtered;
+        if (orderBy != null) {
+            result = applyOrdering(result, orderBy);
+            if (max < result.size()) {
+                result = new ArrayList<>(result.subList(0, max));
+            }
+        }
+        return result;
     }
 
     @QueryMapping
@@ -61,50 +111,60 @@ public class DroneQueryResolver {
 
     @QueryMapping
     public List<ServicePoints> servicePoints(@Argument Location near) {
-        List<ServicePoints> allServicePoints = droneQueryService.fetchServicePoints();
-
         if (near == null) {
-            return allServicePoints;
-        }
-
-        // Filter by distance if near is specified
-        return allServicePoints.stream()
-                .filter(sp -> {
-                    double distance = calculateDistance(
-                            sp.location().lng(), sp.location().lat(),
-                            near.getLng(), near.getLat()
-                    );
-                    return distance <= (near.getRadiusDegrees() != null ? near.getRadiusDegrees() : 0.01);
-                })
-                .collect(Collectors.toList());
+            return droneQueryService.fetchServicePoints();
+        }
+
+        // Radius lookup on the spatial index, results in service point order
+        double radius = near.getRadiusDegrees() != null ? near.getRadiusDegrees() : 0.01;
+        return droneQueryService.servicePointIndex()
+                .withinRadius(new LngLat(near.getLng(), near.getLat()), radius);
     }
 
-    // Field resolver for currentServicePoint
-    @SchemaMapping(typeName = "Drone", field = "currentServicePoint")
-    public ServicePoints currentServicePoint(DroneInfo drone) {
-        LngLat origin = droneQueryService.fetchDroneOrigin(drone.id()).orElse(null);
-        if (origin == null) return null;
+    @QueryMapping
+    public List<ServicePoints> nearestServicePoints(@Argument Location to, @Argument Integer count) {
+        List<ServicePoints> nearest = droneQueryService.servicePointIndex()
+                .nearest(new LngLat(to.getLng(), to.getLat()), count != null ? count : 1);
 
-        return droneQueryService.fetchServicePoints().stream()
-                .filter(sp -> sp.location().equals(origin))
-                .findFirst()
-                .orElse(null);
+        if (to.getRadiusDegrees() == null) {
+            return nearest;
+        }
+        return nearest.stream()
+                .filter(sp -> calculateDistance(
+                        sp.location().lng(), sp.location().lat(),
+                        to.getLng(), to.getLat()) <= to.getRadiusDegrees())
+                .collect(Collectors.toList());
     }
 
-    // Field resolver for availability
-    @SchemaMapping(typeName = "Drone", field = "availability")
-    public List<DroneAvailability> availability(DroneInfo drone) {
-        List<DronesForServicePoints> allAvailability = droneQueryService.fetchDroneAvailability();
+    // Batched field resolver for currentServicePoint: one origin map and one location lookup per parent list
+    @BatchMapping(typeName = "Drone", field = "currentServicePoint")
+    public Map<DroneInfo, ServicePoints> currentServicePoint(List<DroneInfo> drones) {
+        Map<Integer, LngLat> origins = droneQueryService.fetchDroneOriginLocations();
 
-        for (DronesForServicePoints sp : allAvailability) {
-            for (ListDrones ld : sp.drones()) {
-                if (ld.id() == drone.id()) {
-                    return ld.availability();
-                }
+        // First service point at each location, as the per-drone lookup returned
+        LocationIndex<ServicePoints> servicePoints = droneQueryService.servicePointIndex();
+
+        Map<DroneInfo, ServicePoints> result = new HashMap<>();
+        for (DroneInfo drone : drones) {
+            LngLat origin = origins.get(drone.id());
+            ServicePoints sp = origin == null ? null : servicePoints.firstAt(origin);
+            if (sp != null) {
+                result.put(drone, sp);
             }
         }
+        return result;
+    }
 
-        return List.of();
+    // Batched field resolver for availability
+    @BatchMapping(typeName = "Drone", field = "availability")
+    public Map<DroneInfo, List<DroneAvailability>> availability(List<DroneInfo> drones) {
+        Map<Integer, List<DroneAvailability>> schedules = availabilityByDrone();
+
+        Map<DroneInfo, List<DroneAvailability>> result = new HashMap<>();
+        for (DroneInfo drone : drones) {
+            result.put(drone, schedules.getOrDefault(drone.id(), List.of()));
+        }
+        return result;
     }
 
     // Field resolver for estimatedCost
@@ -114,92 +174,177 @@ public class DroneQueryResolver {
         return cap.costInitial() + cap.costFinal() + (distance * cap.costPerMove());
     }
 
-    // Field resolver for availableDrones on ServicePoint
+    // Field resolver for availableDrones on ServicePoint, batched through a DataLoader
     @SchemaMapping(typeName = "ServicePoint", field = "availableDrones")
-    public List<DroneInfo> availableDrones(ServicePoints servicePoint, @Argument String time) {
+    public CompletableFuture<List<DroneInfo>> availableDrones(
+            ServicePoints servicePoint, @Argument String time, DataFetchingEnvironment env) {
+        DataLoader<AvailableDronesKey, List<DroneInfo>> loader = env.getDataLoader(AVAILABLE_DRONES_LOADER);
+        return loader.load(new AvailableDronesKey(servicePoint.id(), time));
+    }
+
+    public List<DroneInfo> availableDrones(ServicePoints servicePoint, String time) {
+        AvailableDronesKey key = new AvailableDronesKey(servicePoint.id(), time);
+        return loadAvailableDrones(Set.of(key)).get(key);
+    }
+
+    /**
+     * Resolve available drones for many (service point, time) pairs with a single pass
+     * over the availability data and the fleet.
+     */
+    Map<AvailableDronesKey, List<DroneInfo>> loadAvailableDrones(Collection<AvailableDronesKey> keys) {
         List<DronesForServicePoints> availability = droneQueryService.fetchDroneAvailability();
         List<DroneInfo> allDrones = droneQueryService.fetchDrones();
 
-        // Find drones at this service point
-        DronesForServicePoints spDrones = availability.stream()
-                .filter(sp -> sp.servicePointId() == servicePoint.id())
-                .findFirst()
-                .orElse(null);
-
-        if (spDrones == null) return List.of();
+        Map<Integer, DronesForServicePoints> byServicePoint = new HashMap<>();
+        for (DronesForServicePoints sp : availability) {
+            byServicePoint.putIfAbsent(sp.servicePointId(), sp);
+        }
 
-        LocalTime queryTime = time != null && !time.equals("now")
-                ? LocalTime.parse(time)
-                : LocalTime.now();
         String currentDay = DayOfWeek.from(java.time.LocalDate.now()).name();
+        Map<String, LocalTime> queryTimes = new HashMap<>();
+
+        Map<AvailableDronesKey, List<DroneInfo>> result = new HashMap<>();
+        for (AvailableDronesKey key : keys) {
+            DronesForServicePoints spDrones = byServicePoint.get(key.servicePointId());
+            if (spDrones == null) {
+                result.put(key, List.of());
+                continue;
+            }
 
-        List<Integer> availableDroneIds = new ArrayList<>();
-
-        for (ListDrones ld : spDrones.drones()) {
-            boolean isAvailable = ld.availability().stream()
-                    .anyMatch(a ->
-                            a.dayOfWeek().equals(currentDay) &&
-                                    queryTime.isAfter(a.from()) &&
-                                    queryTime.isBefore(a.until())
-                    );
-
-            if (isAvailable) {
-                availableDroneIds.add(ld.id());
+            LocalTime queryTime = queryTimes.computeIfAbsent(String.valueOf(key.time()),
+                    t -> key.time() != null && !key.time().equals("now")
+                            ? LocalTime.parse(key.time())
+                            : LocalTime.now());
+
+            Set<Integer> availableDroneIds = new HashSet<>();
+            for (ListDrones ld : spDrones.drones()) {
+                boolean isAvailable = ld.availability().stream()
+                        .anyMatch(a ->
+                                a.dayOfWeek().equals(currentDay) &&
+                                        queryTime.isAfter(a.from()) &&
+                                        queryTime.isBefore(a.until())
+                        );
+
+                if (isAvailable) {
+                    availableDroneIds.add(ld.id());
+                }
             }
-        }
 
-        return allDrones.stream()
-                .filter(d -> availableDroneIds.contains(d.id()))
-                .collect(Collectors.toList());
+            result.put(key, allDrones.stream()
+                    .filter(d -> availableDroneIds.contains(d.id()))
+                    .collect(Collectors.toList()));
+        }
+        return result;
     }
 
     // Helper methods
-    private List<DroneInfo> applyFilters(List<DroneInfo> drones, DroneFilters filters) {
-        if (filters == null) return drones;
+    // Positions passing the capability and cost filters
+    private BitSet selectCandidates(FleetIndex index, DroneFilters filters) {
+        BitSet result = new BitSet(index.size());
+        result.set(0, index.size());
+        if (filters == null) return result;
+
+        CapabilityFilter capability = filters.getCapability();
+        if (capability != null) {
+            if (capability.getMinCapacity() != null) {
+                result.and(index.range(Attribute.CAPACITY,
+                        capability.getMinCapacity(), true, Double.POSITIVE_INFINITY, true));
+            }
+            if (capability.getMaxCapacity() != null) {
+                result.and(index.range(Attribute.CAPACITY,
+                        Double.NEGATIVE_INFINITY, true, capability.getMaxCapacity(), true));
+            }
+            if (capability.getCooling() != null) {
+                result.and(index.select(new Criterion(Attribute.COOLING, Operator.EQ, Double.NaN, capability.getCooling())));
+            }
+            if (capability.getHeating() != null) {
+                result.and(index.select(new Criterion(Attribute.HEATING, Operator.EQ, Double.NaN, capability.getHeating())));
+            }
+        }
 
-        return drones.stream()
-                .filter(drone -> matchesCapabilityFilter(drone, filters.getCapability()))
-                .filter(drone -> matchesCostFilter(drone, filters.getCost()))
-                .filter(drone -> matchesAvailabilityFilter(drone, filters.getAvailability()))
-                .collect(Collectors.toList());
+        CostFilter cost = filters.getCost();
+        if (cost != null) {
+            atMost(index, result, Attribute.COST_PER_MOVE, cost.getMaxCostPerMove());
+            atMost(index, result, Attribute.COST_INITIAL, cost.getMaxCostInitial());
+            atMost(index, result, Attribute.COST_FINAL, cost.getMaxCostFinal());
+        }
+        return result;
     }
 
-    private boolean matchesCapabilityFilter(DroneInfo drone, CapabilityFilter filter) {
-        if (filter == null) return true;
-
-        DroneCapability cap = drone.capability();
-
-        if (filter.getMinCapacity() != null && cap.capacity() < filter.getMinCapacity()) {
-            return false;
+    private static void atMost(FleetIndex index, BitSet result, Attribute attribute, Double max) {
+        if (max != null) {
+            result.and(index.range(attribute, Double.NEGATIVE_INFINITY, true, max, true));
         }
-        if (filter.getMaxCapacity() != null && cap.capacity() > filter.getMaxCapacity()) {
-            return false;
+    }
+
+    /**
+     * First {@code max} qualifying drones in attribute order. Drones with equal values
+     * keep fleet order in both directions, as the stable sort did.
+     */
+    private static List<DroneInfo> topK(FleetIndex index, Attribute attribute, boolean descending,
+                                        BitSet candidates, Predicate<DroneInfo> available, int max) {
+        int[] sorted = index.sortedPositions(attribute);
+        List<DroneInfo> result = new ArrayList<>(Math.min(max, sorted.length));
+
+        if (!descending) {
+            for (int i = 0; i < sorted.length && result.size() < max; i++) {
+                addIfQualifies(index, sorted[i], candidates, available, result);
+            }
+            return result;
         }
-        if (filter.getCooling() != null && cap.cooling() != filter.getCooling()) {
-            return false;
+
+        // Descending: take runs of equal values from the end, each run in fleet order
+        int end = sorted.length;
+        while (end > 0 && result.size() < max) {
+            double value = attribute.numericValue(index.drone(sorted[end - 1]).capability());
+            int start = end - 1;
+            while (start > 0 && Double.compare(
+                    attribute.numericValue(index.drone(sorted[start - 1]).capability()), value) == 0) {
+                start--;
+            }
+            for (int i = start; i < end && result.size() < max; i++) {
+                addIfQualifies(index, sorted[i], candidates, available, result);
+            }
+            end = start;
         }
-        return filter.getHeating() == null || cap.heating() == filter.getHeating();
+        return result;
     }
 
-    private boolean matchesCostFilter(DroneInfo drone, CostFilter filter) {
-        if (filter == null) return true;
-
-        DroneCapability cap = drone.capability();
+    private static void addIfQualifies(FleetIndex index, int pos, BitSet candidates,
+                                       Predicate<DroneInfo> available, List<DroneInfo> result) {
+        if (!candidates.get(pos)) return;
 
-        if (filter.getMaxCostPerMove() != null && cap.costPerMove() > filter.getMaxCostPerMove()) {
-            return false;
+        DroneInfo drone = index.drone(pos);
+        if (available.test(drone)) {
+            result.add(drone);
         }
-        if (filter.getMaxCostInitial() != null && cap.costInitial() > filter.getMaxCostInitial()) {
-            return false;
+    }
+
+    private static Attribute sortAttribute(String field) {
+        return switch (field) {
+            case "COST_PER_MOVE" -> Attribute.COST_PER_MOVE;
+            case "COST_INITIAL" -> Attribute.COST_INITIAL;
+            case "COST_FINAL" -> Attribute.COST_FINAL;
+            case "CAPACITY" -> Attribute.CAPACITY;
+            case "MAX_MOVES" -> Attribute.MAX_MOVES;
+            default -> null;
+        };
+    }
+
+    // First listing of each drone across service points
+    private Map<Integer, List<DroneAvailability>> availabilityByDrone() {
+        Map<Integer, List<DroneAvailability>> schedules = new HashMap<>();
+        for (DronesForServicePoints sp : droneQueryService.fetchDroneAvailability()) {
+            for (ListDrones ld : sp.drones()) {
+                schedules.putIfAbsent(ld.id(), ld.availability());
+            }
         }
-        return filter.getMaxCostFinal() == null || !(cap.costFinal() > filter.getMaxCostFinal());
+        return schedules;
     }
 
-    private boolean matchesAvailabilityFilter(DroneInfo drone, AvailabilityFilter filter) {
+    private boolean matchesAvailabilityFilter(List<DroneAvailability> availability, AvailabilityFilter filter) {
         if (filter == null) return true;
 
-        List<DroneAvailability> availability = availability(drone);
-
         if (filter.getDayOfWeek() == null && filter.getTime() == null) {
             return true;
         }
@@ -0,0 +1,26 @@
+package uk.ac.ed.acp.cw2.graphql;
+
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Marks requests that {@link PersistedQueryRequestFilter} found to be hash-only in the
+ * GraphQL context, where {@link CachingDocumentProvider} checks for
+ * {@link CachingDocumentProvider#HASH_ONLY}. The mark comes from a request attribute,
+ * so a client cannot set it through the query or extensions.
+ */
+public class PersistedQueryInterceptor implements WebGraphQlInterceptor {
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        if (Boolean.TRUE.equals(request.getAttributes().get(PersistedQueryRequestFilter.HASH_ONLY_ATTRIBUTE))) {
+            request.configureExecutionInput((input, builder) ->
+                    builder.graphQLContext(Map.of(CachingDocumentProvider.HASH_ONLY, true)).build());
+        }
+        return chain.next(request);
+    }
+}
@@ -0,0 +1,175 @@
+package uk.ac.ed.acp.cw2.graphql;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lets hash-only persisted query requests through Spring GraphQL's HTTP handler, which
+ * rejects a body without a query before {@link CachingDocumentProvider} sees it.
+ *
+ * When a POST to the GraphQL path carries {@code extensions.persistedQuery} but no query,
+ * a placeholder query is filled in and the request is marked with
+ * {@link #HASH_ONLY_ATTRIBUTE}; {@link PersistedQueryInterceptor} passes the mark on and
+ * the provider looks the text up by hash. Only bodies that mention
+ * {@code "persistedQuery"} are parsed; any other body is passed on unchanged.
+ */
+public class PersistedQueryRequestFilter extends OncePerRequestFilter {
+
+    /** Request attribute set on hash-only requests. */
+    public static final String HASH_ONLY_ATTRIBUTE = PersistedQueryRequestFilter.class.getName() + ".hashOnly";
+
+    // Replaced by the registered text; never parsed
+    private static final String PLACEHOLDER_QUERY = "{ __typename }";
+
+    private static final byte[] PERSISTED_QUERY_KEY = "\"persistedQuery\"".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final String path;
+
+    public PersistedQueryRequestFilter(ObjectMapper objectMapper, String path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        return !path.equals(uri.startsWith(contextPath) ? uri.substring(contextPath.length()) : uri);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        byte[] rewritten = contains(body, PERSISTED_QUERY_KEY) ? withPlaceholderQuery(body) : null;
+        if (rewritten != null) {
+            request.setAttribute(HASH_ONLY_ATTRIBUTE, Boolean.TRUE);
+        }
+        chain.doFilter(new BufferedBodyRequest(request, rewritten != null ? rewritten : body), response);
+    }
+
+    /**
+     * The body with a placeholder query, or null unless it is a hash-only request.
+     */
+    private byte[] withPlaceholderQuery(byte[] body) {
+        JsonNode document;
+        try {
+            document = objectMapper.readTree(body);
+        } catch (IOException e) {
+            // Left for the GraphQL handler to reject
+            return null;
+        }
+        if (!(document instanceof ObjectNode request)
+                || !request.path("extensions").path("persistedQuery").isObject()) {
+            return null;
+        }
+        JsonNode query = request.get("query");
+        if (query != null && query.isTextual() && !query.asText().isBlank()) {
+            return null;
+        }
+        request.put("query", PLACEHOLDER_QUERY);
+        try {
+            return objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static boolean contains(byte[] body, byte[] key) {
+        outer:
+        for (int i = 0; i <= body.length - key.length; i++) {
+            for (int j = 0; j < key.length; j++) {
+                if (body[i + j] != key[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // Everything is already in memory, so it can all be read at once
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package uk.ac.ed.acp.cw2.graphql;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.Map;
+
+/**
+ * Static cost of a GraphQL field, used to reject expensive queries before execution.
+ *
+ * Each field costs its weight; fields backed by a lookup in {@code DroneQueryResolver}
+ * weigh more than plain properties. A list field multiplies the cost of its selection
+ * by its {@code limit} (or {@code count}) argument, or by a default list size when
+ * neither is given.
+ *
+ * Costs saturate just above the configured maximum instead of overflowing: a huge
+ * {@code limit} would otherwise wrap to a negative cost and be admitted. graphql-java
+ * adds sibling costs without overflow checks, so stopping at the maximum (rather than
+ * at {@code Integer.MAX_VALUE}) also keeps those sums in range for any document the
+ * parser accepts.
+ */
+public class QueryCostCalculator implements FieldComplexityCalculator {
+
+    private static final int DEFAULT_WEIGHT = 1;
+
+    private static final Map<String, Integer> FIELD_WEIGHTS = Map.of(
+            "Query.drones", 5,
+            "Query.servicePoints", 2,
+            "Query.nearestServicePoints", 2,
+            "Drone.currentServicePoint", 2,
+            "Drone.availability", 2,
+            "ServicePoint.availableDrones", 10
+    );
+
+    private final int defaultListSize;
+    private final int ceiling;
+
+    public QueryCostCalculator(int defaultListSize, int maxComplexity) {
+        this.defaultListSize = defaultListSize;
+        this.ceiling = maxComplexity < Integer.MAX_VALUE ? maxComplexity + 1 : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int calculate(FieldComplexityEnvironment env, int childComplexity) {
+        String field = env.getParentType().getName() + "." + env.getField().getName();
+        int weight = FIELD_WEIGHTS.getOrDefault(field, DEFAULT_WEIGHT);
+
+        // A negative sum means graphql-java wrapped while adding saturated siblings
+        int children = childComplexity < 0 ? ceiling : Math.min(childComplexity, ceiling);
+        try {
+            if (!GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()))) {
+                return Math.min(Math.addExact(weight, children), ceiling);
+            }
+            return Math.min(Math.addExact(weight, Math.multiplyExact(listSize(env.getArguments()), children)), ceiling);
+        } catch (ArithmeticException e) {
+            return ceiling;
+        }
+    }
+
+    private int listSize(Map<String, Object> arguments) {
+        if (arguments == null) return defaultListSize;
+
+        if (arguments.get("limit") instanceof Integer limit && limit > 0) {
+            return limit;
+        }
+        if (arguments.get("count") instanceof Integer count && count > 0) {
+            return count;
+        }
+        return defaultListSize;
+    }
+}
@@ -0,0 +1,38 @@
+package uk.ac.ed.acp.cw2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One round of the multi-drone allocation loop.
+ */
+@Name("uk.ac.ed.acp.cw2.AllocationRound")
+@Label("Allocation Round")
+@Category({"MedDrone", "Routing"})
+@Description("Every available drone offered the orders still unallocated")
+@StackTrace(false)
+public class AllocationRoundEvent extends jdk.jfr.Event {
+
+    @Label("Round")
+    private int round;
+
+    @Label("Orders Remaining")
+    @Description("Unallocated orders at the start of the round")
+    private int ordersRemaining;
+
+    @Label("Drones Tried")
+    private int dronesTried;
+
+    @Label("Orders Allocated")
+    private int ordersAllocated;
+
+    public void set(int round, int ordersRemaining, int dronesTried, int ordersAllocated) {
+        this.round = round;
+        this.ordersRemaining = ordersRemaining;
+        this.dronesTried = dronesTried;
+        this.ordersAllocated = ordersAllocated;
+    }
+}
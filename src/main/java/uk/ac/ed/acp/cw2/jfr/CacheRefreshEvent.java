@@ -0,0 +1,34 @@
+package uk.ac.ed.acp.cw2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Reference data published into the ILP caches.
+ */
+@Name("uk.ac.ed.acp.cw2.CacheRefresh")
+@Label("Cache Refresh")
+@Category({"MedDrone", "ILP"})
+@Description("Reference data published into the caches")
+@StackTrace(false)
+public class CacheRefreshEvent extends jdk.jfr.Event {
+
+    @Label("Source")
+    @Description("snapshot, ilp or overrides")
+    private String source;
+
+    @Label("Caches")
+    private String caches;
+
+    @Label("Data Version")
+    private long version;
+
+    public void set(String source, String caches, long version) {
+        this.source = source;
+        this.caches = caches;
+        this.version = version;
+    }
+}
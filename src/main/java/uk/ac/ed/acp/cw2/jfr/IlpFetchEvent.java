@@ -0,0 +1,38 @@
+package uk.ac.ed.acp.cw2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One request to the ILP REST endpoint. Keeps its stack trace, which shows which cache
+ * miss or refresh triggered the call.
+ */
+@Name("uk.ac.ed.acp.cw2.IlpFetch")
+@Label("ILP Fetch")
+@Category({"MedDrone", "ILP"})
+@Description("Reference data fetched from the ILP endpoint")
+public class IlpFetchEvent extends jdk.jfr.Event {
+
+    @Label("Path")
+    private String path;
+
+    @Label("Items")
+    @Description("Elements in the returned list, -1 if the request failed")
+    private int items;
+
+    @Label("Failure")
+    private String failure;
+
+    public void succeeded(String path, int items) {
+        this.path = path;
+        this.items = items;
+    }
+
+    public void failed(String path, Throwable failure) {
+        this.path = path;
+        this.items = -1;
+        this.failure = failure.getClass().getSimpleName();
+    }
+}
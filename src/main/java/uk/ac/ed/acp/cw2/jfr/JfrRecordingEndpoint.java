@@ -0,0 +1,231 @@
+package uk.ac.ed.acp.cw2.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Starts, stops and downloads one Flight Recorder recording at a time.
+ *
+ * POST /actuator/jfr starts a recording with the given settings ("default" or "profile"),
+ * duration and size limits, both capped so a forgotten recording can't fill the disk.
+ * GET /actuator/jfr reports its state, GET /actuator/jfr/{id} downloads it (a running
+ * recording is dumped as it stands), and DELETE /actuator/jfr stops it.
+ *
+ * Each download is dumped to its own temporary file, deleted once it has been streamed
+ * (or at shutdown), so concurrent downloads do not overwrite each other.
+ *
+ * Operations take a lock rather than synchronizing, so a request thread writing a large
+ * dump does not pin its carrier when virtual threads are enabled.
+ *
+ * Not exposed over HTTP by default; the ops profile exposes it on a management port bound
+ * to localhost.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    static final Duration MAX_DURATION = Duration.ofMinutes(30);
+    static final long MAX_SIZE_BYTES = 256L * 1024 * 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+    // Dumps not yet streamed
+    private final Set<Path> dumpFiles = ConcurrentHashMap.newKeySet();
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            return describe(recording);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Start a new recording, closing any previous one.
+     *
+     * @param legThresholdMs pathfinding legs faster than this are not recorded
+     */
+    @WriteOperation
+    public Map<String, Object> start(@Nullable String settings,
+                                     @Nullable Integer durationSeconds,
+                                     @Nullable Integer maxSizeMb,
+                                     @Nullable Integer legThresholdMs) {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings == null ? "default" : settings);
+        } catch (IOException | ParseException e) {
+            throw new InvalidEndpointRequestException("Unknown JFR settings: " + settings, "unknown settings");
+        }
+
+        Duration duration = durationSeconds == null
+                ? MAX_DURATION
+                : min(Duration.ofSeconds(positive(durationSeconds, "durationSeconds")), MAX_DURATION);
+        long maxSize = maxSizeMb == null
+                ? MAX_SIZE_BYTES
+                : Math.min(positive(maxSizeMb, "maxSizeMb") * 1024L * 1024, MAX_SIZE_BYTES);
+
+        lock.lock();
+        try {
+            closeRecording();
+
+            Recording fresh = new Recording(configuration);
+            fresh.setName("meddrone");
+            fresh.setDuration(duration);
+            fresh.setMaxSize(maxSize);
+            fresh.setToDisk(true);
+            if (legThresholdMs != null) {
+                fresh.enable(PathfindingLegEvent.class)
+                        .withThreshold(Duration.ofMillis(Math.max(0, legThresholdMs)));
+            }
+            fresh.start();
+            recording = fresh;
+            return describe(fresh);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @DeleteOperation
+    public Map<String, Object> stop() {
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            return describe(recording);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) {
+        lock.lock();
+        try {
+            if (recording == null || recording.getId() != id || recording.getState() == RecordingState.NEW) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            Path dumpFile = Files.createTempFile("meddrone-", ".jfr");
+            dumpFiles.add(dumpFile);
+            try {
+                recording.dump(dumpFile);
+            } catch (IOException e) {
+                delete(dumpFile);
+                throw e;
+            }
+            return new WebEndpointResponse<>(new DumpResource(dumpFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write JFR recording", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        lock.lock();
+        try {
+            closeRecording();
+            for (Path dumpFile : dumpFiles) {
+                delete(dumpFile);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void delete(Path dumpFile) throws IOException {
+        dumpFiles.remove(dumpFile);
+        Files.deleteIfExists(dumpFile);
+    }
+
+    /**
+     * A dump that is deleted when the stream reading it is closed.
+     */
+    private final class DumpResource extends FileSystemResource {
+
+        private final Path dumpFile;
+
+        DumpResource(Path dumpFile) {
+            super(dumpFile);
+            this.dumpFile = dumpFile;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(Files.newInputStream(dumpFile)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        delete(dumpFile);
+                    }
+                }
+            };
+        }
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("id", recording.getId());
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("duration", recording.getDuration());
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    private static int positive(int value, String name) {
+        if (value < 1) {
+            throw new InvalidEndpointRequestException(name + " must be positive", "non-positive " + name);
+        }
+        return value;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
@@ -0,0 +1,60 @@
+package uk.ac.ed.acp.cw2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import uk.ac.ed.acp.cw2.dto.LngLat;
+
+/**
+ * One A* leg search. Legs under the threshold are not recorded, so a continuous recording
+ * keeps only the slow ones; the recording endpoint can lower it.
+ */
+@Name("uk.ac.ed.acp.cw2.PathfindingLeg")
+@Label("Pathfinding Leg")
+@Category({"MedDrone", "Routing"})
+@Description("A* search between two points")
+@Threshold("1 ms")
+@StackTrace(false)
+public class PathfindingLegEvent extends jdk.jfr.Event {
+
+    @Label("Origin Longitude")
+    private double originLng;
+
+    @Label("Origin Latitude")
+    private double originLat;
+
+    @Label("Target Longitude")
+    private double targetLng;
+
+    @Label("Target Latitude")
+    private double targetLat;
+
+    @Label("Outcome")
+    private String outcome;
+
+    @Label("Iterations")
+    @Description("Nodes expanded")
+    private int iterations;
+
+    @Label("Open Set Peak")
+    private int openPeak;
+
+    @Label("Legality Checks")
+    @Description("Restricted-area move checks")
+    private int legalityChecks;
+
+    public void set(LngLat origin, LngLat target, String outcome,
+                    int iterations, int openPeak, int legalityChecks) {
+        this.originLng = origin.lng();
+        this.originLat = origin.lat();
+        this.targetLng = target.lng();
+        this.targetLat = target.lat();
+        this.outcome = outcome;
+        this.iterations = iterations;
+        this.openPeak = openPeak;
+        this.legalityChecks = legalityChecks;
+    }
+}
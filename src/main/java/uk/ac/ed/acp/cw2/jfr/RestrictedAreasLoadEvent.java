@@ -0,0 +1,30 @@
+package uk.ac.ed.acp.cw2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Restricted-area polygons loaded for a routing request's geometry checks.
+ */
+@Name("uk.ac.ed.acp.cw2.RestrictedAreasLoad")
+@Label("Restricted Areas Load")
+@Category({"MedDrone", "Geometry"})
+@Description("Restricted areas fetched for a routing request")
+@StackTrace(false)
+public class RestrictedAreasLoadEvent extends jdk.jfr.Event {
+
+    @Label("Areas")
+    private int areas;
+
+    @Label("Vertices")
+    @Description("Polygon vertices across all areas, each tested per move")
+    private int vertices;
+
+    public void set(int areas, int vertices) {
+        this.areas = areas;
+        this.vertices = vertices;
+    }
+}
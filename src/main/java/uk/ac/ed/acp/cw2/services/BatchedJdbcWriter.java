@@ -0,0 +1,175 @@
+package uk.ac.ed.acp.cw2.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Writes to the embedded database off the request path.
+ *
+ * Callers enqueue writes and return immediately. A single background thread drains the
+ * queue, groups what it took by statement and runs each group as one JDBC batch. Writes are
+ * given as suppliers evaluated on the writer thread, so serialisation happens there too and
+ * a write can read the latest state at flush time instead of the state when it was queued.
+ *
+ * When the queue is full new writes are dropped and counted rather than blocking callers.
+ */
+@Service
+public class BatchedJdbcWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchedJdbcWriter.class);
+
+    /**
+     * One parameterised statement. A null write from a supplier means nothing to do.
+     */
+    public record Write(String sql, Object... args) {}
+
+    private record Pending(Supplier<Write> write, Consumer<Boolean> afterWrite) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatchSize;
+    private final long flushIntervalMs;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    public BatchedJdbcWriter(JdbcTemplate jdbcTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${persistence.writer.queue-capacity:10000}") int queueCapacity,
+                             @Value("${persistence.writer.max-batch-size:200}") int maxBatchSize,
+                             @Value("${persistence.writer.flush-interval-ms:100}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+
+        this.written = counter(meterRegistry, "written");
+        this.dropped = counter(meterRegistry, "dropped");
+        this.failed = counter(meterRegistry, "failed");
+        Gauge.builder("persistence.writes.queued", queue, BlockingQueue::size)
+                .description("Database writes waiting for the background writer")
+                .register(meterRegistry);
+
+        this.worker = new Thread(this::run, "db-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public boolean enqueue(Supplier<Write> write) {
+        return enqueue(write, null);
+    }
+
+    /**
+     * Queue a write; {@code afterWrite} runs on the writer thread once its batch has been
+     * attempted and is told whether this write made it to the database.
+     */
+    public boolean enqueue(Supplier<Write> write, Consumer<Boolean> afterWrite) {
+        if (!running || !queue.offer(new Pending(write, afterWrite))) {
+            dropped.increment();
+            logger.warn("Database write queue full or closed, dropping write");
+            return false;
+        }
+        return true;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Shutdown: fall through and drain whatever is left
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Database writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        // Group by statement, keeping first-seen order, so each group is one JDBC batch
+        Map<String, List<Object[]>> bySql = new LinkedHashMap<>();
+        Map<String, List<Pending>> pendingBySql = new HashMap<>();
+        Set<Pending> unwritten = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Pending pending : batch) {
+            try {
+                Write write = pending.write().get();
+                if (write != null) {
+                    bySql.computeIfAbsent(write.sql(), sql -> new ArrayList<>()).add(write.args());
+                    pendingBySql.computeIfAbsent(write.sql(), sql -> new ArrayList<>()).add(pending);
+                }
+            } catch (RuntimeException e) {
+                failed.increment();
+                unwritten.add(pending);
+                logger.warn("Could not prepare database write: {}", e.getMessage());
+            }
+        }
+
+        for (Map.Entry<String, List<Object[]>> group : bySql.entrySet()) {
+            try {
+                jdbcTemplate.batchUpdate(group.getKey(), group.getValue());
+                written.increment(group.getValue().size());
+            } catch (DataAccessException e) {
+                failed.increment(group.getValue().size());
+                unwritten.addAll(pendingBySql.get(group.getKey()));
+                logger.warn("Database batch of {} failed: {}", group.getValue().size(), e.getMessage());
+            }
+        }
+
+        for (Pending pending : batch) {
+            if (pending.afterWrite() != null) {
+                pending.afterWrite().accept(!unwritten.contains(pending));
+            }
+        }
+    }
+
+    /**
+     * Stop accepting writes and wait for the queue to drain.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        if (!queue.isEmpty()) {
+            logger.warn("{} database writes not flushed at shutdown", queue.size());
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("persistence.writes")
+                .tag("result", result)
+                .register(registry);
+    }
+}
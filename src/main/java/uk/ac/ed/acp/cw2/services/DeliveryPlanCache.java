@@ -0,0 +1,243 @@
+package uk.ac.ed.acp.cw2.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.ac.ed.acp.cw2.dto.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed cache of computed delivery plans.
+ *
+ * The key is the SHA-256 of the orders in a canonical sorted form plus the
+ * {@link IlpSnapshotService#version() reference data version}, so resubmitting the same
+ * batch in any order reuses the plan, and publishing new fleet data or overrides makes old
+ * entries unreachable. Entries are evicted least recently used first once their estimated
+ * size passes the configured budget. Identical requests that arrive while a plan is being
+ * computed wait for that computation instead of starting their own.
+ */
+@Service
+public class DeliveryPlanCache {
+
+    /**
+     * A computed plan and the id it was stored under (null if it was not stored).
+     */
+    public record CachedPlan(String planId, DeliveryPlan plan) {}
+
+    private record Entry(CachedPlan value, long weight) {}
+
+    private final IlpSnapshotService snapshotService;
+    private final long maxWeight;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private final Map<String, CompletableFuture<CachedPlan>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public DeliveryPlanCache(IlpSnapshotService snapshotService,
+                             MeterRegistry meterRegistry,
+                             @Value("${delivery-plan-cache.max-weight-bytes:16777216}") long maxWeight) {
+        this.snapshotService = snapshotService;
+        this.maxWeight = maxWeight;
+
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.coalesced = counter(meterRegistry, "coalesced");
+        Gauge.builder("delivery.plan.cache.weight", this, DeliveryPlanCache::weight)
+                .description("Estimated bytes held by cached delivery plans")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached plan for these orders, or the result of {@code compute}, which is cached.
+     * A failed computation is not cached and its exception reaches every waiting caller.
+     * Neither is a plan without an id, so the next request stores the plan it computes.
+     */
+    public CachedPlan get(List<MedDispatchRec> orders, Supplier<CachedPlan> compute) {
+        return get(orders, compute, null);
+    }
+
+    /**
+     * As {@link #get(List, Supplier)}; a plan shared from an identical request's
+     * computation is noted on {@code profile}, if given.
+     */
+    public CachedPlan get(List<MedDispatchRec> orders, Supplier<CachedPlan> compute, PlanProfileRecorder profile) {
+        String key = key(orders, snapshotService.version());
+
+        CachedPlan cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<CachedPlan> mine = new CompletableFuture<>();
+        CompletableFuture<CachedPlan> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            if (profile != null) {
+                profile.coalesced();
+            }
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            // A computation may have finished between the lookup and claiming the key
+            CachedPlan value = lookup(key);
+            if (value == null) {
+                misses.increment();
+                value = compute.get();
+                if (value.planId() != null) {
+                    put(key, value);
+                }
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private CachedPlan lookup(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) return null;
+            hits.increment();
+            return entry.value();
+        }
+    }
+
+    public long weight() {
+        synchronized (entries) {
+            return totalWeight;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void put(String key, CachedPlan value) {
+        long weight = weigh(key, value.plan());
+        if (weight > maxWeight) return;
+
+        synchronized (entries) {
+            Entry previous = entries.put(key, new Entry(value, weight));
+            totalWeight += weight - (previous == null ? 0 : previous.weight());
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (totalWeight > maxWeight && eldest.hasNext()) {
+                totalWeight -= eldest.next().weight();
+                eldest.remove();
+            }
+        }
+    }
+
+    // ==================== Keys and weights ====================
+
+    /**
+     * SHA-256 over the version and the orders, each rendered field by field and sorted,
+     * so neither list order nor JSON formatting changes the key.
+     */
+    static String key(List<MedDispatchRec> orders, long version) {
+        List<String> lines = new ArrayList<>(orders == null ? 0 : orders.size());
+        if (orders != null) {
+            for (MedDispatchRec order : orders) {
+                lines.add(canonical(order));
+            }
+        }
+        lines.sort(null);
+
+        StringBuilder text = new StringBuilder().append(version);
+        for (String line : lines) {
+            text.append('\n').append(line);
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String canonical(MedDispatchRec order) {
+        if (order == null) return "null";
+
+        StringBuilder sb = new StringBuilder()
+                .append(order.id()).append('|')
+                .append(order.date()).append('|')
+                .append(order.time()).append('|');
+
+        DispatchRequirements r = order.requirements();
+        if (r == null) {
+            sb.append("null");
+        } else {
+            sb.append(r.capacity()).append(',')
+                    .append(r.cooling()).append(',')
+                    .append(r.heating()).append(',')
+                    .append(r.maxCost());
+        }
+        sb.append('|');
+
+        LngLat delivery = order.delivery();
+        if (delivery == null) {
+            sb.append("null");
+        } else {
+            sb.append(delivery.lng()).append(',').append(delivery.lat());
+        }
+        return sb.toString();
+    }
+
+    // Rough heap footprint: object headers plus one boxed LngLat per path point
+    static long weigh(String key, DeliveryPlan plan) {
+        long weight = 2L * key.length() + 128;
+        if (plan == null || plan.dronePaths() == null) return weight;
+
+        for (DronePath dronePath : plan.dronePaths()) {
+            weight += 64;
+            if (dronePath.deliveries() == null) continue;
+
+            for (DeliveryPath delivery : dronePath.deliveries()) {
+                weight += 64;
+                if (delivery.flightPath() != null) {
+                    weight += 56L * delivery.flightPath().size();
+                }
+            }
+        }
+        return weight;
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("delivery.plan.cache")
+                .tag("result", result)
+                .register(registry);
+    }
+}
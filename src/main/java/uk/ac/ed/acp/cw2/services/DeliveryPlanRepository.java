@@ -0,0 +1,178 @@
+package uk.ac.ed.acp.cw2.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import uk.ac.ed.acp.cw2.data.LruCache;
+import uk.ac.ed.acp.cw2.dto.DeliveryPlan;
+import uk.ac.ed.acp.cw2.dto.DeliveryPlanSummary;
+import uk.ac.ed.acp.cw2.dto.MedDispatchRec;
+import uk.ac.ed.acp.cw2.services.BatchedJdbcWriter.Write;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * History of computed delivery plans in the embedded database.
+ *
+ * {@link #save} assigns the id and returns straight away; the row is written by
+ * {@link BatchedJdbcWriter}. Until that happens the plan is served from memory, so a
+ * plan can be fetched by id as soon as its id has been handed out. A plan whose write
+ * fails stays in memory, so its id keeps working until it expires, but only the newest
+ * persistence.delivery-plans.max-unsaved of them are kept; a database that stops taking
+ * writes cannot fill the heap.
+ *
+ * A scheduled purge drops plans older than persistence.delivery-plans.max-age-days and
+ * all but the newest persistence.delivery-plans.max-rows; zero turns either limit off.
+ */
+@Repository
+public class DeliveryPlanRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryPlanRepository.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BatchedJdbcWriter writer;
+    private final ObjectMapper objectMapper;
+
+    private final int maxAgeDays;
+    private final int maxRows;
+
+    private record Unsaved(DeliveryPlan plan, long createdAtMillis) {}
+
+    // Plans handed out but not yet written; bounded by the write queue
+    private final Map<String, Unsaved> pending = new ConcurrentHashMap<>();
+
+    // Plans whose write failed, newest kept
+    private final LruCache<String, Unsaved> failed;
+
+    public DeliveryPlanRepository(JdbcTemplate jdbcTemplate, BatchedJdbcWriter writer, ObjectMapper objectMapper,
+                                  @Value("${persistence.delivery-plans.max-age-days:30}") int maxAgeDays,
+                                  @Value("${persistence.delivery-plans.max-rows:100000}") int maxRows,
+                                  @Value("${persistence.delivery-plans.max-unsaved:1000}") int maxUnsaved) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+        this.maxAgeDays = maxAgeDays;
+        this.maxRows = maxRows;
+        this.failed = new LruCache<>(Math.max(0, maxUnsaved));
+    }
+
+    /**
+     * Queue the plan and the orders it was computed for.
+     *
+     * @return the plan id, or null if the write queue is full and the plan was not kept
+     */
+    public String save(List<MedDispatchRec> orders, DeliveryPlan plan) {
+        String id = UUID.randomUUID().toString();
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        Unsaved entry = new Unsaved(plan, createdAt.getTime());
+        pending.put(id, entry);
+
+        boolean queued = writer.enqueue(() -> {
+            try {
+                return new Write("INSERT INTO delivery_plan (id, created_at, dispatch_count, drone_count, "
+                        + "total_cost, total_moves, request, plan) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                        id, createdAt, orders == null ? 0 : orders.size(),
+                        plan.dronePaths() == null ? 0 : plan.dronePaths().size(),
+                        plan.totalCost(), plan.totalMoves(),
+                        objectMapper.writeValueAsString(orders), objectMapper.writeValueAsString(plan));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialise delivery plan " + id, e);
+            }
+        }, written -> {
+            if (!written) {
+                failed.put(id, entry);
+                logger.warn("Delivery plan {} was not written, serving it from memory until it expires", id);
+            }
+            pending.remove(id);
+        });
+
+        if (!queued) {
+            pending.remove(id);
+            return null;
+        }
+        return id;
+    }
+
+    public Optional<DeliveryPlan> findById(String id) {
+        Unsaved unsaved = pending.get(id);
+        if (unsaved == null) {
+            unsaved = failed.get(id);
+        }
+        if (unsaved != null) {
+            return Optional.of(unsaved.plan());
+        }
+
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT plan FROM delivery_plan WHERE id = ?", String.class, id);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(objectMapper.readValue(rows.get(0), DeliveryPlan.class));
+        } catch (JsonProcessingException e) {
+            logger.warn("Stored delivery plan {} is unreadable: {}", id, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Most recently written plans, newest first.
+     */
+    public List<DeliveryPlanSummary> findRecent(int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, created_at, dispatch_count, drone_count, total_cost, total_moves "
+                        + "FROM delivery_plan ORDER BY created_at DESC LIMIT ?",
+                (rs, i) -> new DeliveryPlanSummary(
+                        rs.getString("id"),
+                        rs.getTimestamp("created_at").toInstant(),
+                        rs.getInt("dispatch_count"),
+                        rs.getInt("drone_count"),
+                        rs.getDouble("total_cost"),
+                        rs.getInt("total_moves")),
+                limit);
+    }
+
+    /**
+     * Apply the retention limits.
+     *
+     * @return the number of stored plans deleted
+     */
+    @Scheduled(initialDelayString = "${persistence.delivery-plans.purge-interval-ms:3600000}",
+            fixedDelayString = "${persistence.delivery-plans.purge-interval-ms:3600000}")
+    public int purge() {
+        int deleted = 0;
+        try {
+            if (maxAgeDays > 0) {
+                long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxAgeDays);
+                failed.removeIf(unsaved -> unsaved.createdAtMillis() < cutoff);
+                deleted += jdbcTemplate.update(
+                        "DELETE FROM delivery_plan WHERE created_at < ?", new Timestamp(cutoff));
+            }
+            if (maxRows > 0) {
+                // Everything older than the maxRows-th newest plan; ties with it are kept
+                deleted += jdbcTemplate.update(
+                        "DELETE FROM delivery_plan WHERE created_at < (SELECT created_at FROM delivery_plan "
+                                + "ORDER BY created_at DESC LIMIT 1 OFFSET ?)", maxRows - 1);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not purge old delivery plans: {}", e.getMessage());
+        }
+        if (deleted > 0) {
+            logger.info("Purged {} old delivery plans", deleted);
+        }
+        return deleted;
+    }
+}
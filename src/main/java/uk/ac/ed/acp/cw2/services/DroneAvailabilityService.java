@@ -1,11 +1,10 @@
 package uk.ac.ed.acp.cw2.services;
 
 import org.springframework.stereotype.Service;
+import uk.ac.ed.acp.cw2.data.AvailabilityCalendar;
 import uk.ac.ed.acp.cw2.dto.DispatchRequirements;
-import uk.ac.ed.acp.cw2.dto.DroneAvailability;
 import uk.ac.ed.acp.cw2.dto.DroneInfo;
 import uk.ac.ed.acp.cw2.dto.DronesForServicePoints;
-import uk.ac.ed.acp.cw2.dto.ListDrones;
 import uk.ac.ed.acp.cw2.dto.MedDispatchRec;
 import uk.ac.ed.acp.cw2.dto.QueryAttributes;
 
@@ -13,75 +12,60 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class DroneAvailabilityService {
     DroneQueryService droneService;
 
+    private volatile AvailabilityCalendar calendar;
+
     private DroneAvailabilityService(DroneQueryService droneService) {
         this.droneService = droneService;
     }
 
-    public int[] queryAvailableDrones(List<MedDispatchRec> dispatches) {
-        if (dispatches == null || dispatches.isEmpty()) {
-            return new int[0];
-        }
+    /**
+     * Combined requirements of a group of dispatches: total capacity, any cooling or
+     * heating, and the strictest maxCost (null if none is given).
+     */
+    private record GroupRequirements(double capacity, boolean cooling, boolean heating, Double maxCost) {
 
-        double maxRequiredCapacity = 0.0;
-        boolean needsCooling = false;
-        boolean needsHeating = false;
+        static GroupRequirements of(List<MedDispatchRec> dispatches) {
+            double capacity = 0.0;
+            boolean cooling = false;
+            boolean heating = false;
+            Double maxCost = null;
 
-        for (MedDispatchRec dispatch : dispatches) {
-            DispatchRequirements r = dispatch.requirements();
-            if (r == null) continue;
+            for (MedDispatchRec dispatch : dispatches) {
+                DispatchRequirements r = dispatch.requirements();
+                if (r == null) continue;
 
-            maxRequiredCapacity += r.capacity();
+                capacity += r.capacity();
 
-            if (r.cooling()) needsCooling = true;
-            if (r.heating()) needsHeating = true;
-        }
-
-        List<QueryAttributes> reqs = new ArrayList<>();
+                if (r.cooling()) cooling = true;
+                if (r.heating()) heating = true;
 
-        if (maxRequiredCapacity > 0) {
-            reqs.add(new QueryAttributes(
-                    "capacity",
-                    ">",
-                    String.valueOf(maxRequiredCapacity)
-            ));
+                if (r.maxCost() != null && (maxCost == null || r.maxCost() < maxCost)) {
+                    maxCost = r.maxCost();
+                }
+            }
+            return new GroupRequirements(capacity, cooling, heating, maxCost);
         }
+    }
 
-        if (needsCooling) {
-            reqs.add(new QueryAttributes("cooling", "=", "true"));
-        }
-        if (needsHeating) {
-            reqs.add(new QueryAttributes("heating", "=", "true"));
-        }
+    private record DispatchTime(LocalDate date, LocalTime time) {}
 
-        int[] attributeMatched = droneService.filterDroneAttributes(reqs);
-        if (attributeMatched.length == 0) {
+    public int[] queryAvailableDrones(List<MedDispatchRec> dispatches) {
+        if (dispatches == null || dispatches.isEmpty()) {
             return new int[0];
         }
 
-        // Get the strictest maxCost requirement
-        Double minMaxCost = dispatches.stream()
-                .map(d -> d.requirements().maxCost())
-                .filter(Objects::nonNull)
-                .min(Double::compareTo)
-                .orElse(null);
-
-        // Post-filter by maxCost if specified
-        if (minMaxCost != null) {
-            List<DroneInfo> allDrones = droneService.fetchDrones();
-            final Double costLimit = minMaxCost;
-            attributeMatched = Arrays.stream(attributeMatched)
-                    .filter(id -> allDrones.stream()
-                            .anyMatch(d -> d.id() == id && d.capability().costPerMove() < costLimit))
-                    .toArray();
-        }
-
+        int[] attributeMatched = matchRequirements(GroupRequirements.of(dispatches));
         if (attributeMatched.length == 0) {
             return new int[0];
         }
@@ -90,75 +74,120 @@ public class DroneAvailabilityService {
         return filterByAvailability(attributeMatched, dispatches);
     }
 
-    private int[] filterByAvailability(int[] drones, List<MedDispatchRec> dispatches) {
-        List<DronesForServicePoints> all = droneService.fetchDroneAvailability();
-
-        List<Integer> result = new ArrayList<>();
+    /**
+     * Evaluate many dispatch groups at once, returning the available drone ids for each
+     * group in request order.
+     *
+     * Groups with the same combined requirements share one attribute query, and each
+     * distinct dispatch date and time is checked against the calendar once; a group's
+     * availability is the intersection of its dispatches' bitsets.
+     */
+    public int[][] queryAvailableDronesBulk(List<List<MedDispatchRec>> groups) {
+        if (groups == null || groups.isEmpty()) {
+            return new int[0][];
+        }
 
-        for (int droneId : drones) {
-            List<DroneAvailability> availability = findAvailabilityForDrone(droneId, all);
-            if (availability.isEmpty()) continue;
+        Map<GroupRequirements, int[]> matchedByRequirements = new HashMap<>();
+        Map<DispatchTime, BitSet> slotsByTime = new HashMap<>();
+        AvailabilityCalendar calendar = null;
 
-            if (isDroneAvailableForAllDispatches(availability, dispatches)) {
-                result.add(droneId);
+        int[][] results = new int[groups.size()][];
+        for (int g = 0; g < groups.size(); g++) {
+            List<MedDispatchRec> group = groups.get(g);
+            if (group == null || group.isEmpty()) {
+                results[g] = new int[0];
+                continue;
             }
-        }
 
-        return result.stream().mapToInt(Integer::intValue).toArray();
-    }
-
-    private List<DroneAvailability> findAvailabilityForDrone(int droneId, List<DronesForServicePoints> all) {
-        for (DronesForServicePoints sps : all) {
-            if (sps.drones() == null) continue;
+            int[] attributeMatched = matchedByRequirements.computeIfAbsent(
+                    GroupRequirements.of(group), this::matchRequirements);
+            if (attributeMatched.length == 0) {
+                results[g] = new int[0];
+                continue;
+            }
 
-            for (ListDrones ld : sps.drones()) {
-                if (ld.id() == droneId) {
-                    return ld.availability();
+            if (calendar == null) {
+                calendar = availabilityCalendar();
+            }
+            final AvailabilityCalendar cal = calendar;
+
+            BitSet available = null;
+            for (MedDispatchRec d : group) {
+                BitSet slots = slotsByTime.computeIfAbsent(new DispatchTime(d.date(), d.time()),
+                        t -> cal.availableSlots(t.date(), t.time()));
+                if (available == null) {
+                    available = (BitSet) slots.clone();
+                } else {
+                    available.and(slots);
                 }
             }
+
+            final BitSet groupSlots = available;
+            results[g] = Arrays.stream(attributeMatched)
+                    .filter(id -> {
+                        int slot = cal.slotOf(id);
+                        return slot >= 0 && groupSlots.get(slot);
+                    })
+                    .toArray();
         }
-        return List.of();
+        return results;
     }
 
-    private boolean isDroneAvailableForAllDispatches(List<DroneAvailability> slots, List<MedDispatchRec> dispatches) {
-        for (MedDispatchRec d : dispatches) {
-            if (!isAvailableForDispatch(slots, d)) {
-                return false;
-            }
+    private int[] matchRequirements(GroupRequirements requirements) {
+        List<QueryAttributes> reqs = new ArrayList<>();
+
+        if (requirements.capacity() > 0) {
+            reqs.add(new QueryAttributes(
+                    "capacity",
+                    ">",
+                    String.valueOf(requirements.capacity())
+            ));
         }
-        return true;
-    }
 
-    private boolean isAvailableForDispatch(List<DroneAvailability> slots, MedDispatchRec dispatch) {
-        LocalDate date = dispatch.date();
-        LocalTime time = dispatch.time();
+        if (requirements.cooling()) {
+            reqs.add(new QueryAttributes("cooling", "=", "true"));
+        }
+        if (requirements.heating()) {
+            reqs.add(new QueryAttributes("heating", "=", "true"));
+        }
 
-        if (date == null && time == null) {
-            return true;
+        int[] attributeMatched = droneService.filterDroneAttributes(reqs);
+        if (attributeMatched.length == 0) {
+            return new int[0];
         }
 
-        String dispatchDay;
-        if (date != null) {
-            dispatchDay = date.getDayOfWeek().name();
-        } else {
-            dispatchDay = null;
+        // Post-filter by the strictest maxCost if specified
+        Double costLimit = requirements.maxCost();
+        if (costLimit != null) {
+            Set<Integer> withinCost = droneService.fetchDrones().stream()
+                    .filter(d -> d.capability().costPerMove() < costLimit)
+                    .map(DroneInfo::id)
+                    .collect(Collectors.toSet());
+            attributeMatched = Arrays.stream(attributeMatched)
+                    .filter(withinCost::contains)
+                    .toArray();
         }
 
-        for (DroneAvailability a : slots) {
-            if (dispatchDay != null &&
-                    !dispatchDay.equalsIgnoreCase(a.dayOfWeek())) {
-                continue;
-            }
+        return attributeMatched;
+    }
 
-            if (time != null) {
-                if (time.isBefore(a.from()) || time.isAfter(a.until())) {
-                    continue;
-                }
-            }
+    private int[] filterByAvailability(int[] drones, List<MedDispatchRec> dispatches) {
+        AvailabilityCalendar calendar = availabilityCalendar();
+        return Arrays.stream(drones)
+                .filter(id -> calendar.isAvailableForAll(id, dispatches))
+                .toArray();
+    }
 
-            return true;
+    /**
+     * Calendar for the current availability dataset, rebuilt only when the cached list changes.
+     */
+    AvailabilityCalendar availabilityCalendar() {
+        List<DronesForServicePoints> all = droneService.fetchDroneAvailability();
+        AvailabilityCalendar calendar = this.calendar;
+        if (calendar == null || calendar.source() != all) {
+            calendar = AvailabilityCalendar.build(all);
+            this.calendar = calendar;
         }
-
-        return false;
+        return calendar;
     }
-}
\ No newline at end of file
+}
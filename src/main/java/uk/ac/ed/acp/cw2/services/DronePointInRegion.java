@@ -67,8 +67,8 @@ public final class DronePointInRegion {
     }
 
 
-    // True if point P is on segment AB within EPS.
-    private static boolean onSegment(double px, double py,
+    // True if point P is on segment AB within EPS. Package-private for the benchmarks module.
+    static boolean onSegment(double px, double py,
                                      double ax, double ay,
                                      double bx, double by) {
         // First check if point is within the bounding box of the segment
@@ -1,10 +1,17 @@
 package uk.ac.ed.acp.cw2.services;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import uk.ac.ed.acp.cw2.data.CompiledDroneQuery;
+import uk.ac.ed.acp.cw2.data.FleetIndex;
+import uk.ac.ed.acp.cw2.data.LocationIndex;
+import uk.ac.ed.acp.cw2.data.LruCache;
 import uk.ac.ed.acp.cw2.dto.*;
+import uk.ac.ed.acp.cw2.jfr.IlpFetchEvent;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -13,18 +20,38 @@ import java.util.stream.Collectors;
 public class DroneQueryService {
     private final RestClient restClient;
 
-    public DroneQueryService(String ilpEndPoint) {
-        this.restClient = RestClient.builder()
-                .baseUrl(ilpEndPoint)
-                .build();
+    // Proxy to this bean, so internal calls go through the caches below
+    private final DroneQueryService self;
+
+    // Compiled attribute queries keyed by canonical form
+    private final LruCache<String, CompiledDroneQuery> compiledQueries = new LruCache<>(1024);
+
+    private volatile FleetIndex fleetIndex;
+    private volatile LocationIndex<ServicePoints> servicePointIndex;
+
+    public DroneQueryService(@Qualifier("ilpRestClient") RestClient restClient,
+                             @Lazy DroneQueryService self) {
+        this.restClient = restClient;
+        this.self = self;
     }
 
     public <type> List<type> fetch(ParameterizedTypeReference<List<type>> typeRef, String path) {
-        return restClient
-                .get()
-                .uri(path)
-                .retrieve()
-                .body(typeRef);
+        IlpFetchEvent event = new IlpFetchEvent();
+        event.begin();
+        try {
+            List<type> result = restClient
+                    .get()
+                    .uri(path)
+                    .retrieve()
+                    .body(typeRef);
+            event.succeeded(path, result == null ? 0 : result.size());
+            return result;
+        } catch (RuntimeException e) {
+            event.failed(path, e);
+            throw e;
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -60,67 +87,50 @@ public class DroneQueryService {
     }
 
     public int[] filterDroneAttributes(List<QueryAttributes> reqs) {
-        List<DroneInfo> drones = fetchDrones();
-        List<Integer> out = new ArrayList<>();
-
-        for (DroneInfo d : drones) {
-            if (matchesAll(d, reqs)) {
-                out.add(d.id());
-            }
-        }
-        return out.stream().mapToInt(Integer::intValue).toArray();
+        CompiledDroneQuery query = compileQuery(reqs);
+        FleetIndex index = fleetIndex();
+        return index.ids(index.select(query));
     }
 
-    private boolean matchesAll(DroneInfo d, List<QueryAttributes> reqs) {
-        for (QueryAttributes r : reqs) {
-            if (!matches(d, r)) return false;
+    /**
+     * Columnar index over the current drone list, rebuilt whenever the cached list is replaced.
+     */
+    public FleetIndex fleetIndex() {
+        List<DroneInfo> drones = self.fetchDrones();
+        FleetIndex index = fleetIndex;
+        if (index == null || index.source() != drones) {
+            index = FleetIndex.build(drones);
+            fleetIndex = index;
         }
-        return true;
-    }
-
-    private boolean matches(DroneInfo d, QueryAttributes r) {
-        var cap = d.capability();
-        String attr = r.attribute();
-        String op   = r.operator();
-        String val  = r.value();
-
-        return switch (attr) {
-            case "cooling" -> compareBoolean(cap.cooling(), op, val);
-            case "heating" -> compareBoolean(cap.heating(), op, val);
-            case "capacity" -> compareDouble(cap.capacity(), op, val);
-            case "maxMoves" -> compareDouble(cap.maxMoves(), op, val);
-            case "costPerMove" -> compareDouble(cap.costPerMove(), op, val);
-            case "costInitial" -> compareDouble(cap.costInitial(), op, val);
-            case "costFinal" -> compareDouble(cap.costFinal(), op, val);
-            default -> throw new IllegalArgumentException("Unknown attribute: " + attr);
-        };
+        return index;
     }
 
-    private boolean compareBoolean(boolean fieldValue, String operator, String value) {
-        boolean v = Boolean.parseBoolean(value);
-        return switch (operator) {
-            case "=" -> fieldValue == v;
-            case "!=" -> fieldValue != v;
-            default -> throw new IllegalArgumentException(
-                    "Operator '" + operator + "' not supported for boolean");
-        };
+    /**
+     * Spatial index over the current service points, rebuilt whenever the cached list is replaced.
+     */
+    public LocationIndex<ServicePoints> servicePointIndex() {
+        List<ServicePoints> servicePoints = self.fetchServicePoints();
+        LocationIndex<ServicePoints> index = servicePointIndex;
+        if (index == null || index.source() != servicePoints) {
+            index = LocationIndex.build(servicePoints, ServicePoints::location);
+            servicePointIndex = index;
+        }
+        return index;
     }
 
-    private boolean compareDouble(double fieldValue, String operator, String value) {
-        double v = Double.parseDouble(value);
-        return switch (operator) {
-            case "=" -> Math.abs(fieldValue - v) < 1e-9; // Use epsilon for floating point comparison
-            case "!=" -> Math.abs(fieldValue - v) >= 1e-9;
-            case "<" -> fieldValue < v;
-            case ">" -> fieldValue > v;
-            default -> throw new IllegalArgumentException(
-                    "Operator '" + operator + "' not supported for numeric (use =, !=, <, >)");
-        };
+    /**
+     * Compile (or reuse) the typed predicate for a list of query attributes.
+     * Rejects unknown attributes and bad operators/values with InvalidQueryException.
+     */
+    public CompiledDroneQuery compileQuery(List<QueryAttributes> reqs) {
+        return compiledQueries.computeIfAbsent(
+                CompiledDroneQuery.canonicalForm(reqs),
+                key -> CompiledDroneQuery.compile(reqs));
     }
 
     public Map<Integer, LngLat> fetchDroneOriginLocations() {
-        List<ServicePoints> servicePoints = fetchServicePoints();
-        List<DronesForServicePoints> dronesForServicePoints = fetchDroneAvailability();
+        List<ServicePoints> servicePoints = self.fetchServicePoints();
+        List<DronesForServicePoints> dronesForServicePoints = self.fetchDroneAvailability();
 
         Map<Integer, LngLat> servicePointLocations = servicePoints.stream()
                 .collect(Collectors.toMap(ServicePoints::id, ServicePoints::location));
@@ -1,13 +1,23 @@
 package uk.ac.ed.acp.cw2.services;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import uk.ac.ed.acp.cw2.data.Directions.Direction16;
 import uk.ac.ed.acp.cw2.data.Node;
 import uk.ac.ed.acp.cw2.dto.*;
+import uk.ac.ed.acp.cw2.jfr.AllocationRoundEvent;
+import uk.ac.ed.acp.cw2.jfr.PathfindingLegEvent;
+import uk.ac.ed.acp.cw2.jfr.RestrictedAreasLoadEvent;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static uk.ac.ed.acp.cw2.services.DronePointInRegion.isInRegion;
@@ -30,21 +40,36 @@ public class DroneRoutingService {
     // Allocation constraints
     private static final int MAX_ALLOCATION_ROUNDS = 100;
 
+    // Service points nearest the first delivery whose drones are tried first for a single flight
+    private static final int SHORTLIST_ORIGINS = 8;
+
     private final DroneAvailabilityService availabilityService;
     private final DroneQueryService droneQueryService;
+    private final RoutingMetrics metrics;
+    // Null: every step of a plan runs on the calling thread, as in tests and benchmarks
+    private final PlanningExecutor planning;
 
     // Thread-safe caching using ThreadLocal for concurrent requests
     private final ThreadLocal<List<RestrictedAreas>> restrictedAreasCache = new ThreadLocal<>();
 
+    // Set only while computing a plan whose caller asked for a profile
+    private final ThreadLocal<PlanProfileRecorder> activeProfile = new ThreadLocal<>();
+
     public DroneRoutingService(DroneAvailabilityService availabilityService,
-                               DroneQueryService droneQueryService) {
+                               DroneQueryService droneQueryService,
+                               MeterRegistry meterRegistry,
+                               PlanningExecutor planning) {
         this.availabilityService = availabilityService;
         this.droneQueryService = droneQueryService;
+        this.metrics = new RoutingMetrics(meterRegistry);
+        this.planning = planning;
     }
 
     /**
      * Calculate delivery path as GeoJSON for visualization.
      * Returns a LineString GeoJSON feature representing the complete flight path.
+     * The first drone able to fly every order is used; drones based at the service points
+     * nearest the first delivery are tried first, so it is usually the closest one.
      */
     public Map<String, Object> calcDeliveryPathAsGeoJson(List<MedDispatchRec> orders) {
         long startTime = System.currentTimeMillis();
@@ -68,7 +93,8 @@ public class DroneRoutingService {
                 return createEmptyGeoJson();
             }
 
-            DroneContext context = buildDroneContext(availableDrones);
+            DroneContext context = buildDroneContext();
+            restrictedAreasCache.set(context.restrictedAreas);
             SingleFlightResult bestResult = findBestSingleDroneFlight(orders, availableDrones, context);
 
             if (bestResult == null) {
@@ -87,9 +113,46 @@ public class DroneRoutingService {
         }
     }
 
+    /**
+     * Calculate a delivery plan while recording phase timings, A* legs and drones tried
+     * into {@code profile}. With a null profile this is just {@link #calcDeliveryPlan(List)}.
+     * A profiled plan is computed sequentially on one thread, so the per-thread CPU times it
+     * reports cover all of the work. Virtual threads report no CPU time, so with a
+     * {@link PlanningExecutor} that thread is one of its platform threads.
+     */
+    public DeliveryPlan calcDeliveryPlan(List<MedDispatchRec> orders, PlanProfileRecorder profile) {
+        if (profile == null) {
+            return calcDeliveryPlan(orders);
+        }
+        if (planning == null) {
+            return calcProfiledPlan(orders, profile);
+        }
+
+        try (PlanningExecutor.Scope scope = planning.cpuScope()) {
+            return scope.get(scope.fork(() -> calcProfiledPlan(orders, profile)));
+        } catch (InterruptedException e) {
+            throw interrupted(e);
+        }
+    }
+
+    private DeliveryPlan calcProfiledPlan(List<MedDispatchRec> orders, PlanProfileRecorder profile) {
+        activeProfile.set(profile);
+        profile.start();
+        try {
+            return calcDeliveryPlan(orders);
+        } finally {
+            profile.finish();
+            activeProfile.remove();
+        }
+    }
+
     /**
      * Calculate optimal delivery plan allocating orders across multiple drones.
      * Returns a complete plan with cost breakdown and paths for each drone.
+     *
+     * With a {@link PlanningExecutor}, the ILP datasets are fetched together before
+     * planning starts, and drones in an allocation round are evaluated in parallel. The
+     * plan is the same as the sequential one.
      */
     public DeliveryPlan calcDeliveryPlan(List<MedDispatchRec> orders) {
         long startTime = System.currentTimeMillis();
@@ -104,7 +167,15 @@ public class DroneRoutingService {
                 return new DeliveryPlan(0.0, 0, List.of());
             }
 
+            PlanProfileRecorder profile = activeProfile.get();
+            boolean concurrent = planning != null && profile == null;
+            long phaseStart = System.nanoTime();
+
+            if (concurrent) {
+                warmIlpCaches();
+            }
             int[] availableDrones = availabilityService.queryAvailableDrones(orders);
+            phaseStart = endPhase(Phase.AVAILABILITY, phaseStart, profile);
             logger.info("Found {} available drones", availableDrones.length);
 
             if (availableDrones.length == 0) {
@@ -112,8 +183,13 @@ public class DroneRoutingService {
                 return new DeliveryPlan(0.0, 0, List.of());
             }
 
-            DroneContext context = buildDroneContext(availableDrones);
-            AllocationResult result = findOptimalAllocation(orders, availableDrones, context);
+            DroneContext context = buildDroneContext();
+            phaseStart = endPhase(Phase.CONTEXT, phaseStart, profile);
+            restrictedAreasCache.set(context.restrictedAreas);
+
+            AllocationResult result = findOptimalAllocation(orders, availableDrones, context,
+                    concurrent && planning.parallelism() > 1);
+            phaseStart = endPhase(Phase.ALLOCATION, phaseStart, profile);
 
             if (result == null) {
                 logger.error("Could not allocate all orders - returning empty plan");
@@ -121,6 +197,7 @@ public class DroneRoutingService {
             }
 
             DeliveryPlan plan = result.toPlan();
+            endPhase(Phase.ASSEMBLY, phaseStart, profile);
             long totalTime = System.currentTimeMillis() - startTime;
             logger.info("=== calcDeliveryPlan END === Total: {}ms, cost={}, moves={}",
                     totalTime, plan.totalCost(), plan.totalMoves());
@@ -133,16 +210,100 @@ public class DroneRoutingService {
 
     // ==================== Helper Classes ====================
 
+    /**
+     * Phases of {@link #calcDeliveryPlan}, timed separately.
+     */
+    private enum Phase {
+        AVAILABILITY, CONTEXT, ALLOCATION, ASSEMBLY;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * How a single A* leg search ended.
+     */
+    private enum LegOutcome {
+        // CANCELLED: a parallel evaluation whose result was no longer needed
+        FOUND, AT_TARGET, RESTRICTED_ENDPOINT, NO_PATH, TIMEOUT, CANCELLED;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Counters gathered during one leg search.
+     */
+    private static final class LegStats {
+        LegOutcome outcome = LegOutcome.NO_PATH;
+        int iterations;
+        int openPeak;
+        int legalityChecks;
+    }
+
+    /**
+     * Meters for the routing hot path, registered once so recording does no lookups.
+     */
+    private static final class RoutingMetrics {
+        final Map<LegOutcome, Timer> legDuration = new EnumMap<>(LegOutcome.class);
+        final Map<Phase, Timer> phaseDuration = new EnumMap<>(Phase.class);
+        final DistributionSummary nodesExpanded;
+        final DistributionSummary openSetPeak;
+        final DistributionSummary legalityChecks;
+        final DistributionSummary allocationRounds;
+
+        RoutingMetrics(MeterRegistry registry) {
+            for (LegOutcome outcome : LegOutcome.values()) {
+                legDuration.put(outcome, Timer.builder("routing.leg.duration")
+                        .description("A* leg search latency")
+                        .tag("outcome", outcome.tag)
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+            for (Phase phase : Phase.values()) {
+                phaseDuration.put(phase, Timer.builder("routing.plan.phase")
+                        .description("Time spent in each phase of calcDeliveryPlan")
+                        .tag("phase", phase.tag)
+                        .register(registry));
+            }
+            nodesExpanded = summary(registry, "routing.leg.nodes.expanded", "A* nodes expanded per leg search");
+            openSetPeak = summary(registry, "routing.leg.open.peak", "Largest A* open set per leg search");
+            legalityChecks = summary(registry, "routing.leg.legality.checks",
+                    "Restricted-area move checks per leg search");
+            allocationRounds = summary(registry, "routing.allocation.rounds",
+                    "Allocation rounds per delivery plan");
+        }
+
+        void phase(Phase phase, long nanos) {
+            phaseDuration.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        void leg(LegStats stats, long nanos) {
+            legDuration.get(stats.outcome).record(nanos, TimeUnit.NANOSECONDS);
+            nodesExpanded.record(stats.iterations);
+            openSetPeak.record(stats.openPeak);
+            legalityChecks.record(stats.legalityChecks);
+        }
+
+        private static DistributionSummary summary(MeterRegistry registry, String name, String description) {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
     /**
      * Encapsulates drone fleet information for efficient lookup.
      */
     private static class DroneContext {
         final Map<Integer, LngLat> origins;
         final Map<Integer, DroneCapability> capabilities;
+        final List<RestrictedAreas> restrictedAreas;
 
-        DroneContext(Map<Integer, LngLat> origins, Map<Integer, DroneCapability> capabilities) {
+        DroneContext(Map<Integer, LngLat> origins, Map<Integer, DroneCapability> capabilities,
+                     List<RestrictedAreas> restrictedAreas) {
             this.origins = origins;
             this.capabilities = capabilities;
+            this.restrictedAreas = restrictedAreas;
         }
 
         LngLat getOrigin(int droneId) {
@@ -156,6 +317,24 @@ public class DroneRoutingService {
         boolean hasDroneData(int droneId) {
             return origins.containsKey(droneId) && capabilities.containsKey(droneId);
         }
+
+        /**
+         * Drones based at one of the {@code nearest} service points come first, in that
+         * order; the rest follow in their original order.
+         */
+        int[] byProximity(int[] droneIds, List<ServicePoints> nearest) {
+            Map<LngLat, Integer> rank = new HashMap<>();
+            for (int i = 0; i < nearest.size(); i++) {
+                rank.putIfAbsent(nearest.get(i).location(), i);
+            }
+
+            // Stable sort: drones sharing an origin, and those outside the shortlist, keep their order
+            return Arrays.stream(droneIds)
+                    .boxed()
+                    .sorted(Comparator.comparingInt(id -> rank.getOrDefault(origins.get(id), Integer.MAX_VALUE)))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
     }
 
     /**
@@ -243,21 +422,50 @@ public class DroneRoutingService {
         }
     }
 
+    /**
+     * Record the phase that started at {@code phaseStart} and return the start of the next one.
+     */
+    private long endPhase(Phase phase, long phaseStart, PlanProfileRecorder profile) {
+        long now = System.nanoTime();
+        metrics.phase(phase, now - phaseStart);
+        if (profile != null) {
+            profile.phase(phase.tag, now - phaseStart);
+        }
+        return now;
+    }
+
     // ==================== Context Building ====================
 
     /**
-     * Build context with drone locations and capabilities.
+     * Fetch every ILP dataset the availability query and the drone context read, one
+     * request per endpoint in parallel, so both then run against a warm cache.
+     *
+     * Forking those two instead would fetch the drones and availability twice, since the
+     * caches do not hold back a second caller while the first is still loading.
      */
-    private DroneContext buildDroneContext(int[] droneIds) {
+    private void warmIlpCaches() {
+        try (PlanningExecutor.Scope scope = planning.ioScope()) {
+            scope.fork(droneQueryService::fetchDrones);
+            scope.fork(droneQueryService::fetchDroneAvailability);
+            scope.fork(droneQueryService::fetchServicePoints);
+            scope.fork(droneQueryService::fetchRestrictedAreas);
+            scope.join();
+        } catch (InterruptedException e) {
+            throw interrupted(e);
+        }
+    }
+
+    /**
+     * Build context with drone locations, capabilities and restricted areas. Callers put the
+     * areas in the restricted-areas cache of the thread that does the pathfinding.
+     */
+    private DroneContext buildDroneContext() {
         Map<Integer, LngLat> origins = droneQueryService.fetchDroneOriginLocations();
 
         Map<Integer, DroneCapability> capabilities = droneQueryService.fetchDrones().stream()
                 .collect(Collectors.toMap(DroneInfo::id, DroneInfo::capability));
 
-        // Initialize restricted areas cache
-        getRestrictedAreas();
-
-        return new DroneContext(origins, capabilities);
+        return new DroneContext(origins, capabilities, loadRestrictedAreas());
     }
 
     // ==================== Single Flight Planning ====================
@@ -273,8 +481,16 @@ public class DroneRoutingService {
         SingleFlightResult bestResult = null;
         double bestCost = Double.POSITIVE_INFINITY;
 
-        for (int droneId : availableDrones) {
-            logger.info("Trying drone {}", droneId);
+        // The first feasible drone wins, so try those based nearest the first delivery first
+        LngLat firstDelivery = orders.get(0).delivery();
+        int[] candidates = availableDrones;
+        if (firstDelivery != null && availableDrones.length > 1) {
+            candidates = context.byProximity(availableDrones,
+                    droneQueryService.servicePointIndex().nearest(firstDelivery, SHORTLIST_ORIGINS));
+        }
+
+        for (int droneId : candidates) {
+            logger.debug("Trying drone {}", droneId);
 
             if (!context.hasDroneData(droneId)) {
                 logger.warn("Drone {} missing data", droneId);
@@ -289,8 +505,10 @@ public class DroneRoutingService {
             if (result != null && result.cost < bestCost) {
                 bestCost = result.cost;
                 bestResult = result;
-                logger.info("Drone {} feasible: cost={}, moves={}",
-                        droneId, result.cost, result.moves);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Drone {} feasible: cost={}, moves={}",
+                            droneId, result.cost, result.moves);
+                }
                 break; // First feasible is good enough for single flight
             }
         }
@@ -306,8 +524,11 @@ public class DroneRoutingService {
             DroneCapability caps,
             List<MedDispatchRec> orders) {
 
-        logger.debug("buildSimpleSingleFlight: {} orders from origin ({}, {})",
-                orders.size(), origin.lng(), origin.lat());
+        boolean debug = logger.isDebugEnabled();
+        if (debug) {
+            logger.debug("buildSimpleSingleFlight: {} orders from origin ({}, {})",
+                    orders.size(), origin.lng(), origin.lat());
+        }
 
         List<LngLat> fullPath = new ArrayList<>();
         fullPath.add(origin);
@@ -321,8 +542,10 @@ public class DroneRoutingService {
                 return null;
             }
 
-            logger.debug("Finding path to order {}: ({}, {}) -> ({}, {})",
-                    order.id(), current.lng(), current.lat(), target.lng(), target.lat());
+            if (debug) {
+                logger.debug("Finding path to order {}: ({}, {}) -> ({}, {})",
+                        order.id(), current.lng(), current.lat(), target.lng(), target.lat());
+            }
 
             List<Node> segment = findPathWithTimeout(current, target);
             if (segment.isEmpty()) {
@@ -355,7 +578,9 @@ public class DroneRoutingService {
         int moves = countMoves(fullPath);
 
         if (moves > caps.maxMoves()) {
-            logger.debug("Exceeds maxMoves: {} > {}", moves, caps.maxMoves());
+            if (debug) {
+                logger.debug("Exceeds maxMoves: {} > {}", moves, caps.maxMoves());
+            }
             return null;
         }
 
@@ -367,15 +592,18 @@ public class DroneRoutingService {
 
     /**
      * Allocate orders optimally across multiple drones using greedy allocation.
+     * With {@code parallel}, each round goes through {@link #allocateRoundInParallel}.
      */
     private AllocationResult findOptimalAllocation(
             List<MedDispatchRec> allOrders,
             int[] availableDrones,
-            DroneContext context) {
+            DroneContext context,
+            boolean parallel) {
 
         logger.info("findOptimalAllocation: {} orders, {} drones",
                 allOrders.size(), availableDrones.length);
 
+        PlanProfileRecorder profile = activeProfile.get();
         AllocationResult result = new AllocationResult();
         Set<Integer> remaining = allOrders.stream()
                 .map(MedDispatchRec::id)
@@ -385,45 +613,71 @@ public class DroneRoutingService {
 
         while (!remaining.isEmpty() && round < MAX_ALLOCATION_ROUNDS) {
             round++;
-            logger.info("Round {}: {} orders remaining", round, remaining.size());
+            logger.debug("Round {}: {} orders remaining", round, remaining.size());
 
+            AllocationRoundEvent roundEvent = new AllocationRoundEvent();
+            roundEvent.begin();
+            int remainingAtStart = remaining.size();
+            int dronesTried = 0;
             boolean progress = false;
 
-            for (int droneId : availableDrones) {
-                if (remaining.isEmpty()) break;
-
-                if (!context.hasDroneData(droneId)) {
-                    logger.warn("Drone {} missing data", droneId);
-                    continue;
+            if (parallel) {
+                dronesTried = allocateRoundInParallel(allOrders, availableDrones, context, remaining, result);
+                progress = remaining.size() < remainingAtStart;
+            } else {
+                for (int droneId : availableDrones) {
+                    if (remaining.isEmpty()) break;
+
+                    if (!context.hasDroneData(droneId)) {
+                        logger.warn("Drone {} missing data", droneId);
+                        continue;
+                    }
+
+                    List<MedDispatchRec> availableOrders = allOrders.stream()
+                            .filter(order -> remaining.contains(order.id()))
+                            .collect(Collectors.toList());
+
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Trying drone {} with {} remaining orders",
+                                droneId, availableOrders.size());
+                    }
+
+                    FlightInfo flight = buildBestFlight(
+                            context.getOrigin(droneId),
+                            context.getCapability(droneId),
+                            availableOrders);
+                    dronesTried++;
+
+                    if (profile != null) {
+                        profile.droneTried(round, droneId, flight == null ? 0 : flight.orders.size());
+                    }
+
+                    if (flight != null && !flight.orders.isEmpty()) {
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Drone {} allocated {} orders", droneId, flight.orders.size());
+                        }
+
+                        result.addFlight(droneId, flight);
+                        flight.orders.forEach(order -> remaining.remove(order.id()));
+                        progress = true;
+                    }
                 }
+            }
 
-                List<MedDispatchRec> availableOrders = allOrders.stream()
-                        .filter(order -> remaining.contains(order.id()))
-                        .collect(Collectors.toList());
-
-                logger.debug("Trying drone {} with {} remaining orders",
-                        droneId, availableOrders.size());
-
-                FlightInfo flight = buildBestFlight(
-                        context.getOrigin(droneId),
-                        context.getCapability(droneId),
-                        availableOrders);
-
-                if (flight != null && !flight.orders.isEmpty()) {
-                    logger.info("Drone {} allocated {} orders", droneId, flight.orders.size());
-
-                    result.addFlight(droneId, flight);
-                    flight.orders.forEach(order -> remaining.remove(order.id()));
-                    progress = true;
-                }
+            roundEvent.end();
+            if (roundEvent.shouldCommit()) {
+                roundEvent.set(round, remainingAtStart, dronesTried, remainingAtStart - remaining.size());
+                roundEvent.commit();
             }
 
             if (!progress) {
                 logger.error("No progress in round {} - cannot allocate remaining orders", round);
+                metrics.allocationRounds.record(round);
                 return null;
             }
         }
 
+        metrics.allocationRounds.record(round);
         if (!remaining.isEmpty()) {
             logger.error("Failed to allocate {} orders after {} rounds",
                     remaining.size(), round);
@@ -433,6 +687,99 @@ public class DroneRoutingService {
         return result;
     }
 
+    /**
+     * One allocation round with drones evaluated ahead of their turn.
+     *
+     * A drone's flight depends only on the orders left when its turn comes, and those only
+     * change when a drone takes some. So the next few drones are evaluated in parallel
+     * against the current orders and their results read in drone order. The first drone
+     * that takes orders is allocated, the evaluations after it are stale and cancelled, and
+     * the next batch starts with the drone after it. This gives the allocation the
+     * sequential loop would. Returns the number of drones whose result was used.
+     *
+     * Batches start at one drone and double while no drone takes orders, up to the pool's
+     * parallelism, so rounds where early drones succeed waste little work.
+     */
+    private int allocateRoundInParallel(
+            List<MedDispatchRec> allOrders,
+            int[] availableDrones,
+            DroneContext context,
+            Set<Integer> remaining,
+            AllocationResult result) {
+
+        int[] candidates = Arrays.stream(availableDrones)
+                .filter(droneId -> {
+                    if (context.hasDroneData(droneId)) return true;
+                    logger.warn("Drone {} missing data", droneId);
+                    return false;
+                })
+                .toArray();
+
+        int dronesTried = 0;
+        int next = 0;
+        int batch = 1;
+        while (next < candidates.length && !remaining.isEmpty()) {
+            List<MedDispatchRec> availableOrders = allOrders.stream()
+                    .filter(order -> remaining.contains(order.id()))
+                    .collect(Collectors.toList());
+
+            int end = Math.min(candidates.length, next + batch);
+            boolean allocated = false;
+            try (PlanningExecutor.Scope scope = planning.cpuScope()) {
+                List<Future<FlightInfo>> evaluations = new ArrayList<>(end - next);
+                for (int i = next; i < end; i++) {
+                    int droneId = candidates[i];
+                    evaluations.add(scope.fork(withRestrictedAreas(() -> buildBestFlight(
+                            context.getOrigin(droneId),
+                            context.getCapability(droneId),
+                            availableOrders))));
+                }
+
+                for (Future<FlightInfo> evaluation : evaluations) {
+                    FlightInfo flight = scope.get(evaluation);
+                    int droneId = candidates[next++];
+                    dronesTried++;
+
+                    if (flight != null && !flight.orders.isEmpty()) {
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Drone {} allocated {} orders", droneId, flight.orders.size());
+                        }
+                        result.addFlight(droneId, flight);
+                        flight.orders.forEach(order -> remaining.remove(order.id()));
+                        allocated = true;
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw interrupted(e);
+            }
+            batch = allocated ? 1 : Math.min(batch * 2, planning.parallelism());
+        }
+        return dronesTried;
+    }
+
+    /**
+     * Run {@code task} with this thread's restricted areas, for work handed to another thread.
+     */
+    private <T> Callable<T> withRestrictedAreas(Callable<T> task) {
+        List<RestrictedAreas> areas = restrictedAreasCache.get();
+        return () -> {
+            restrictedAreasCache.set(areas);
+            try {
+                return task.call();
+            } finally {
+                restrictedAreasCache.remove();
+            }
+        };
+    }
+
+    private static CancellationException interrupted(InterruptedException e) {
+        Thread.currentThread().interrupt();
+        CancellationException cancelled = new CancellationException("Delivery planning was interrupted");
+        cancelled.initCause(e);
+        return cancelled;
+    }
+
     /**
      * Build the best flight for a drone given available orders using greedy selection.
      */
@@ -441,8 +788,10 @@ public class DroneRoutingService {
             DroneCapability caps,
             List<MedDispatchRec> availableOrders) {
 
-        logger.debug("buildBestFlight: {} available orders from origin ({}, {})",
-                availableOrders.size(), origin.lng(), origin.lat());
+        if (logger.isDebugEnabled()) {
+            logger.debug("buildBestFlight: {} available orders from origin ({}, {})",
+                    availableOrders.size(), origin.lng(), origin.lat());
+        }
 
         if (availableOrders.isEmpty()) {
             return null;
@@ -496,7 +845,11 @@ public class DroneRoutingService {
             DroneCapability caps,
             List<MedDispatchRec> orders) {
 
-        logger.trace("buildFlightWithHover: {} orders", orders.size());
+        // Called once per candidate order in buildBestFlight, so check the level once up front
+        boolean trace = logger.isTraceEnabled();
+        if (trace) {
+            logger.trace("buildFlightWithHover: {} orders", orders.size());
+        }
 
         List<LngLat> fullPath = new ArrayList<>();
         List<Integer> hoverIndices = new ArrayList<>();
@@ -507,11 +860,15 @@ public class DroneRoutingService {
         for (MedDispatchRec order : orders) {
             LngLat target = order.delivery();
 
-            logger.trace("Pathfinding to order {}", order.id());
+            if (trace) {
+                logger.trace("Pathfinding to order {}", order.id());
+            }
             List<Node> segment = findPathWithTimeout(current, target);
 
             if (segment.isEmpty()) {
-                logger.trace("No path to order {}", order.id());
+                if (trace) {
+                    logger.trace("No path to order {}", order.id());
+                }
                 return null;
             }
 
@@ -529,10 +886,14 @@ public class DroneRoutingService {
         }
 
         // Return to origin
-        logger.trace("Pathfinding return to origin");
+        if (trace) {
+            logger.trace("Pathfinding return to origin");
+        }
         List<Node> returnSegment = findPathWithTimeout(current, origin);
         if (returnSegment.isEmpty()) {
-            logger.trace("No return path to origin");
+            if (trace) {
+                logger.trace("No return path to origin");
+            }
             return null;
         }
 
@@ -542,7 +903,9 @@ public class DroneRoutingService {
 
         int moves = countMoves(fullPath);
         if (moves > caps.maxMoves()) {
-            logger.trace("Exceeds maxMoves: {} > {}", moves, caps.maxMoves());
+            if (trace) {
+                logger.trace("Exceeds maxMoves: {} > {}", moves, caps.maxMoves());
+            }
             return null;
         }
 
@@ -554,32 +917,66 @@ public class DroneRoutingService {
 
     /**
      * Find path using A* algorithm with timeout protection.
+     * Package-private for the benchmarks module.
      */
-    private List<Node> findPathWithTimeout(LngLat origin, LngLat target) {
+    List<Node> findPathWithTimeout(LngLat origin, LngLat target) {
+        PathfindingLegEvent event = new PathfindingLegEvent();
+        event.begin();
+        long start = System.nanoTime();
+        LegStats stats = new LegStats();
+        List<Node> path = searchLeg(origin, target, stats);
+        long nanos = System.nanoTime() - start;
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(origin, target, stats.outcome.tag, stats.iterations, stats.openPeak, stats.legalityChecks);
+            event.commit();
+        }
+
+        metrics.leg(stats, nanos);
+        PlanProfileRecorder profile = activeProfile.get();
+        if (profile != null) {
+            profile.leg(origin, target, stats.outcome.tag, stats.iterations, stats.openPeak,
+                    stats.legalityChecks, nanos);
+        }
+        return path;
+    }
+
+    private List<Node> searchLeg(LngLat origin, LngLat target, LegStats stats) {
         long startTime = System.currentTimeMillis();
 
+        if (Thread.currentThread().isInterrupted()) {
+            stats.outcome = LegOutcome.CANCELLED;
+            return List.of();
+        }
+
         // Validate endpoints
         if (isInRestrictedArea(target)) {
             logger.warn("Target ({}, {}) is in restricted area", target.lng(), target.lat());
+            stats.outcome = LegOutcome.RESTRICTED_ENDPOINT;
             return List.of();
         }
 
         if (isInRestrictedArea(origin)) {
             logger.warn("Origin ({}, {}) is in restricted area", origin.lng(), origin.lat());
+            stats.outcome = LegOutcome.RESTRICTED_ENDPOINT;
             return List.of();
         }
 
         // Check if already at target
         if (GeometryService.isClose(origin, target)) {
+            stats.outcome = LegOutcome.AT_TARGET;
             return List.of(new Node(origin, null, target));
         }
 
-        double straightLineDist = GeometryService.distance(origin, target);
-        int estimatedSteps = (int) Math.ceil(straightLineDist / 0.00015);
-        logger.debug("Pathfinding from ({}, {}) to ({}, {}): distance={}, ~{} steps",
-                String.format("%.6f", origin.lng()), String.format("%.6f", origin.lat()),
-                String.format("%.6f", target.lng()), String.format("%.6f", target.lat()),
-                String.format("%.6f", straightLineDist), estimatedSteps);
+        // Checked once per leg; the A* loop below must not box or format anything unless asked to
+        boolean debug = logger.isDebugEnabled();
+        if (debug) {
+            double straightLineDist = GeometryService.distance(origin, target);
+            logger.debug("Pathfinding from ({}, {}) to ({}, {}): distance={}, ~{} steps",
+                    origin.lng(), origin.lat(), target.lng(), target.lat(),
+                    straightLineDist, (int) Math.ceil(straightLineDist / 0.00015));
+        }
 
         // A* data structures
         PriorityQueue<Node> openQueue = new PriorityQueue<>(
@@ -597,17 +994,24 @@ public class DroneRoutingService {
         while (!openQueue.isEmpty() && iterations < MAX_PATHFINDING_ITERATIONS) {
             iterations++;
 
-            // Check timeout periodically
+            // Check timeout and cancellation periodically
             if (iterations % 1000 == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    stats.iterations = iterations;
+                    stats.outcome = LegOutcome.CANCELLED;
+                    return List.of();
+                }
                 if (System.currentTimeMillis() - startTime > MAX_PATHFINDING_TIME_MS) {
                     logger.error("A* timeout after {}ms, {} iterations",
                             System.currentTimeMillis() - startTime, iterations);
+                    stats.iterations = iterations;
+                    stats.outcome = LegOutcome.TIMEOUT;
                     return List.of();
                 }
             }
 
             // Periodic logging
-            if (iterations % PATHFINDING_LOG_INTERVAL == 0) {
+            if (debug && iterations % PATHFINDING_LOG_INTERVAL == 0) {
                 logger.debug("A* iteration {}: open={}, positions tracked={}",
                         iterations, openQueue.size(), bestGCost.size());
             }
@@ -625,15 +1029,20 @@ public class DroneRoutingService {
 
             // Check if goal reached
             if (GeometryService.isClose(current.getXy(), target)) {
+                stats.iterations = iterations;
+                stats.outcome = LegOutcome.FOUND;
                 List<Node> path = reconstructPath(current);
-                logger.debug("A* SUCCESS: {}ms, {} iterations, {} steps",
-                        System.currentTimeMillis() - startTime, iterations, path.size());
+                if (debug) {
+                    logger.debug("A* SUCCESS: {}ms, {} iterations, {} steps",
+                            System.currentTimeMillis() - startTime, iterations, path.size());
+                }
                 return path;
             }
 
             // Explore neighbors
             for (Node neighbour : generateNeighbours(current, target)) {
                 // Check if move crosses restricted area
+                stats.legalityChecks++;
                 if (moveCrossesRestrictedArea(current.getXy(), neighbour.getXy())) {
                     continue;
                 }
@@ -647,8 +1056,12 @@ public class DroneRoutingService {
                     openQueue.offer(neighbour);
                 }
             }
+            if (openQueue.size() > stats.openPeak) {
+                stats.openPeak = openQueue.size();
+            }
         }
 
+        stats.iterations = iterations;
         logger.error("A* FAILED after {}ms, {} iterations (no path found)",
                 System.currentTimeMillis() - startTime, iterations);
         return List.of();
@@ -757,8 +1170,9 @@ public class DroneRoutingService {
      * Check if two line segments intersect.
      * Segment 1: p1 to p2
      * Segment 2: p3 to p4
+     * Package-private for the benchmarks module.
      */
-    private boolean lineSegmentsIntersect(LngLat p1, LngLat p2, LngLat p3, LngLat p4) {
+    boolean lineSegmentsIntersect(LngLat p1, LngLat p2, LngLat p3, LngLat p4) {
         double d1 = crossProductDirection(p3, p4, p1);
         double d2 = crossProductDirection(p3, p4, p2);
         double d3 = crossProductDirection(p1, p2, p3);
@@ -827,13 +1241,30 @@ public class DroneRoutingService {
     private List<RestrictedAreas> getRestrictedAreas() {
         List<RestrictedAreas> cached = restrictedAreasCache.get();
         if (cached == null) {
-            cached = droneQueryService.fetchRestrictedAreas();
+            cached = loadRestrictedAreas();
             restrictedAreasCache.set(cached);
             logger.debug("Cached {} restricted areas", cached.size());
         }
         return cached;
     }
 
+    private List<RestrictedAreas> loadRestrictedAreas() {
+        RestrictedAreasLoadEvent event = new RestrictedAreasLoadEvent();
+        event.begin();
+        List<RestrictedAreas> areas = droneQueryService.fetchRestrictedAreas();
+
+        event.end();
+        if (event.shouldCommit()) {
+            int vertices = 0;
+            for (RestrictedAreas area : areas) {
+                vertices += area.vertices() == null ? 0 : area.vertices().size();
+            }
+            event.set(areas.size(), vertices);
+            event.commit();
+        }
+        return areas;
+    }
+
     /**
      * Clear thread-local cache.
      */
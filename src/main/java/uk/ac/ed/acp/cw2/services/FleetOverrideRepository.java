@@ -0,0 +1,126 @@
+package uk.ac.ed.acp.cw2.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import uk.ac.ed.acp.cw2.data.FleetOverrides;
+import uk.ac.ed.acp.cw2.data.FleetOverrides.CapabilityPatch;
+import uk.ac.ed.acp.cw2.dto.DroneAvailability;
+import uk.ac.ed.acp.cw2.services.BatchedJdbcWriter.Write;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Stores fleet overrides in the embedded database so they survive restarts.
+ *
+ * Saves go through {@link BatchedJdbcWriter}. Each save only names the entry that changed;
+ * its value is read from the latest overrides when the batch is written, so concurrent
+ * mutations of the same drone always leave the newest value in the table.
+ */
+@Repository
+public class FleetOverrideRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetOverrideRepository.class);
+
+    private static final TypeReference<List<DroneAvailability>> SCHEDULE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BatchedJdbcWriter writer;
+    private final ObjectMapper objectMapper;
+
+    public FleetOverrideRepository(JdbcTemplate jdbcTemplate, BatchedJdbcWriter writer, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Rebuild the overrides saved by previous runs. Returns empty overrides if they can't be read.
+     */
+    public FleetOverrides load() {
+        FleetOverrides overrides = FleetOverrides.EMPTY;
+        try {
+            for (Object[] row : jdbcTemplate.query(
+                    "SELECT drone_id, reason FROM drone_maintenance ORDER BY updated_at",
+                    (rs, i) -> new Object[]{rs.getInt(1), rs.getString(2)})) {
+                overrides = overrides.withMaintenance((Integer) row[0], true, (String) row[1]);
+            }
+
+            for (Object[] row : jdbcTemplate.query(
+                    "SELECT drone_id, cooling, heating, capacity, max_moves, cost_per_move, cost_initial, cost_final "
+                            + "FROM drone_capability_override ORDER BY updated_at",
+                    (rs, i) -> new Object[]{rs.getInt(1), new CapabilityPatch(
+                            rs.getObject(2, Boolean.class), rs.getObject(3, Boolean.class),
+                            rs.getObject(4, Double.class), rs.getObject(5, Double.class),
+                            rs.getObject(6, Double.class), rs.getObject(7, Double.class),
+                            rs.getObject(8, Double.class))})) {
+                overrides = overrides.withCapability((Integer) row[0], (CapabilityPatch) row[1]);
+            }
+
+            for (Object[] row : jdbcTemplate.query(
+                    "SELECT service_point_id, drone_id, schedule FROM drone_schedule_override ORDER BY updated_at",
+                    (rs, i) -> new Object[]{rs.getInt(1), rs.getInt(2), rs.getString(3)})) {
+                overrides = overrides.withSchedule((Integer) row[0], (Integer) row[1],
+                        objectMapper.readValue((String) row[2], SCHEDULE));
+            }
+        } catch (DataAccessException | JsonProcessingException e) {
+            logger.warn("Could not load saved fleet overrides, starting without them: {}", e.getMessage());
+            return FleetOverrides.EMPTY;
+        }
+
+        if (!overrides.isEmpty()) {
+            logger.info("Restored fleet overrides from the database");
+        }
+        return overrides;
+    }
+
+    public void saveMaintenance(int droneId, Supplier<FleetOverrides> latest) {
+        writer.enqueue(() -> {
+            FleetOverrides overrides = latest.get();
+            if (!overrides.inMaintenance(droneId)) {
+                return new Write("DELETE FROM drone_maintenance WHERE drone_id = ?", droneId);
+            }
+            return new Write("MERGE INTO drone_maintenance (drone_id, reason, updated_at) KEY (drone_id) "
+                    + "VALUES (?, ?, ?)", droneId, overrides.maintenanceReason(droneId), now());
+        });
+    }
+
+    public void saveCapability(int droneId, Supplier<FleetOverrides> latest) {
+        writer.enqueue(() -> {
+            CapabilityPatch patch = latest.get().capabilityPatch(droneId);
+            if (patch == null) return null;
+
+            return new Write("MERGE INTO drone_capability_override (drone_id, cooling, heating, capacity, "
+                    + "max_moves, cost_per_move, cost_initial, cost_final, updated_at) KEY (drone_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    droneId, patch.cooling(), patch.heating(), patch.capacity(), patch.maxMoves(),
+                    patch.costPerMove(), patch.costInitial(), patch.costFinal(), now());
+        });
+    }
+
+    public void saveSchedule(int servicePointId, int droneId, Supplier<FleetOverrides> latest) {
+        writer.enqueue(() -> {
+            List<DroneAvailability> schedule = latest.get().schedule(servicePointId, droneId);
+            if (schedule == null) return null;
+
+            try {
+                return new Write("MERGE INTO drone_schedule_override (service_point_id, drone_id, schedule, "
+                        + "updated_at) KEY (service_point_id, drone_id) VALUES (?, ?, ?, ?)",
+                        servicePointId, droneId, objectMapper.writeValueAsString(schedule), now());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialise schedule", e);
+            }
+        });
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,60 @@
+package uk.ac.ed.acp.cw2.services;
+
+import org.springframework.stereotype.Service;
+import uk.ac.ed.acp.cw2.data.FleetOverrides;
+import uk.ac.ed.acp.cw2.data.FleetOverrides.CapabilityPatch;
+import uk.ac.ed.acp.cw2.dto.DroneAvailability;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the current {@link FleetOverrides}.
+ *
+ * Updates swap in a new immutable instance with compare-and-set, so concurrent mutations
+ * never lose each other's changes and readers always see one consistent version without
+ * taking a lock. The overrides saved by earlier runs are restored on construction, and
+ * every change is queued for saving without waiting for the database.
+ */
+@Service
+public class FleetOverrideStore {
+
+    private final FleetOverrideRepository repository;
+    private final AtomicReference<FleetOverrides> overrides;
+
+    public FleetOverrideStore(FleetOverrideRepository repository) {
+        this.repository = repository;
+        this.overrides = new AtomicReference<>(repository.load());
+    }
+
+    public FleetOverrides current() {
+        return overrides.get();
+    }
+
+    public FleetOverrides setMaintenance(int droneId, boolean inMaintenance, String reason) {
+        FleetOverrides next = update(o -> o.withMaintenance(droneId, inMaintenance, reason));
+        repository.saveMaintenance(droneId, this::current);
+        return next;
+    }
+
+    public FleetOverrides patchCapability(int droneId, CapabilityPatch patch) {
+        FleetOverrides next = update(o -> o.withCapability(droneId, patch));
+        repository.saveCapability(droneId, this::current);
+        return next;
+    }
+
+    public FleetOverrides setSchedule(int servicePointId, int droneId, List<DroneAvailability> schedule) {
+        FleetOverrides next = update(o -> o.withSchedule(servicePointId, droneId, schedule));
+        repository.saveSchedule(servicePointId, droneId, this::current);
+        return next;
+    }
+
+    /**
+     * Apply a change and return the version it produced. The change may be retried,
+     * so it must not have side effects.
+     */
+    private FleetOverrides update(UnaryOperator<FleetOverrides> change) {
+        return overrides.updateAndGet(change);
+    }
+}
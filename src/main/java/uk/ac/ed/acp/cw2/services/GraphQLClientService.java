@@ -1,36 +1,39 @@
 package uk.ac.ed.acp.cw2.services;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
+import org.springframework.graphql.ExecutionGraphQlRequest;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * OPTIMIZED: Internal GraphQL client for executing GraphQL queries
  * This allows internal services to use GraphQL queries instead of multiple REST calls,
  * reducing overfetching and consolidating data access logic.
+ *
+ * Queries run in-process through Spring GraphQL's {@link ExecutionGraphQlService}, with the
+ * same document cache, limits and DataLoaders as /graphql but no loopback HTTP request.
+ * Results are converted straight from the execution result to the requested type.
  */
 @Service
 public class GraphQLClientService {
 
     private static final Logger logger = LoggerFactory.getLogger(GraphQLClientService.class);
 
-    private final RestClient restClient;
+    private final ExecutionGraphQlService graphQlService;
     private final ObjectMapper objectMapper;
 
-    public GraphQLClientService(
-            @Value("${server.port:8080}") String serverPort,
-            ObjectMapper objectMapper) {
-        this.restClient = RestClient.builder()
-                .baseUrl("http://localhost:" + serverPort + "/graphql")
-                .build();
+    public GraphQLClientService(ExecutionGraphQlService graphQlService, ObjectMapper objectMapper) {
+        this.graphQlService = graphQlService;
         this.objectMapper = objectMapper;
     }
 
@@ -52,36 +55,7 @@ public class GraphQLClientService {
      * @return JsonNode containing the response data
      */
     public JsonNode executeQuery(String query, Map<String, Object> variables) {
-        try {
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("query", query);
-            if (variables != null && !variables.isEmpty()) {
-                requestBody.put("variables", variables);
-            }
-
-            logger.debug("Executing GraphQL query: {}", query);
-
-            String response = restClient
-                    .post()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(requestBody)
-                    .retrieve()
-                    .body(String.class);
-
-            JsonNode jsonResponse = objectMapper.readTree(response);
-
-            // Check for errors
-            if (jsonResponse.has("errors")) {
-                logger.error("GraphQL query returned errors: {}", jsonResponse.get("errors"));
-                throw new RuntimeException("GraphQL query failed: " + jsonResponse.get("errors"));
-            }
-
-            return jsonResponse.get("data");
-
-        } catch (Exception e) {
-            logger.error("Failed to execute GraphQL query", e);
-            throw new RuntimeException("GraphQL query execution failed", e);
-        }
+        return objectMapper.valueToTree(execute(query, variables).getData());
     }
 
     /**
@@ -93,20 +67,60 @@ public class GraphQLClientService {
      * @return Deserialized object of type T
      */
     public <T> T executeQueryAndParse(String query, String resultPath, Class<T> targetType) {
-        try {
-            JsonNode data = executeQuery(query);
-            JsonNode result = data.get(resultPath);
+        return executeQueryAndParse(query, null, resultPath,
+                objectMapper.getTypeFactory().constructType(targetType));
+    }
 
-            if (result == null) {
-                logger.warn("No data found at path: {}", resultPath);
-                return null;
-            }
+    /**
+     * Execute a GraphQL query and parse a list field of the response, e.g. "drones" into DroneInfo.
+     */
+    public <T> List<T> executeQueryForList(String query, Map<String, Object> variables,
+                                           String resultPath, Class<T> elementType) {
+        return executeQueryAndParse(query, variables, resultPath,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, elementType));
+    }
 
-            return objectMapper.treeToValue(result, targetType);
+    private <T> T executeQueryAndParse(String query, Map<String, Object> variables,
+                                       String resultPath, JavaType targetType) {
+        Object result = execute(query, variables).field(resultPath).getValue();
 
-        } catch (Exception e) {
+        if (result == null) {
+            logger.warn("No data found at path: {}", resultPath);
+            return null;
+        }
+
+        try {
+            return objectMapper.convertValue(result, targetType);
+        } catch (IllegalArgumentException e) {
             logger.error("Failed to parse GraphQL response", e);
             throw new RuntimeException("Failed to parse GraphQL response", e);
         }
     }
+
+    private ExecutionGraphQlResponse execute(String query, Map<String, Object> variables) {
+        logger.debug("Executing GraphQL query: {}", query);
+
+        ExecutionGraphQlRequest request = new DefaultExecutionGraphQlRequest(
+                query, null, variables, null, UUID.randomUUID().toString(), null);
+
+        ExecutionGraphQlResponse response;
+        try {
+            response = graphQlService.execute(request).block();
+        } catch (RuntimeException e) {
+            logger.error("Failed to execute GraphQL query", e);
+            throw new RuntimeException("GraphQL query execution failed", e);
+        }
+
+        if (response == null) {
+            throw new RuntimeException("GraphQL query execution failed: no response");
+        }
+
+        // Check for errors
+        if (!response.getErrors().isEmpty()) {
+            logger.error("GraphQL query returned errors: {}", response.getErrors());
+            throw new RuntimeException("GraphQL query failed: " + response.getErrors());
+        }
+
+        return response;
+    }
 }
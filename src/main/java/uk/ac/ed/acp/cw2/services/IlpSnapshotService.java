@@ -0,0 +1,207 @@
+package uk.ac.ed.acp.cw2.services;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import uk.ac.ed.acp.cw2.data.FleetOverrides;
+import uk.ac.ed.acp.cw2.data.IlpSnapshot;
+import uk.ac.ed.acp.cw2.dto.*;
+import uk.ac.ed.acp.cw2.jfr.CacheRefreshEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the ILP reference data caches warm across restarts.
+ *
+ * On startup the last good snapshot is memory-mapped from disk and published into the
+ * caches used by {@link DroneQueryService}, so requests are served without waiting on the
+ * ILP endpoint. A scheduled refresh then fetches fresh data in the background and, if it
+ * succeeds, republishes it and rewrites the snapshot. A failed refresh keeps the old data.
+ *
+ * Local {@link FleetOverrides} are applied to the drone and availability lists as they
+ * are published; the snapshot on disk always holds the unmodified ILP data.
+ */
+@Service
+public class IlpSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IlpSnapshotService.class);
+
+    private final DroneQueryService droneQueryService;
+    private final CacheManager cacheManager;
+    private final FleetOverrideStore overrideStore;
+    private final boolean persistenceEnabled;
+    private final Path snapshotFile;
+
+    private volatile IlpSnapshot current;
+
+    // Bumped every time new reference data is published into the caches
+    private final AtomicLong version = new AtomicLong();
+
+    public IlpSnapshotService(DroneQueryService droneQueryService,
+                              CacheManager cacheManager,
+                              FleetOverrideStore overrideStore,
+                              @Value("${ilp.snapshot.enabled:true}") boolean persistenceEnabled,
+                              @Value("${ilp.snapshot.path:data/ilp-snapshot.bin}") String snapshotPath) {
+        this.droneQueryService = droneQueryService;
+        this.cacheManager = cacheManager;
+        this.overrideStore = overrideStore;
+        this.persistenceEnabled = persistenceEnabled;
+        this.snapshotFile = Path.of(snapshotPath);
+    }
+
+    /**
+     * Serve the persisted snapshot, if any, before the first request arrives.
+     */
+    @PostConstruct
+    void loadFromDisk() {
+        if (!persistenceEnabled) {
+            return;
+        }
+        if (!Files.exists(snapshotFile)) {
+            logger.info("No ILP snapshot at {}, data will be fetched on demand", snapshotFile);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            IlpSnapshot snapshot = IlpSnapshot.readFrom(snapshotFile);
+            publish(snapshot, "snapshot");
+            logger.info("Loaded ILP snapshot saved at {} ({} drones, {} service points) in {}ms",
+                    snapshot.savedAtMillis(), sizeOf(snapshot.drones()), sizeOf(snapshot.servicePoints()),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable ILP snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch all reference datasets from the ILP endpoint and publish them as one unit.
+     */
+    @Scheduled(initialDelayString = "${ilp.snapshot.refresh-initial-delay-ms:0}",
+            fixedDelayString = "${ilp.snapshot.refresh-interval-ms:900000}")
+    public void refresh() {
+        IlpSnapshot fresh;
+        try {
+            fresh = fetchSnapshot();
+        } catch (RestClientException e) {
+            logger.warn("ILP refresh failed, keeping current data: {}", e.getMessage());
+            return;
+        }
+        publishAndSave(fresh);
+    }
+
+    private IlpSnapshot fetchSnapshot() {
+        return new IlpSnapshot(
+                System.currentTimeMillis(),
+                droneQueryService.fetch(new ParameterizedTypeReference<>() {}, "/drones"),
+                droneQueryService.fetch(new ParameterizedTypeReference<>() {}, "/service-points"),
+                droneQueryService.fetch(new ParameterizedTypeReference<>() {}, "/drones-for-service-points"),
+                droneQueryService.fetch(new ParameterizedTypeReference<>() {}, "/restricted-areas")
+        );
+    }
+
+    private void publishAndSave(IlpSnapshot fresh) {
+        publish(fresh, "ilp");
+
+        if (persistenceEnabled) {
+            try {
+                fresh.writeTo(snapshotFile);
+                logger.debug("Wrote ILP snapshot to {}", snapshotFile);
+            } catch (IOException e) {
+                logger.warn("Could not write ILP snapshot {}: {}", snapshotFile, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Last snapshot that was published, or null if nothing has been loaded yet.
+     */
+    public IlpSnapshot current() {
+        return current;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Re-apply the current overrides to the drone list only. The other cached lists keep
+     * their identity, so only the indexes built over the drones are rebuilt.
+     *
+     * @throws RestClientException if nothing has been published yet and the ILP data
+     *         can't be fetched, so the overrides could not be applied
+     */
+    public void republishDrones() {
+        republish(true, false);
+    }
+
+    /**
+     * Re-apply the current overrides to the availability listings only.
+     *
+     * @throws RestClientException as for {@link #republishDrones()}
+     */
+    public void republishAvailability() {
+        republish(false, true);
+    }
+
+    private void republish(boolean drones, boolean availability) {
+        if (current == null) {
+            // Nothing to layer the overrides on yet; a full fetch publishes them, and unlike
+            // the scheduled refresh a failure goes back to the caller
+            publishAndSave(fetchSnapshot());
+            return;
+        }
+
+        CacheRefreshEvent event = new CacheRefreshEvent();
+        event.begin();
+        synchronized (this) {
+            // Read the overrides under the lock so a slower mutation can't publish an older version
+            FleetOverrides overrides = overrideStore.current();
+            if (drones) {
+                put("drones", overrides.applyToDrones(current.drones()));
+            }
+            if (availability) {
+                put("droneAvailability", overrides.applyToAvailability(current.dronesForServicePoints()));
+            }
+            event.set("overrides", drones ? "drones" : "droneAvailability", version.incrementAndGet());
+        }
+        event.commit();
+    }
+
+    private synchronized void publish(IlpSnapshot snapshot, String source) {
+        CacheRefreshEvent event = new CacheRefreshEvent();
+        event.begin();
+        FleetOverrides overrides = overrideStore.current();
+        put("drones", overrides.applyToDrones(snapshot.drones()));
+        put("servicePoints", snapshot.servicePoints());
+        put("droneAvailability", overrides.applyToAvailability(snapshot.dronesForServicePoints()));
+        put("restrictedAreas", snapshot.restrictedAreas());
+        current = snapshot;
+        event.set(source, "drones,servicePoints,droneAvailability,restrictedAreas", version.incrementAndGet());
+        event.commit();
+    }
+
+    private void put(String cacheName, List<?> value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && value != null) {
+            // No-arg @Cacheable methods are keyed by SimpleKey.EMPTY
+            cache.put(SimpleKey.EMPTY, value);
+        }
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
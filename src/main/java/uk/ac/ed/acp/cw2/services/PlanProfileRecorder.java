@@ -0,0 +1,84 @@
+package uk.ac.ed.acp.cw2.services;
+
+import uk.ac.ed.acp.cw2.dto.LngLat;
+import uk.ac.ed.acp.cw2.dto.PlanProfile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects a {@link PlanProfile} for one request.
+ *
+ * Only created when a caller asks for a profile, and used by one thread at a time (the
+ * request thread, then the thread computing the plan), so it needs no synchronisation. If it is never started the plan was not computed for
+ * this request: it came from the cache, or from an identical request's computation.
+ */
+public class PlanProfileRecorder {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final List<PlanProfile.Phase> phases = new ArrayList<>();
+    private final List<PlanProfile.Leg> legs = new ArrayList<>();
+    private final List<PlanProfile.DroneAttempt> dronesTried = new ArrayList<>();
+
+    private boolean started;
+    private boolean coalesced;
+    private long startNanos;
+    private long startCpuNanos;
+    private long lastCpuNanos;
+    private long endNanos;
+    private long endCpuNanos;
+
+    void start() {
+        started = true;
+        startNanos = System.nanoTime();
+        startCpuNanos = cpuNanos();
+        lastCpuNanos = startCpuNanos;
+    }
+
+    // Called by DeliveryPlanCache on the request thread, before or instead of start()
+    void coalesced() {
+        coalesced = true;
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+        endCpuNanos = cpuNanos();
+    }
+
+    /**
+     * Record a phase that took {@code wallNanos}; its CPU time is what this thread
+     * used since the previous phase ended.
+     */
+    void phase(String name, long wallNanos) {
+        long cpu = cpuNanos();
+        phases.add(new PlanProfile.Phase(name, wallNanos / 1_000, (cpu - lastCpuNanos) / 1_000));
+        lastCpuNanos = cpu;
+    }
+
+    void leg(LngLat from, LngLat to, String outcome, int iterations, int openPeak,
+             int legalityChecks, long wallNanos) {
+        legs.add(new PlanProfile.Leg(from, to, outcome, iterations, openPeak, legalityChecks, wallNanos / 1_000));
+    }
+
+    void droneTried(int round, int droneId, int ordersAllocated) {
+        dronesTried.add(new PlanProfile.DroneAttempt(round, droneId, ordersAllocated));
+    }
+
+    public PlanProfile build() {
+        if (!started) {
+            return new PlanProfile(!coalesced, coalesced, 0, 0, List.of(), List.of(), List.of());
+        }
+        return new PlanProfile(false, false,
+                (endNanos - startNanos) / 1_000,
+                (endCpuNanos - startCpuNanos) / 1_000,
+                List.copyOf(phases), List.copyOf(legs), List.copyOf(dronesTried));
+    }
+
+    // -1 from the MXBean means CPU time isn't measurable here; report zero instead
+    private static long cpuNanos() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? Math.max(0, THREADS.getCurrentThreadCpuTime()) : 0;
+    }
+}
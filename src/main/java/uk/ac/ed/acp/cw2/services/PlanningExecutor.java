@@ -0,0 +1,207 @@
+package uk.ac.ed.acp.cw2.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for the independent parts of a delivery plan.
+ *
+ * Upstream fetches run on virtual threads, so waiting on the ILP service holds no platform
+ * thread. A* work runs on a fixed pool of platform threads, one per CPU unless configured
+ * otherwise; when its queue is full, submitters wait for room rather than piling up work.
+ *
+ * Work is forked inside a {@link Scope}, which follows StructuredTaskScope.ShutdownOnFailure
+ * (a preview API in Java 21): the first failure cancels the other tasks, and nothing forked
+ * in a scope is still running once it is closed.
+ */
+@Service
+public class PlanningExecutor {
+
+    private final int parallelism;
+    private final ExecutorService io;
+    private final ThreadPoolExecutor cpuPool;
+    private final ExecutorService cpu;
+
+    public PlanningExecutor(MeterRegistry meterRegistry,
+                            @Value("${routing.planning.parallelism:0}") int parallelism,
+                            @Value("${routing.planning.queue-capacity:256}") int queueCapacity) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.io = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("planning-io-", 0).factory());
+
+        AtomicInteger threads = new AtomicInteger();
+        this.cpuPool = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "planning-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                PlanningExecutor::waitForRoom);
+        this.cpu = ExecutorServiceMetrics.monitor(meterRegistry, cpuPool, "routing.planning");
+    }
+
+    /**
+     * Threads available for A* work; 1 means drones are evaluated one at a time.
+     */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Scope for tasks that mostly wait on upstream calls.
+     */
+    Scope ioScope() {
+        return new Scope(io);
+    }
+
+    /**
+     * Scope for A* work, bounded by {@link #parallelism()}.
+     */
+    Scope cpuScope() {
+        return new Scope(cpu);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cpu.shutdownNow();
+        io.shutdownNow();
+    }
+
+    // Only reached when the queue is full; submitters are request threads, which can afford to wait
+    private static void waitForRoom(Runnable task, ThreadPoolExecutor pool) {
+        if (pool.isShutdown()) {
+            throw new RejectedExecutionException("Planning pool is shut down");
+        }
+        try {
+            pool.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted waiting for a planning thread", e);
+        }
+    }
+
+    /**
+     * Tasks forked by one caller. Results are read with {@link #join()} or {@link #get(Future)};
+     * either throws the task's own exception and cancels whatever else is outstanding.
+     * The caller's MDC is carried over, so per-request log levels and tenant tags still apply.
+     */
+    static final class Scope implements AutoCloseable {
+
+        private final Executor executor;
+        private final List<ScopedTask<?>> tasks = new ArrayList<>();
+        private final BlockingQueue<Future<?>> completed = new LinkedBlockingQueue<>();
+        // The owner plus every task that has started running
+        private final Phaser running = new Phaser(1);
+
+        private Scope(Executor executor) {
+            this.executor = executor;
+        }
+
+        <T> Future<T> fork(Callable<T> task) {
+            Map<String, String> mdc = MDC.getCopyOfContextMap();
+            ScopedTask<T> scoped = new ScopedTask<>(() -> {
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                try {
+                    return task.call();
+                } finally {
+                    MDC.clear();
+                }
+            });
+            tasks.add(scoped);
+            executor.execute(scoped);
+            return scoped;
+        }
+
+        /**
+         * Wait for every forked task. The first to fail cancels the rest and its exception
+         * is rethrown.
+         */
+        void join() throws InterruptedException {
+            for (int i = 0; i < tasks.size(); i++) {
+                Future<?> done;
+                try {
+                    done = completed.take();
+                } catch (InterruptedException e) {
+                    cancelAll();
+                    throw e;
+                }
+                if (done.state() == Future.State.FAILED) {
+                    cancelAll();
+                    throw propagate(done.exceptionNow());
+                }
+            }
+        }
+
+        /**
+         * Wait for one task and return its result, whatever the others are doing.
+         */
+        <T> T get(Future<T> task) throws InterruptedException {
+            try {
+                return task.get();
+            } catch (ExecutionException e) {
+                cancelAll();
+                throw propagate(e.getCause());
+            } catch (InterruptedException e) {
+                cancelAll();
+                throw e;
+            }
+        }
+
+        /**
+         * Cancel anything still outstanding and wait for tasks that had already started to
+         * stop. Tasks still queued are dropped without running.
+         */
+        @Override
+        public void close() {
+            cancelAll();
+            running.arriveAndAwaitAdvance();
+        }
+
+        private void cancelAll() {
+            for (ScopedTask<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+
+        private static RuntimeException propagate(Throwable failure) {
+            if (failure instanceof RuntimeException e) return e;
+            if (failure instanceof Error e) throw e;
+            return new CompletionException(failure);
+        }
+
+        private final class ScopedTask<T> extends FutureTask<T> {
+
+            ScopedTask(Callable<T> callable) {
+                super(callable);
+            }
+
+            @Override
+            public void run() {
+                if (isDone()) return;
+                running.register();
+                try {
+                    super.run();
+                } finally {
+                    running.arriveAndDeregister();
+                }
+            }
+
+            @Override
+            protected void done() {
+                completed.add(this);
+            }
+        }
+    }
+}
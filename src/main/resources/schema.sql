@@ -0,0 +1,42 @@
+-- Embedded H2 schema; run on every startup, so every statement must be idempotent
+
+CREATE TABLE IF NOT EXISTS drone_maintenance (
+    drone_id    INT PRIMARY KEY,
+    reason      VARCHAR(1000),
+    updated_at  TIMESTAMP NOT NULL
+);
+
+-- Null columns keep the ILP value
+CREATE TABLE IF NOT EXISTS drone_capability_override (
+    drone_id       INT PRIMARY KEY,
+    cooling        BOOLEAN,
+    heating        BOOLEAN,
+    capacity       DOUBLE PRECISION,
+    max_moves      DOUBLE PRECISION,
+    cost_per_move  DOUBLE PRECISION,
+    cost_initial   DOUBLE PRECISION,
+    cost_final     DOUBLE PRECISION,
+    updated_at     TIMESTAMP NOT NULL
+);
+
+-- Schedule is a JSON array of {dayOfWeek, from, until}
+CREATE TABLE IF NOT EXISTS drone_schedule_override (
+    service_point_id  INT NOT NULL,
+    drone_id          INT NOT NULL,
+    schedule          CLOB NOT NULL,
+    updated_at        TIMESTAMP NOT NULL,
+    PRIMARY KEY (service_point_id, drone_id)
+);
+
+CREATE TABLE IF NOT EXISTS delivery_plan (
+    id              VARCHAR(36) PRIMARY KEY,
+    created_at      TIMESTAMP NOT NULL,
+    dispatch_count  INT NOT NULL,
+    drone_count     INT NOT NULL,
+    total_cost      DOUBLE PRECISION NOT NULL,
+    total_moves     INT NOT NULL,
+    request         CLOB NOT NULL,
+    plan            CLOB NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS delivery_plan_created_at ON delivery_plan (created_at);
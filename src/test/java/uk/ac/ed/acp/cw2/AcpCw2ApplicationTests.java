@@ -2,8 +2,10 @@ package uk.ac.ed.acp.cw2;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class AcpCw2ApplicationTests {
 
     @Test
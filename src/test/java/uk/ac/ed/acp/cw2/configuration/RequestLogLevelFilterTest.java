@@ -0,0 +1,68 @@
+package uk.ac.ed.acp.cw2.configuration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RequestLogLevelFilter")
+class RequestLogLevelFilterTest {
+
+    private LoggerContext context;
+    private Logger routing;
+    private Logger framework;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        RequestLogLevelFilter filter = new RequestLogLevelFilter();
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+
+        routing = context.getLogger("uk.ac.ed.acp.cw2.services.DroneRoutingService");
+        framework = context.getLogger("org.springframework.web");
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    @DisplayName("Without an override the configured level applies")
+    void noOverride() {
+        assertFalse(routing.isDebugEnabled());
+        assertTrue(routing.isInfoEnabled());
+    }
+
+    @Test
+    @DisplayName("A request level enables debug for application loggers only")
+    void requestLevel() {
+        MDC.put(RequestLogLevelFilter.LEVEL_KEY, "DEBUG");
+
+        assertTrue(routing.isDebugEnabled());
+        assertFalse(routing.isTraceEnabled());
+        assertFalse(framework.isDebugEnabled());
+    }
+
+    @Test
+    @DisplayName("A tenant logger level applies to that tenant's requests")
+    void tenantLevel() {
+        context.getLogger(RequestLogLevelFilter.TENANT_LOGGER_PREFIX + "acme").setLevel(Level.TRACE);
+
+        MDC.put(RequestLogLevelFilter.TENANT_KEY, "acme");
+        assertTrue(routing.isTraceEnabled());
+
+        MDC.put(RequestLogLevelFilter.TENANT_KEY, "other");
+        assertFalse(routing.isDebugEnabled());
+        assertNull(context.exists(RequestLogLevelFilter.TENANT_LOGGER_PREFIX + "other"));
+    }
+}
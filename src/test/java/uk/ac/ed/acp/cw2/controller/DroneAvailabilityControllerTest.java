@@ -107,4 +107,35 @@ class DroneAvailabilityControllerTest {
                     .andExpect(jsonPath("$.length()").value(0));
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("POST /api/v1/queryAvailableDronesBulk")
+    class QueryAvailableDronesBulkTests {
+
+        @Test
+        @DisplayName("returns one drone ID array per dispatch group")
+        void queryAvailableDronesBulk_returnsArrayPerGroup() throws Exception {
+            MedDispatchRec dispatch = new MedDispatchRec(
+                    301,
+                    LocalDate.of(2025, 12, 22),
+                    LocalTime.of(14, 30),
+                    new DispatchRequirements(0.75, false, true, null),
+                    new LngLat(-3.1863, 55.9446)
+            );
+            List<List<MedDispatchRec>> groups = List.of(List.of(dispatch), List.of(dispatch, dispatch));
+
+            when(droneAvailabilityService.queryAvailableDronesBulk(anyList()))
+                    .thenReturn(new int[][]{{2, 4}, {}});
+
+            mockMvc.perform(
+                            post("/api/v1/queryAvailableDronesBulk")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(groups))
+                    )
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0][1]").value(4))
+                    .andExpect(jsonPath("$[1].length()").value(0));
+        }
+    }
+}
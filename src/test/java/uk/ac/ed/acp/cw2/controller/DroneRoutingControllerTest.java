@@ -0,0 +1,110 @@
+package uk.ac.ed.acp.cw2.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import uk.ac.ed.acp.cw2.dto.*;
+import uk.ac.ed.acp.cw2.services.DeliveryPlanCache;
+import uk.ac.ed.acp.cw2.services.DeliveryPlanCache.CachedPlan;
+import uk.ac.ed.acp.cw2.services.DeliveryPlanRepository;
+import uk.ac.ed.acp.cw2.services.DroneRoutingService;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = DroneRoutingController.class)
+class DroneRoutingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private DroneRoutingService droneRoutingService;
+
+    @MockitoBean
+    private DeliveryPlanRepository planRepository;
+
+    @MockitoBean
+    private DeliveryPlanCache planCache;
+
+    private final List<MedDispatchRec> dispatches = List.of(new MedDispatchRec(
+            101,
+            LocalDate.of(2025, 12, 22),
+            LocalTime.of(14, 30),
+            new DispatchRequirements(0.75, false, true, 13.5),
+            new LngLat(-3.1863, 55.9446)
+    ));
+
+    private final DeliveryPlan plan = new DeliveryPlan(12.5, 40, List.of(new DronePath(3, List.of(
+            new DeliveryPath(101, List.of(new LngLat(-3.1863, 55.9446), new LngLat(-3.1863, 55.9446)))))));
+
+    @BeforeEach
+    void setUp() {
+        // Always compute, as on a cache miss
+        when(planCache.get(anyList(), any(), any())).thenAnswer(invocation -> {
+            Supplier<CachedPlan> compute = invocation.getArgument(1);
+            return compute.get();
+        });
+        when(droneRoutingService.calcDeliveryPlan(anyList(), any())).thenReturn(plan);
+        when(planRepository.save(anyList(), any())).thenReturn("plan-1");
+    }
+
+    @Nested
+    @DisplayName("POST /api/v1/calcDeliveryPath")
+    class CalcDeliveryPathTests {
+
+        @Test
+        @DisplayName("returns the plan and its id")
+        void calcDeliveryPath_returnsPlan() throws Exception {
+            mockMvc.perform(
+                            post("/api/v1/calcDeliveryPath")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(dispatches))
+                    )
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(DroneRoutingController.PLAN_ID_HEADER, "plan-1"))
+                    .andExpect(jsonPath("$.totalCost").value(12.5))
+                    .andExpect(jsonPath("$.totalMoves").value(40))
+                    .andExpect(jsonPath("$.dronePaths[0].droneId").value(3))
+                    .andExpect(jsonPath("$.profile").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("with X-Plan-Profile, adds profile next to the plan's own fields")
+        void calcDeliveryPath_profiled_unwrapsPlan() throws Exception {
+            mockMvc.perform(
+                            post("/api/v1/calcDeliveryPath")
+                                    .header(DroneRoutingController.PLAN_PROFILE_HEADER, "true")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(dispatches))
+                    )
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(DroneRoutingController.PLAN_ID_HEADER, "plan-1"))
+                    .andExpect(jsonPath("$.plan").doesNotExist())
+                    .andExpect(jsonPath("$.totalCost").value(12.5))
+                    .andExpect(jsonPath("$.totalMoves").value(40))
+                    .andExpect(jsonPath("$.dronePaths[0].deliveries[0].deliveryId").value(101))
+                    .andExpect(jsonPath("$.profile.coalesced").value(false))
+                    .andExpect(jsonPath("$.profile.wallMicros").isNumber())
+                    .andExpect(jsonPath("$.profile.phases").isArray());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package uk.ac.ed.acp.cw2.data;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.ac.ed.acp.cw2.dto.DroneAvailability;
+import uk.ac.ed.acp.cw2.dto.DronesForServicePoints;
+import uk.ac.ed.acp.cw2.dto.ListDrones;
+import uk.ac.ed.acp.cw2.dto.MedDispatchRec;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AvailabilityCalendar Tests")
+class AvailabilityCalendarTest {
+
+    // 2025-01-06 is a Monday
+    private static final LocalDate MONDAY = LocalDate.of(2025, 1, 6);
+
+    private static DroneAvailability slot(String day, String from, String until) {
+        return new DroneAvailability(day, LocalTime.parse(from), LocalTime.parse(until));
+    }
+
+    private static MedDispatchRec dispatch(LocalDate date, LocalTime time) {
+        return new MedDispatchRec(1, date, time, null, null);
+    }
+
+    // The linear scan the calendar replaces
+    private static boolean slotScan(List<DroneAvailability> slots, LocalDate date, LocalTime time) {
+        if (date == null && time == null) return true;
+        for (DroneAvailability a : slots) {
+            if (date != null && !date.getDayOfWeek().name().equalsIgnoreCase(a.dayOfWeek())) continue;
+            if (time != null && (time.isBefore(a.from()) || time.isAfter(a.until()))) continue;
+            return true;
+        }
+        return false;
+    }
+
+    @Test
+    @DisplayName("Matches the slot scan for random schedules and dispatches")
+    void matchesSlotScan() {
+        Random random = new Random(7);
+        DayOfWeek[] days = DayOfWeek.values();
+
+        for (int round = 0; round < 200; round++) {
+            List<DroneAvailability> slots = new ArrayList<>();
+            int count = 1 + random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                LocalTime from = LocalTime.of(random.nextInt(24), random.nextInt(4) * 15);
+                LocalTime until = from.plusMinutes(random.nextInt(300));
+                if (until.isBefore(from)) until = LocalTime.MAX;
+                String day = days[random.nextInt(7)].name();
+                slots.add(new DroneAvailability(random.nextBoolean() ? day : day.toLowerCase(), from, until));
+            }
+
+            AvailabilityCalendar calendar = AvailabilityCalendar.build(List.of(
+                    new DronesForServicePoints(1, List.of(new ListDrones(42, slots)))));
+            int slot = calendar.slotOf(42);
+
+            for (int q = 0; q < 100; q++) {
+                LocalDate date = random.nextInt(4) == 0 ? null : MONDAY.plusDays(random.nextInt(7));
+                LocalTime time = random.nextInt(4) == 0 ? null
+                        : LocalTime.of(random.nextInt(24), random.nextInt(60));
+
+                assertEquals(slotScan(slots, date, time), calendar.isAvailable(slot, date, time),
+                        "Mismatch for " + date + " " + time + " against " + slots);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Window bounds are inclusive")
+    void boundsInclusive() {
+        AvailabilityCalendar calendar = AvailabilityCalendar.build(List.of(
+                new DronesForServicePoints(1, List.of(
+                        new ListDrones(5, List.of(slot("MONDAY", "09:00", "12:00")))))));
+        int slot = calendar.slotOf(5);
+
+        assertTrue(calendar.isAvailable(slot, MONDAY, LocalTime.of(9, 0)));
+        assertTrue(calendar.isAvailable(slot, MONDAY, LocalTime.of(12, 0)));
+        assertFalse(calendar.isAvailable(slot, MONDAY, LocalTime.of(12, 0, 1)));
+        assertFalse(calendar.isAvailable(slot, MONDAY.plusDays(1), LocalTime.of(10, 0)));
+    }
+
+    @Test
+    @DisplayName("First listing wins and empty schedules are excluded")
+    void firstListingAndEmptySchedules() {
+        AvailabilityCalendar calendar = AvailabilityCalendar.build(List.of(
+                new DronesForServicePoints(1, List.of(
+                        new ListDrones(1, List.of(slot("MONDAY", "09:00", "10:00"))),
+                        new ListDrones(2, List.of()))),
+                new DronesForServicePoints(2, List.of(
+                        new ListDrones(1, List.of(slot("TUESDAY", "09:00", "10:00")))))));
+
+        assertEquals(-1, calendar.slotOf(2));
+        assertEquals(1, calendar.size());
+
+        assertTrue(calendar.isAvailableForAll(1, List.of(dispatch(MONDAY, LocalTime.of(9, 30)))));
+        assertFalse(calendar.isAvailableForAll(1, List.of(dispatch(MONDAY.plusDays(1), LocalTime.of(9, 30)))));
+        assertFalse(calendar.isAvailableForAll(2, List.of(dispatch(null, null))));
+    }
+
+    @Test
+    @DisplayName("Available slots bitset covers every scheduled drone")
+    void availableSlots() {
+        AvailabilityCalendar calendar = AvailabilityCalendar.build(List.of(
+                new DronesForServicePoints(1, List.of(
+                        new ListDrones(1, List.of(slot("MONDAY", "09:00", "10:00"))),
+                        new ListDrones(2, List.of(slot("MONDAY", "11:00", "12:00")))))));
+
+        assertEquals(1, calendar.availableSlots(MONDAY, LocalTime.of(9, 30)).cardinality());
+        assertTrue(calendar.availableSlots(MONDAY, LocalTime.of(11, 30)).get(calendar.slotOf(2)));
+        assertEquals(2, calendar.availableSlots(null, null).cardinality());
+    }
+}
@@ -0,0 +1,106 @@
+package uk.ac.ed.acp.cw2.data;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.ac.ed.acp.cw2.dto.DroneCapability;
+import uk.ac.ed.acp.cw2.dto.QueryAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompiledDroneQuery Tests")
+class CompiledDroneQueryTest {
+
+    private final DroneCapability cooledSmall = new DroneCapability(true, false, 4.0, 2000, 0.01, 4.3, 6.5);
+    private final DroneCapability heatedLarge = new DroneCapability(false, true, 20.0, 4000, 0.05, 9.5, 11.5);
+
+    private static QueryAttributes q(String attribute, String operator, String value) {
+        return new QueryAttributes(attribute, operator, value);
+    }
+
+    @Nested
+    @DisplayName("Evaluation")
+    class EvaluationTests {
+
+        @Test
+        @DisplayName("Numeric operators compare against the parsed value")
+        void numericOperators() {
+            assertTrue(CompiledDroneQuery.compile(List.of(q("capacity", "=", "4"))).test(cooledSmall));
+            assertTrue(CompiledDroneQuery.compile(List.of(q("capacity", "!=", "4"))).test(heatedLarge));
+            assertTrue(CompiledDroneQuery.compile(List.of(q("maxMoves", ">", "3000"))).test(heatedLarge));
+            assertFalse(CompiledDroneQuery.compile(List.of(q("costPerMove", "<", "0.01"))).test(cooledSmall));
+        }
+
+        @Test
+        @DisplayName("Boolean attributes support = and !=")
+        void booleanOperators() {
+            assertTrue(CompiledDroneQuery.compile(List.of(q("cooling", "=", "true"))).test(cooledSmall));
+            assertTrue(CompiledDroneQuery.compile(List.of(q("heating", "!=", "true"))).test(cooledSmall));
+            assertFalse(CompiledDroneQuery.compile(List.of(q("heating", "=", "true"))).test(cooledSmall));
+        }
+
+        @Test
+        @DisplayName("All criteria must hold")
+        void conjunction() {
+            CompiledDroneQuery query = CompiledDroneQuery.compile(List.of(
+                    q("cooling", "=", "true"),
+                    q("capacity", ">", "10")));
+
+            assertFalse(query.test(cooledSmall));
+            assertFalse(query.test(heatedLarge));
+        }
+
+        @Test
+        @DisplayName("Empty query matches everything")
+        void emptyQuery() {
+            assertTrue(CompiledDroneQuery.compile(List.of()).test(cooledSmall));
+        }
+    }
+
+    @Nested
+    @DisplayName("Compile-time rejection")
+    class RejectionTests {
+
+        @Test
+        @DisplayName("Unknown attribute is rejected")
+        void unknownAttribute() {
+            assertThrows(InvalidQueryException.class,
+                    () -> CompiledDroneQuery.compile(List.of(q("colour", "=", "red"))));
+        }
+
+        @Test
+        @DisplayName("Ordering operator on a boolean is rejected")
+        void orderingOnBoolean() {
+            assertThrows(InvalidQueryException.class,
+                    () -> CompiledDroneQuery.compile(List.of(q("cooling", "<", "true"))));
+        }
+
+        @Test
+        @DisplayName("Non-numeric value is rejected")
+        void badNumber() {
+            assertThrows(InvalidQueryException.class,
+                    () -> CompiledDroneQuery.compile(List.of(q("capacity", ">", "lots"))));
+        }
+
+        @Test
+        @DisplayName("Missing value is rejected")
+        void missingValue() {
+            assertThrows(InvalidQueryException.class,
+                    () -> CompiledDroneQuery.compile(List.of(q("capacity", ">", null))));
+            assertThrows(InvalidQueryException.class,
+                    () -> CompiledDroneQuery.compile(List.of(q("cooling", "=", null))));
+        }
+    }
+
+    @Test
+    @DisplayName("Canonical form ignores criterion order")
+    void canonicalForm_orderIndependent() {
+        String a = CompiledDroneQuery.canonicalForm(List.of(q("capacity", ">", "4"), q("cooling", "=", "true")));
+        String b = CompiledDroneQuery.canonicalForm(List.of(q("cooling", "=", "true"), q("capacity", ">", "4")));
+
+        assertEquals(a, b);
+        assertNotEquals(a, CompiledDroneQuery.canonicalForm(List.of(q("capacity", ">", "5"))));
+    }
+}
@@ -0,0 +1,101 @@
+package uk.ac.ed.acp.cw2.data;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.ac.ed.acp.cw2.data.CompiledDroneQuery.Attribute;
+import uk.ac.ed.acp.cw2.dto.DroneCapability;
+import uk.ac.ed.acp.cw2.dto.DroneInfo;
+import uk.ac.ed.acp.cw2.dto.QueryAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FleetIndex Tests")
+class FleetIndexTest {
+
+    private static final String[] NUMERIC = {"capacity", "maxMoves", "costPerMove", "costInitial", "costFinal"};
+    private static final String[] OPERATORS = {"=", "!=", "<", ">"};
+
+    private static List<DroneInfo> randomFleet(Random random, int size) {
+        List<DroneInfo> drones = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            // Coarse values so that equality and ties actually occur
+            drones.add(new DroneInfo("Drone " + i, 1000 + i, new DroneCapability(
+                    random.nextBoolean(),
+                    random.nextBoolean(),
+                    random.nextInt(10) * 2.0,
+                    500 + random.nextInt(8) * 500,
+                    random.nextInt(6) * 0.01,
+                    random.nextInt(10) * 0.5,
+                    random.nextInt(10) * 0.5)));
+        }
+        return drones;
+    }
+
+    private static int[] linearScan(List<DroneInfo> drones, CompiledDroneQuery query) {
+        return drones.stream()
+                .filter(d -> query.test(d.capability()))
+                .mapToInt(DroneInfo::id)
+                .toArray();
+    }
+
+    @Test
+    @DisplayName("Index selection matches a linear scan for random queries")
+    void select_matchesLinearScan() {
+        Random random = new Random(42);
+        List<DroneInfo> fleet = randomFleet(random, 500);
+        FleetIndex index = FleetIndex.build(fleet);
+
+        for (int i = 0; i < 300; i++) {
+            List<QueryAttributes> reqs = new ArrayList<>();
+            int criteria = 1 + random.nextInt(3);
+            for (int c = 0; c < criteria; c++) {
+                if (random.nextInt(4) == 0) {
+                    reqs.add(new QueryAttributes(random.nextBoolean() ? "cooling" : "heating",
+                            random.nextBoolean() ? "=" : "!=", String.valueOf(random.nextBoolean())));
+                } else {
+                    // Reuse a real fleet value half of the time to exercise equality
+                    String attribute = NUMERIC[random.nextInt(NUMERIC.length)];
+                    double value = random.nextBoolean()
+                            ? Attribute.values()[2 + List.of(NUMERIC).indexOf(attribute)]
+                                    .numericValue(fleet.get(random.nextInt(fleet.size())).capability())
+                            : random.nextDouble() * 20;
+                    reqs.add(new QueryAttributes(attribute,
+                            OPERATORS[random.nextInt(OPERATORS.length)], String.valueOf(value)));
+                }
+            }
+
+            CompiledDroneQuery query = CompiledDroneQuery.compile(reqs);
+            assertArrayEquals(linearScan(fleet, query), index.ids(index.select(query)),
+                    "Mismatch for " + reqs);
+        }
+    }
+
+    @Test
+    @DisplayName("Drones without capability never match")
+    void missingCapability_neverMatches() {
+        List<DroneInfo> fleet = List.of(
+                new DroneInfo("Broken", 1, null),
+                new DroneInfo("Working", 2, new DroneCapability(false, false, 5, 1000, 0.02, 1, 1)));
+        FleetIndex index = FleetIndex.build(fleet);
+
+        CompiledDroneQuery query = CompiledDroneQuery.compile(
+                List.of(new QueryAttributes("cooling", "=", "false")));
+
+        assertArrayEquals(new int[]{2}, index.ids(index.select(query)));
+    }
+
+    @Test
+    @DisplayName("Sorted permutation keeps fleet order for ties")
+    void sortedPositions_stableForTies() {
+        List<DroneInfo> fleet = List.of(
+                new DroneInfo("A", 1, new DroneCapability(false, false, 8, 1000, 0.02, 1, 1)),
+                new DroneInfo("B", 2, new DroneCapability(false, false, 4, 1000, 0.02, 1, 1)),
+                new DroneInfo("C", 3, new DroneCapability(false, false, 8, 1000, 0.02, 1, 1)));
+
+        assertArrayEquals(new int[]{1, 0, 2}, FleetIndex.build(fleet).sortedPositions(Attribute.CAPACITY));
+    }
+}
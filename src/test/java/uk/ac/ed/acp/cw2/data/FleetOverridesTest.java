@@ -0,0 +1,81 @@
+package uk.ac.ed.acp.cw2.data;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.ac.ed.acp.cw2.data.FleetOverrides.CapabilityPatch;
+import uk.ac.ed.acp.cw2.dto.*;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FleetOverrides")
+class FleetOverridesTest {
+
+    private final DroneInfo drone1 = new DroneInfo("Drone 1", 1,
+            new DroneCapability(true, true, 4.0, 2000, 0.01, 4.3, 6.5));
+    private final DroneInfo drone2 = new DroneInfo("Drone 2", 2,
+            new DroneCapability(false, true, 8.0, 1000, 0.03, 2.6, 5.4));
+
+    private final List<DroneAvailability> weekdays = List.of(
+            new DroneAvailability("MONDAY", LocalTime.of(9, 0), LocalTime.of(17, 0)));
+    private final List<DroneAvailability> weekend = List.of(
+            new DroneAvailability("SATURDAY", LocalTime.of(10, 0), LocalTime.of(14, 0)));
+
+    private final List<DronesForServicePoints> listings = List.of(
+            new DronesForServicePoints(1, List.of(new ListDrones(1, weekdays), new ListDrones(2, weekdays))));
+
+    @Test
+    @DisplayName("Updates are copy-on-write and bump the version")
+    void updates_copyOnWrite() {
+        FleetOverrides before = FleetOverrides.EMPTY;
+        FleetOverrides after = before.withMaintenance(1, true, "Inspection");
+
+        assertFalse(before.inMaintenance(1));
+        assertTrue(after.inMaintenance(1));
+        assertEquals("Inspection", after.maintenanceReason(1));
+        assertEquals(before.version() + 1, after.version());
+        assertFalse(after.withMaintenance(1, false, null).inMaintenance(1));
+    }
+
+    @Test
+    @DisplayName("Capability patches only replace supplied fields")
+    void capabilityPatch_partial() {
+        FleetOverrides overrides = FleetOverrides.EMPTY
+                .withCapability(1, new CapabilityPatch(null, false, 10.0, null, null, null, null))
+                .withCapability(1, new CapabilityPatch(null, null, null, null, 0.02, null, null));
+
+        List<DroneInfo> drones = overrides.applyToDrones(List.of(drone1, drone2));
+
+        assertEquals(new DroneCapability(true, false, 10.0, 2000, 0.02, 4.3, 6.5), drones.get(0).capability());
+        assertSame(drone2, drones.get(1));
+    }
+
+    @Test
+    @DisplayName("Untouched datasets keep their identity")
+    void untouchedDatasets_sameList() {
+        List<DroneInfo> drones = List.of(drone1, drone2);
+        FleetOverrides maintenanceOnly = FleetOverrides.EMPTY.withMaintenance(2, true, null);
+        FleetOverrides capabilityOnly = FleetOverrides.EMPTY
+                .withCapability(1, new CapabilityPatch(null, null, 5.0, null, null, null, null));
+
+        assertSame(drones, maintenanceOnly.applyToDrones(drones));
+        assertSame(listings, capabilityOnly.applyToAvailability(listings));
+    }
+
+    @Test
+    @DisplayName("Schedules replace or add listings and maintenance empties them")
+    void availability_schedulesAndMaintenance() {
+        FleetOverrides overrides = FleetOverrides.EMPTY
+                .withSchedule(1, 1, weekend)
+                .withSchedule(2, 2, weekend)
+                .withMaintenance(2, true, "Battery swap");
+
+        List<DronesForServicePoints> result = overrides.applyToAvailability(listings);
+
+        assertEquals(List.of(
+                new DronesForServicePoints(1, List.of(new ListDrones(1, weekend), new ListDrones(2, List.of()))),
+                new DronesForServicePoints(2, List.of(new ListDrones(2, List.of())))), result);
+    }
+}
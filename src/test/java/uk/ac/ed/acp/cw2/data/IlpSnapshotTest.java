@@ -0,0 +1,92 @@
+package uk.ac.ed.acp.cw2.data;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.ed.acp.cw2.dto.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IlpSnapshot Tests")
+class IlpSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private IlpSnapshot sampleSnapshot() {
+        return new IlpSnapshot(
+                1_700_000_000_000L,
+                List.of(
+                        new DroneInfo("Drone 1", 1,
+                                new DroneCapability(true, false, 4.0, 2000, 0.01, 4.3, 6.5)),
+                        new DroneInfo("Drone 2", 2,
+                                new DroneCapability(false, true, 8.0, 1000, 0.03, 2.6, 5.4))
+                ),
+                List.of(new ServicePoints("Appleton Tower", 1, new LngLat(-3.186874, 55.944494))),
+                List.of(new DronesForServicePoints(1, List.of(
+                        new ListDrones(1, List.of(
+                                new DroneAvailability("MONDAY", LocalTime.of(0, 0), LocalTime.of(23, 59, 59))
+                        )),
+                        new ListDrones(2, List.of())
+                ))),
+                List.of(new RestrictedAreas("George Square Area", 1, new Limits(0, -1), List.of(
+                        new LngLat(-3.190578, 55.944494),
+                        new LngLat(-3.187836, 55.944494),
+                        new LngLat(-3.187836, 55.942617),
+                        new LngLat(-3.190578, 55.944494)
+                )))
+        );
+    }
+
+    @Test
+    @DisplayName("Round trip preserves every dataset")
+    void writeThenRead_roundTrips() throws IOException {
+        IlpSnapshot original = sampleSnapshot();
+        Path file = tempDir.resolve("snapshot.bin");
+
+        original.writeTo(file);
+        IlpSnapshot loaded = IlpSnapshot.readFrom(file);
+
+        assertEquals(original, loaded);
+    }
+
+    @Test
+    @DisplayName("Overwriting an existing snapshot replaces it")
+    void writeTwice_replacesFile() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        sampleSnapshot().writeTo(file);
+
+        IlpSnapshot empty = new IlpSnapshot(1L, List.of(), List.of(), List.of(), List.of());
+        empty.writeTo(file);
+
+        assertEquals(empty, IlpSnapshot.readFrom(file));
+    }
+
+    @Test
+    @DisplayName("Corrupted file is rejected")
+    void corruptedFile_throws() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        sampleSnapshot().writeTo(file);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> IlpSnapshot.readFrom(file));
+    }
+
+    @Test
+    @DisplayName("Truncated file is rejected")
+    void truncatedFile_throws() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        Files.write(file, new byte[]{1, 2, 3});
+
+        assertThrows(IOException.class, () -> IlpSnapshot.readFrom(file));
+    }
+}
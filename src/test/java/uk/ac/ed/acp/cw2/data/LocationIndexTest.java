@@ -0,0 +1,70 @@
+package uk.ac.ed.acp.cw2.data;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.ac.ed.acp.cw2.dto.LngLat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LocationIndex Tests")
+class LocationIndexTest {
+
+    private static double distance(LngLat a, LngLat b) {
+        return Math.hypot(a.lng() - b.lng(), a.lat() - b.lat());
+    }
+
+    @Test
+    @DisplayName("Radius and nearest queries match a linear scan")
+    void queries_matchLinearScan() {
+        Random random = new Random(5);
+
+        for (int round = 0; round < 50; round++) {
+            // A coarse grid so that duplicate points and distance ties occur
+            List<LngLat> points = new ArrayList<>();
+            int n = random.nextInt(300);
+            for (int i = 0; i < n; i++) {
+                points.add(new LngLat(-3.2 + random.nextInt(50) * 0.002, 55.9 + random.nextInt(50) * 0.002));
+            }
+            LocationIndex<LngLat> index = LocationIndex.build(points, p -> p);
+
+            for (int q = 0; q < 30; q++) {
+                LngLat centre = new LngLat(-3.2 + random.nextDouble() * 0.1, 55.9 + random.nextDouble() * 0.1);
+                double radius = random.nextDouble() * 0.03;
+                int k = 1 + random.nextInt(10);
+
+                List<LngLat> inRadius = points.stream()
+                        .filter(p -> distance(p, centre) <= radius)
+                        .collect(Collectors.toList());
+                assertEquals(inRadius, index.withinRadius(centre, radius));
+
+                List<LngLat> nearest = IntStream.range(0, n).boxed()
+                        .sorted(Comparator.comparingDouble((Integer i) -> distance(points.get(i), centre))
+                                .thenComparing(i -> i))
+                        .limit(k)
+                        .map(points::get)
+                        .collect(Collectors.toList());
+                assertEquals(nearest, index.nearest(centre, k));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("firstAt returns the first item at an exact location")
+    void firstAt_firstInSourceOrder() {
+        record Site(String name, LngLat location) {}
+        LngLat shared = new LngLat(-3.186874, 55.944494);
+        List<Site> sites = List.of(new Site("A", shared), new Site("B", shared), new Site("C", null));
+
+        LocationIndex<Site> index = LocationIndex.build(sites, Site::location);
+
+        assertEquals("A", index.firstAt(new LngLat(-3.186874, 55.944494)).name());
+        assertEquals(2, index.size(), "Items without a location are not indexed");
+    }
+}
@@ -0,0 +1,142 @@
+package uk.ac.ed.acp.cw2.graphql;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CachingDocumentProvider Tests")
+class CachingDocumentProviderTest {
+
+    private static final String QUERY = "{ drones { id name } }";
+
+    private SimpleMeterRegistry meterRegistry;
+    private CachingDocumentProvider provider;
+    private AtomicInteger parses;
+    private Function<ExecutionInput, PreparsedDocumentEntry> parser;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        provider = new CachingDocumentProvider(10, 10, true, meterRegistry);
+        parses = new AtomicInteger();
+        parser = input -> {
+            parses.incrementAndGet();
+            return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+        };
+    }
+
+    private static ExecutionInput persisted(String query, String hash) {
+        return ExecutionInput.newExecutionInput()
+                .query(query)
+                .extensions(Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)))
+                .build();
+    }
+
+    private PreparsedDocumentEntry resolve(ExecutionInput input) {
+        return provider.getDocumentAsync(input, parser).join();
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.get(name).tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("Repeated documents are parsed once")
+    void repeatedDocument_parsedOnce() {
+        PreparsedDocumentEntry first = resolve(ExecutionInput.newExecutionInput().query(QUERY).build());
+        PreparsedDocumentEntry second = resolve(ExecutionInput.newExecutionInput().query(QUERY).build());
+
+        assertSame(first, second);
+        assertEquals(1, parses.get());
+        assertEquals(1, count("graphql.document.cache", "hit"));
+        assertEquals(1, count("graphql.document.cache", "miss"));
+    }
+
+    @Nested
+    @DisplayName("Persisted queries")
+    class PersistedQueryTests {
+
+        @Test
+        @DisplayName("Unknown hash without a query is reported as not found")
+        void unknownHash_notFound() {
+            PreparsedDocumentEntry entry = resolve(persisted("", CachingDocumentProvider.sha256(QUERY)));
+
+            assertTrue(entry.hasErrors());
+            assertEquals(CachingDocumentProvider.PERSISTED_QUERY_NOT_FOUND, entry.getErrors().get(0).getMessage());
+            assertEquals(0, parses.get());
+        }
+
+        @Test
+        @DisplayName("Query with its hash registers it for hash-only requests")
+        void register_thenHashOnly() {
+            String hash = CachingDocumentProvider.sha256(QUERY);
+            resolve(persisted(QUERY, hash));
+
+            PreparsedDocumentEntry entry = resolve(persisted("", hash));
+
+            assertFalse(entry.hasErrors());
+            assertEquals(1, parses.get());
+            assertEquals(1, count("graphql.persisted.queries", "registered"));
+            assertEquals(1, count("graphql.persisted.queries", "hit"));
+        }
+
+        @Test
+        @DisplayName("Preregistered query is served by hash alone")
+        void preregistered_hashOnly() {
+            String hash = provider.register(QUERY);
+
+            PreparsedDocumentEntry entry = resolve(persisted("", hash));
+
+            assertFalse(entry.hasErrors());
+            assertEquals(1, parses.get());
+        }
+
+        @Test
+        @DisplayName("Client registrations do not evict queries registered at startup")
+        void clientRegistrations_keepStartupQueries() {
+            CachingDocumentProvider small = new CachingDocumentProvider(10, 1, true, meterRegistry);
+            String hash = small.register(QUERY);
+            for (String other : new String[]{"{ drone(id: 1) { id } }", "{ drone(id: 2) { id } }"}) {
+                small.getDocumentAsync(persisted(other, CachingDocumentProvider.sha256(other)), parser).join();
+            }
+
+            PreparsedDocumentEntry entry = small.getDocumentAsync(persisted("", hash), parser).join();
+
+            assertFalse(entry.hasErrors());
+        }
+
+        @Test
+        @DisplayName("A placeholder query is ignored only when the request is marked hash-only")
+        void hashOnlyMark_ignoresPlaceholder() {
+            String hash = provider.register(QUERY);
+            String placeholder = "{ __typename }";
+
+            PreparsedDocumentEntry unmarked = resolve(persisted(placeholder, hash));
+            PreparsedDocumentEntry marked = resolve(persisted(placeholder, hash).transform(builder ->
+                    builder.graphQLContext(Map.of(CachingDocumentProvider.HASH_ONLY, true))));
+
+            assertEquals(CachingDocumentProvider.PERSISTED_QUERY_ID_INVALID, unmarked.getErrors().get(0).getMessage());
+            assertFalse(marked.hasErrors());
+        }
+
+        @Test
+        @DisplayName("Hash that does not match the query is rejected")
+        void mismatchedHash_rejected() {
+            PreparsedDocumentEntry entry = resolve(persisted(QUERY, CachingDocumentProvider.sha256("{ drone(id: 1) { id } }")));
+
+            assertTrue(entry.hasErrors());
+            assertEquals(CachingDocumentProvider.PERSISTED_QUERY_ID_INVALID, entry.getErrors().get(0).getMessage());
+        }
+    }
+}
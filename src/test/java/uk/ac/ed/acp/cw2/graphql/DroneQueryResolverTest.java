@@ -0,0 +1,230 @@
+package uk.ac.ed.acp.cw2.graphql;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.graphql.execution.DefaultBatchLoaderRegistry;
+import uk.ac.ed.acp.cw2.data.FleetIndex;
+import uk.ac.ed.acp.cw2.data.LocationIndex;
+import uk.ac.ed.acp.cw2.dto.*;
+import uk.ac.ed.acp.cw2.graphql.DroneQueryResolver.AvailableDronesKey;
+import uk.ac.ed.acp.cw2.graphql.model.CapabilityFilter;
+import uk.ac.ed.acp.cw2.graphql.model.CostFilter;
+import uk.ac.ed.acp.cw2.graphql.model.DroneFilters;
+import uk.ac.ed.acp.cw2.graphql.model.Location;
+import uk.ac.ed.acp.cw2.graphql.model.OrderBy;
+import uk.ac.ed.acp.cw2.services.DroneQueryService;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DroneQueryResolver Tests")
+class DroneQueryResolverTest {
+
+    @Mock
+    private DroneQueryService droneQueryService;
+
+    private DroneQueryResolver resolver;
+
+    private final LngLat appleton = new LngLat(-3.186874, 55.944494);
+    private final LngLat ocean = new LngLat(-3.177, 55.981);
+
+    private final DroneInfo drone1 = new DroneInfo("Drone 1", 1,
+            new DroneCapability(true, true, 4.0, 2000, 0.01, 4.3, 6.5));
+    private final DroneInfo drone2 = new DroneInfo("Drone 2", 2,
+            new DroneCapability(false, true, 8.0, 1000, 0.03, 2.6, 5.4));
+    private final DroneInfo drone3 = new DroneInfo("Drone 3", 3,
+            new DroneCapability(false, false, 20.0, 4000, 0.05, 9.5, 11.5));
+
+    @BeforeEach
+    void setUp() {
+        resolver = new DroneQueryResolver(droneQueryService, new DefaultBatchLoaderRegistry());
+    }
+
+    @Nested
+    @DisplayName("Drone field batching")
+    class DroneFieldTests {
+
+        @Test
+        @DisplayName("currentServicePoint resolves the whole list with one origin lookup")
+        void currentServicePoint_singleOriginLookup() {
+            ServicePoints sp1 = new ServicePoints("Appleton Tower", 1, appleton);
+            ServicePoints sp2 = new ServicePoints("Ocean Terminal", 2, ocean);
+            when(droneQueryService.fetchDroneOriginLocations()).thenReturn(Map.of(1, appleton, 2, ocean));
+            when(droneQueryService.servicePointIndex())
+                    .thenReturn(LocationIndex.build(List.of(sp1, sp2), ServicePoints::location));
+
+            Map<DroneInfo, ServicePoints> result = resolver.currentServicePoint(List.of(drone1, drone2, drone3));
+
+            assertEquals(sp1, result.get(drone1));
+            assertEquals(sp2, result.get(drone2));
+            assertNull(result.get(drone3), "Drone without an origin has no service point");
+            verify(droneQueryService, times(1)).fetchDroneOriginLocations();
+            verify(droneQueryService, never()).fetchDroneOrigin(anyInt());
+        }
+
+        @Test
+        @DisplayName("availability uses the first listing and defaults to empty")
+        void availability_firstListing() {
+            List<DroneAvailability> monday = List.of(
+                    new DroneAvailability("MONDAY", LocalTime.of(9, 0), LocalTime.of(17, 0)));
+            List<DroneAvailability> tuesday = List.of(
+                    new DroneAvailability("TUESDAY", LocalTime.of(9, 0), LocalTime.of(17, 0)));
+            when(droneQueryService.fetchDroneAvailability()).thenReturn(List.of(
+                    new DronesForServicePoints(1, List.of(new ListDrones(1, monday))),
+                    new DronesForServicePoints(2, List.of(new ListDrones(1, tuesday), new ListDrones(2, tuesday)))));
+
+            Map<DroneInfo, List<DroneAvailability>> result = resolver.availability(List.of(drone1, drone2, drone3));
+
+            assertEquals(monday, result.get(drone1));
+            assertEquals(tuesday, result.get(drone2));
+            assertEquals(List.of(), result.get(drone3));
+            verify(droneQueryService, times(1)).fetchDroneAvailability();
+        }
+    }
+
+    @Nested
+    @DisplayName("ServicePoint.availableDrones batching")
+    class AvailableDronesTests {
+
+        @Test
+        @DisplayName("All keys are resolved from one fetch, in fleet order")
+        void loadAvailableDrones_singlePass() {
+            String today = LocalDate.now().getDayOfWeek().name();
+            List<DroneAvailability> allDay = List.of(
+                    new DroneAvailability(today, LocalTime.MIN, LocalTime.MAX));
+            List<DroneAvailability> mornings = List.of(
+                    new DroneAvailability(today, LocalTime.of(6, 0), LocalTime.of(12, 0)));
+
+            when(droneQueryService.fetchDrones()).thenReturn(List.of(drone1, drone2, drone3));
+            when(droneQueryService.fetchDroneAvailability()).thenReturn(List.of(
+                    new DronesForServicePoints(1, List.of(new ListDrones(3, allDay), new ListDrones(1, mornings))),
+                    new DronesForServicePoints(2, List.of(new ListDrones(2, allDay)))));
+
+            AvailableDronesKey spOneMorning = new AvailableDronesKey(1, "09:00");
+            AvailableDronesKey spOneEvening = new AvailableDronesKey(1, "20:00");
+            AvailableDronesKey spTwo = new AvailableDronesKey(2, "09:00");
+            AvailableDronesKey unknown = new AvailableDronesKey(9, "09:00");
+
+            Map<AvailableDronesKey, List<DroneInfo>> result = resolver.loadAvailableDrones(
+                    List.of(spOneMorning, spOneEvening, spTwo, unknown));
+
+            assertEquals(List.of(drone1, drone3), result.get(spOneMorning));
+            assertEquals(List.of(drone3), result.get(spOneEvening));
+            assertEquals(List.of(drone2), result.get(spTwo));
+            assertEquals(List.of(), result.get(unknown));
+            verify(droneQueryService, times(1)).fetchDroneAvailability();
+            verify(droneQueryService, times(1)).fetchDrones();
+        }
+    }
+
+    @Nested
+    @DisplayName("drones query pushdown")
+    class DronesQueryTests {
+
+        private OrderBy orderBy(String field, String direction) {
+            OrderBy orderBy = new OrderBy();
+            orderBy.setField(field);
+            orderBy.setDirection(direction);
+            return orderBy;
+        }
+
+        private DroneFilters cooling(boolean cooling) {
+            CapabilityFilter capability = new CapabilityFilter();
+            capability.setCooling(cooling);
+            DroneFilters filters = new DroneFilters();
+            filters.setCapability(capability);
+            return filters;
+        }
+
+        @Test
+        @DisplayName("Cheapest cooling drones come from the presorted column")
+        void cheapestCooling_topK() {
+            DroneInfo drone4 = new DroneInfo("Drone 4", 4,
+                    new DroneCapability(true, false, 6.0, 1500, 0.005, 1.0, 1.0));
+            when(droneQueryService.fleetIndex())
+                    .thenReturn(FleetIndex.build(List.of(drone1, drone2, drone3, drone4)));
+
+            List<DroneInfo> result = resolver.drones(cooling(true), orderBy("COST_PER_MOVE", "ASC"), 1);
+
+            assertEquals(List.of(drone4), result);
+            verify(droneQueryService, never()).fetchDroneAvailability();
+        }
+
+        @Test
+        @DisplayName("Descending order keeps fleet order for ties")
+        void descending_tiesInFleetOrder() {
+            DroneInfo drone4 = new DroneInfo("Drone 4", 4,
+                    new DroneCapability(false, true, 8.0, 1000, 0.02, 1.0, 1.0));
+            when(droneQueryService.fleetIndex())
+                    .thenReturn(FleetIndex.build(List.of(drone1, drone2, drone3, drone4)));
+
+            List<DroneInfo> result = resolver.drones(null, orderBy("CAPACITY", "DESC"), null);
+
+            assertEquals(List.of(drone3, drone2, drone4, drone1), result);
+        }
+
+        @Test
+        @DisplayName("Capacity and cost bounds are inclusive")
+        void rangeFilters_inclusive() {
+            when(droneQueryService.fleetIndex()).thenReturn(FleetIndex.build(List.of(drone1, drone2, drone3)));
+
+            CapabilityFilter capability = new CapabilityFilter();
+            capability.setMinCapacity(4.0);
+            capability.setMaxCapacity(8.0);
+            CostFilter cost = new CostFilter();
+            cost.setMaxCostPerMove(0.03);
+            DroneFilters filters = new DroneFilters();
+            filters.setCapability(capability);
+            filters.setCost(cost);
+
+            assertEquals(List.of(drone1, drone2), resolver.drones(filters, null, null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Service point spatial queries")
+    class ServicePointQueryTests {
+
+        private final ServicePoints sp1 = new ServicePoints("Appleton Tower", 1, appleton);
+        private final ServicePoints sp2 = new ServicePoints("Ocean Terminal", 2, ocean);
+
+        private Location location(LngLat point, Double radius) {
+            Location location = new Location();
+            location.setLng(point.lng());
+            location.setLat(point.lat());
+            location.setRadiusDegrees(radius);
+            return location;
+        }
+
+        @BeforeEach
+        void stubIndex() {
+            when(droneQueryService.servicePointIndex())
+                    .thenReturn(LocationIndex.build(List.of(sp1, sp2), ServicePoints::location));
+        }
+
+        @Test
+        @DisplayName("servicePoints(near) keeps points within the radius")
+        void servicePointsNear_radius() {
+            assertEquals(List.of(sp1), resolver.servicePoints(location(appleton, 0.01)));
+            assertEquals(List.of(sp1, sp2), resolver.servicePoints(location(appleton, 1.0)));
+        }
+
+        @Test
+        @DisplayName("nearestServicePoints orders by distance")
+        void nearestServicePoints_nearestFirst() {
+            assertEquals(List.of(sp2, sp1), resolver.nearestServicePoints(location(ocean, null), 5));
+            assertEquals(List.of(sp2), resolver.nearestServicePoints(location(ocean, 0.01), 5));
+        }
+    }
+}
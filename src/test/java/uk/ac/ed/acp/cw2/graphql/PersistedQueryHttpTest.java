@@ -0,0 +1,106 @@
+package uk.ac.ed.acp.cw2.graphql;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@DisplayName("Persisted queries over HTTP")
+class PersistedQueryHttpTest {
+
+    // Needs no resolver, so nothing is fetched from the ILP service
+    private static final String QUERY = "{ __typename }";
+
+    @Autowired MockMvc mvc;
+
+    @Test
+    @DisplayName("A query registered with its hash can then be sent as the hash alone")
+    void registerThenHashOnly() throws Exception {
+        String hash = CachingDocumentProvider.sha256(QUERY);
+
+        graphql("""
+                {"query": "%s", "extensions": {"persistedQuery": {"version": 1, "sha256Hash": "%s"}}}
+                """.formatted(QUERY, hash))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.__typename").value("Query"));
+
+        graphql("""
+                {"extensions": {"persistedQuery": {"version": 1, "sha256Hash": "%s"}}}
+                """.formatted(hash))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.__typename").value("Query"));
+    }
+
+    @Test
+    @DisplayName("An unknown hash asks the client to send the query")
+    void unknownHash_notFound() throws Exception {
+        String hash = CachingDocumentProvider.sha256("{ __typename __schema { queryType { name } } }");
+
+        graphql("""
+                {"extensions": {"persistedQuery": {"version": 1, "sha256Hash": "%s"}}}
+                """.formatted(hash))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].message").value(CachingDocumentProvider.PERSISTED_QUERY_NOT_FOUND))
+                .andExpect(jsonPath("$.errors[0].extensions.persistedQueryId").value(hash));
+    }
+
+    @Test
+    @DisplayName("A hash-only request is recognised under a servlet context path")
+    void hashOnly_withContextPath() throws Exception {
+        String hash = CachingDocumentProvider.sha256(QUERY);
+        graphql("""
+                {"query": "%s", "extensions": {"persistedQuery": {"version": 1, "sha256Hash": "%s"}}}
+                """.formatted(QUERY, hash));
+
+        perform(post("/app/graphql").contextPath("/app"), """
+                {"extensions": {"persistedQuery": {"version": 1, "sha256Hash": "%s"}}}
+                """.formatted(hash))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.__typename").value("Query"));
+    }
+
+    @Test
+    @DisplayName("A query sent with a hash is checked against it, whatever its text")
+    void queryWithHash_notTreatedAsHashOnly() throws Exception {
+        String hash = CachingDocumentProvider.sha256(QUERY);
+        graphql("""
+                {"query": "%s", "extensions": {"persistedQuery": {"version": 1, "sha256Hash": "%s"}}}
+                """.formatted(QUERY, hash));
+
+        graphql("""
+                {"query": "# persisted query", "extensions": {"persistedQuery": {"version": 1, "sha256Hash": "%s"}}}
+                """.formatted(hash))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].message").value(CachingDocumentProvider.PERSISTED_QUERY_ID_INVALID));
+    }
+
+    // The GraphQL handler usually answers asynchronously
+    private ResultActions graphql(String body) throws Exception {
+        return perform(post("/graphql"), body);
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request, String body) throws Exception {
+        ResultActions actions = mvc.perform(request
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body));
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mvc.perform(asyncDispatch(result)) : actions;
+    }
+}
@@ -0,0 +1,89 @@
+package uk.ac.ed.acp.cw2.graphql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PersistedQueryRequestFilter Tests")
+class PersistedQueryRequestFilterTest {
+
+    private static final String HASH_ONLY_BODY =
+            "{\"extensions\": {\"persistedQuery\": {\"version\": 1, \"sha256Hash\": \"abc\"}}}";
+
+    private final PersistedQueryRequestFilter filter =
+            new PersistedQueryRequestFilter(new ObjectMapper(), "/graphql");
+
+    private ServletRequest filter(String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/graphql");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain.getRequest();
+    }
+
+    @Test
+    @DisplayName("A hash-only body gets a query and the hash-only attribute")
+    void hashOnly_marked() throws Exception {
+        ServletRequest request = filter(HASH_ONLY_BODY);
+
+        assertEquals(Boolean.TRUE, request.getAttribute(PersistedQueryRequestFilter.HASH_ONLY_ATTRIBUTE));
+        String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"query\""));
+    }
+
+    @Test
+    @DisplayName("Bodies with a query, or without persistedQuery, pass through unchanged")
+    void otherBodies_unchanged() throws Exception {
+        String plain = "{\"query\": \"{ drones { id } }\"}";
+        String withQuery = "{\"query\": \"{ drones { id } }\", "
+                + "\"extensions\": {\"persistedQuery\": {\"version\": 1, \"sha256Hash\": \"abc\"}}}";
+
+        for (String body : List.of(plain, withQuery)) {
+            ServletRequest request = filter(body);
+
+            assertNull(request.getAttribute(PersistedQueryRequestFilter.HASH_ONLY_ATTRIBUTE));
+            assertEquals(body, new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("A read listener is told the buffered body is all available")
+    void readListener_notifiedImmediately() throws Exception {
+        ServletInputStream in = filter(HASH_ONLY_BODY).getInputStream();
+        List<String> events = new ArrayList<>();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data:" + in.readAllBytes().length);
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).startsWith("data:") && !events.get(0).equals("data:0"));
+        assertEquals("done", events.get(1));
+    }
+}
@@ -0,0 +1,100 @@
+package uk.ac.ed.acp.cw2.graphql;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.GraphQLError;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GraphQL query limits Tests")
+class QueryCostCalculatorTest {
+
+    private static GraphQLSchema schema;
+
+    @BeforeAll
+    static void loadSchema() throws IOException {
+        try (InputStream in = QueryCostCalculatorTest.class.getResourceAsStream("/graphql/schema.graphqls")) {
+            assertNotNull(in, "schema.graphqls should be on the classpath");
+            String sdl = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(new SchemaParser().parse(sdl));
+        }
+    }
+
+    private static boolean rejected(String query, int maxDepth, int maxComplexity) {
+        GraphQL graphQL = GraphQL.newGraphQL(schema)
+                .instrumentation(new ChainedInstrumentation(List.of(
+                        new MaxQueryDepthInstrumentation(maxDepth),
+                        new MaxQueryComplexityInstrumentation(maxComplexity, new QueryCostCalculator(20, maxComplexity)))))
+                .build();
+
+        ExecutionResult result = graphQL.execute(query);
+        return result.getErrors().stream()
+                .map(GraphQLError::getMessage)
+                .anyMatch(m -> m.startsWith("maximum query"));
+    }
+
+    @Test
+    @DisplayName("Typical dashboard query is admitted")
+    void flatQuery_admitted() {
+        assertFalse(rejected("{ drones { id name capability { capacity } currentServicePoint { name } } }", 8, 5000));
+    }
+
+    @Test
+    @DisplayName("Nested availableDrones fan-out is rejected on cost")
+    void nestedFanOut_rejected() {
+        String query = "{ servicePoints { availableDrones { currentServicePoint { availableDrones { id } } } } }";
+
+        assertTrue(rejected(query, 8, 5000));
+    }
+
+    @Test
+    @DisplayName("limit argument lowers the list multiplier")
+    void limit_reducesCost() {
+        String unlimited = "{ drones { id name availability { dayOfWeek } } }";
+        String limited = "{ drones(limit: 2) { id name availability { dayOfWeek } } }";
+
+        // unlimited: 5 + 20 * (1 + 1 + (2 + 20 * 1)) = 485; limited: 5 + 2 * 24 = 53
+        assertTrue(rejected(unlimited, 8, 100));
+        assertFalse(rejected(limited, 8, 100));
+    }
+
+    @Test
+    @DisplayName("Queries deeper than the limit are rejected")
+    void deepQuery_rejected() {
+        String query = "{ drones { currentServicePoint { availableDrones { currentServicePoint { location { lng } } } } } }";
+
+        assertTrue(rejected(query, 4, Integer.MAX_VALUE));
+        assertFalse(rejected(query, 8, Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("A limit near Integer.MAX_VALUE saturates instead of overflowing")
+    void hugeLimit_rejected() {
+        // 5 + 2147483000 * 2 wraps to a negative cost without saturation
+        assertTrue(rejected("{ drones(limit: 2147483000) { id name } }", 8, 5000));
+        assertTrue(rejected("{ drones(limit: 2147483647) { id name } }", 8, Integer.MAX_VALUE - 1));
+    }
+
+    @Test
+    @DisplayName("Saturated sibling fields do not wrap when graphql-java adds them up")
+    void saturatedSiblings_rejected() {
+        String query = "{ a: drones(limit: 2147483647) { id } b: drones(limit: 2147483647) { id } "
+                + "c: drones(limit: 2147483647) { id } }";
+
+        assertTrue(rejected(query, 8, 5000));
+    }
+}
@@ -0,0 +1,84 @@
+package uk.ac.ed.acp.cw2.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import uk.ac.ed.acp.cw2.dto.LngLat;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JfrRecordingEndpoint")
+class JfrRecordingEndpointTest {
+
+    private final JfrRecordingEndpoint endpoint = new JfrRecordingEndpoint();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        endpoint.shutdown();
+    }
+
+    @Test
+    @DisplayName("Recorded legs can be downloaded after stopping")
+    void startStopDownload() throws Exception {
+        Map<String, Object> started = endpoint.start("default", 60, 16, 0);
+        assertEquals("RUNNING", started.get("state"));
+        long id = (long) started.get("id");
+
+        PathfindingLegEvent event = new PathfindingLegEvent();
+        event.begin();
+        event.set(new LngLat(-3.186874, 55.944494), new LngLat(-3.187, 55.944), "found", 42, 17, 300);
+        event.commit();
+
+        assertEquals("STOPPED", endpoint.stop().get("state"));
+
+        WebEndpointResponse<Resource> response = endpoint.download(id);
+        assertEquals(WebEndpointResponse.STATUS_OK, response.getStatus());
+
+        List<RecordedEvent> legs = RecordingFile.readAllEvents(response.getBody().getFile().toPath()).stream()
+                .filter(e -> e.getEventType().getName().equals("uk.ac.ed.acp.cw2.PathfindingLeg"))
+                .toList();
+        assertEquals(1, legs.size());
+        assertEquals("found", legs.get(0).getString("outcome"));
+        assertEquals(42, legs.get(0).getInt("iterations"));
+    }
+
+    @Test
+    @DisplayName("Each download has its own dump, deleted once streamed")
+    void downloads_separateDumps() throws Exception {
+        long id = (long) endpoint.start("default", 60, 16, null).get("id");
+
+        Resource first = endpoint.download(id).getBody();
+        Resource second = endpoint.download(id).getBody();
+        Path firstFile = first.getFile().toPath();
+        assertNotEquals(firstFile, second.getFile().toPath());
+
+        try (InputStream in = first.getInputStream()) {
+            assertTrue(in.readAllBytes().length > 0);
+        }
+        assertFalse(Files.exists(firstFile));
+        assertTrue(Files.exists(second.getFile().toPath()));
+    }
+
+    @Test
+    @DisplayName("Limits are capped and bad arguments rejected")
+    void limitsCappedAndValidated() {
+        Map<String, Object> started = endpoint.start(null, 24 * 3600, 100_000, null);
+        assertEquals(JfrRecordingEndpoint.MAX_DURATION, started.get("duration"));
+        assertEquals(JfrRecordingEndpoint.MAX_SIZE_BYTES, started.get("maxSizeBytes"));
+
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.start("nope", null, null, null));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.start(null, 0, null, null));
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.download(-1).getStatus());
+    }
+}
@@ -0,0 +1,160 @@
+package uk.ac.ed.acp.cw2.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.ac.ed.acp.cw2.dto.*;
+import uk.ac.ed.acp.cw2.services.DeliveryPlanCache.CachedPlan;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeliveryPlanCache")
+class DeliveryPlanCacheTest {
+
+    @Mock
+    private IlpSnapshotService snapshotService;
+
+    private final MedDispatchRec order1 = new MedDispatchRec(1, LocalDate.of(2025, 12, 22), LocalTime.of(14, 30),
+            new DispatchRequirements(0.75, false, true, 13.5), new LngLat(-3.1863, 55.9449));
+    private final MedDispatchRec order2 = new MedDispatchRec(2, LocalDate.of(2025, 12, 22), LocalTime.of(14, 30),
+            new DispatchRequirements(1.5, true, false, null), new LngLat(-3.1870, 55.9440));
+
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(snapshotService.version()).thenReturn(1L);
+    }
+
+    private CachedPlan compute() {
+        int n = computations.incrementAndGet();
+        return new CachedPlan("plan-" + n, new DeliveryPlan(n, n, List.of()));
+    }
+
+    @Test
+    @DisplayName("Same orders in any order hit the cache")
+    void sameOrders_anyOrder_hit() {
+        DeliveryPlanCache cache = new DeliveryPlanCache(snapshotService, new SimpleMeterRegistry(), 1 << 20);
+
+        CachedPlan first = cache.get(List.of(order1, order2), this::compute);
+        CachedPlan second = cache.get(List.of(order2, order1), this::compute);
+
+        assertSame(first, second);
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    @DisplayName("A new data version misses")
+    void newVersion_miss() {
+        DeliveryPlanCache cache = new DeliveryPlanCache(snapshotService, new SimpleMeterRegistry(), 1 << 20);
+
+        cache.get(List.of(order1), this::compute);
+        when(snapshotService.version()).thenReturn(2L);
+        cache.get(List.of(order1), this::compute);
+
+        assertEquals(2, computations.get());
+        assertNotEquals(DeliveryPlanCache.key(List.of(order1), 1), DeliveryPlanCache.key(List.of(order1), 2));
+    }
+
+    @Test
+    @DisplayName("Least recently used entries are evicted past the weight budget")
+    void weightBudget_evictsLeastRecentlyUsed() {
+        long entryWeight = DeliveryPlanCache.weigh(DeliveryPlanCache.key(List.of(order1), 1), new DeliveryPlan(1, 1, List.of()));
+        DeliveryPlanCache cache = new DeliveryPlanCache(snapshotService, new SimpleMeterRegistry(), 2 * entryWeight);
+
+        MedDispatchRec order3 = new MedDispatchRec(3, null, null, new DispatchRequirements(1.0, false, false, null), null);
+        cache.get(List.of(order1), this::compute);
+        cache.get(List.of(order2), this::compute);
+        cache.get(List.of(order1), this::compute);
+        cache.get(List.of(order3), this::compute);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.weight() <= 2 * entryWeight);
+
+        cache.get(List.of(order1), this::compute);
+        assertEquals(3, computations.get(), "order1 was used recently and should still be cached");
+        cache.get(List.of(order2), this::compute);
+        assertEquals(4, computations.get(), "order2 should have been evicted");
+    }
+
+    @Test
+    @DisplayName("Concurrent identical requests share one computation")
+    void concurrentRequests_coalesce() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DeliveryPlanCache cache = new DeliveryPlanCache(snapshotService, meterRegistry, 1 << 20);
+        Counter coalesced = meterRegistry.get("delivery.plan.cache").tag("result", "coalesced").counter();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<CachedPlan> owner = CompletableFuture.supplyAsync(() -> cache.get(List.of(order1), () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return compute();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        PlanProfileRecorder waiterProfile = new PlanProfileRecorder();
+        CompletableFuture<CachedPlan> waiter = CompletableFuture.supplyAsync(
+                () -> cache.get(List.of(order1), this::compute, waiterProfile));
+        // The counter moves just before the waiter joins the owner's computation
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced.count() < 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(owner.get(5, TimeUnit.SECONDS), waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, computations.get());
+        assertEquals(1.0, coalesced.count());
+        assertTrue(waiterProfile.build().coalesced());
+        assertFalse(waiterProfile.build().cached());
+    }
+
+    @Test
+    @DisplayName("A plan that was not stored is not cached")
+    void unsavedPlan_notCached() {
+        DeliveryPlanCache cache = new DeliveryPlanCache(snapshotService, new SimpleMeterRegistry(), 1 << 20);
+
+        cache.get(List.of(order1), () -> {
+            computations.incrementAndGet();
+            return new CachedPlan(null, new DeliveryPlan(0, 0, List.of()));
+        });
+        CachedPlan second = cache.get(List.of(order1), this::compute);
+
+        assertEquals("plan-2", second.planId());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Failures are not cached")
+    void failure_notCached() {
+        DeliveryPlanCache cache = new DeliveryPlanCache(snapshotService, new SimpleMeterRegistry(), 1 << 20);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(List.of(order1), () -> {
+            throw new IllegalStateException("boom");
+        }));
+        cache.get(List.of(order1), this::compute);
+
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.size());
+    }
+}
@@ -17,6 +17,8 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -196,4 +198,52 @@ class DroneAvailabilityServiceMaxCostTest {
                     "Should use minimum maxCost (0.02) across all dispatches");
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Bulk evaluation")
+    class BulkTests {
+
+        private MedDispatchRec dispatch(LocalTime time, Double maxCost) {
+            return new MedDispatchRec(1, LocalDate.of(2025, 12, 12), time,
+                    new DispatchRequirements(1.0, false, false, maxCost),
+                    new LngLat(-3.188374, 55.944494));
+        }
+
+        @Test
+        @DisplayName("Each group gets the same result as a single query")
+        void bulk_matchesSingleQueries() {
+            when(droneQueryService.filterDroneAttributes(anyList()))
+                    .thenReturn(new int[]{1, 2, 3, 5, 7});
+            when(droneQueryService.fetchDrones()).thenReturn(getTestDrones());
+            when(droneQueryService.fetchDroneAvailability()).thenReturn(getTestAvailability());
+
+            List<List<MedDispatchRec>> groups = List.of(
+                    List.of(dispatch(LocalTime.of(14, 30), 0.02)),
+                    List.of(dispatch(LocalTime.of(9, 0), null)),
+                    List.of(dispatch(LocalTime.of(9, 0), null), dispatch(LocalTime.of(14, 30), 0.05)),
+                    List.of());
+
+            int[][] result = availabilityService.queryAvailableDronesBulk(groups);
+
+            assertEquals(groups.size(), result.length);
+            for (int g = 0; g < groups.size(); g++) {
+                assertArrayEquals(availabilityService.queryAvailableDrones(groups.get(g)), result[g],
+                        "Group " + g);
+            }
+            assertArrayEquals(new int[]{2, 5, 7}, result[1], "Only all-day drones are free at 09:00");
+        }
+
+        @Test
+        @DisplayName("Identical requirements are matched once")
+        void bulk_sharesAttributeQueries() {
+            when(droneQueryService.filterDroneAttributes(anyList()))
+                    .thenReturn(new int[]{1, 2});
+            when(droneQueryService.fetchDroneAvailability()).thenReturn(getTestAvailability());
+
+            MedDispatchRec d = dispatch(LocalTime.of(14, 30), null);
+            availabilityService.queryAvailableDronesBulk(List.of(List.of(d), List.of(d), List.of(d)));
+
+            verify(droneQueryService, times(1)).filterDroneAttributes(anyList());
+        }
+    }
+}
@@ -1,18 +1,26 @@
 package uk.ac.ed.acp.cw2.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.ac.ed.acp.cw2.data.LocationIndex;
 import uk.ac.ed.acp.cw2.dto.*;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -41,7 +49,7 @@ class DroneRoutingServiceTest {
 
     @BeforeEach
     void setUp() {
-        routingService = new DroneRoutingService(availabilityService, droneQueryService);
+        routingService = new DroneRoutingService(availabilityService, droneQueryService, new SimpleMeterRegistry(), null);
 
         // Setup test coordinates
         servicePoint = new LngLat(-3.186358, 55.944680);
@@ -339,6 +347,35 @@ class DroneRoutingServiceTest {
             assertTrue(coordinates.size() > 10); // Should have multiple waypoints
         }
 
+        @Test
+        @DisplayName("Drones based nearest the first delivery are tried first")
+        void calcGeoJson_prefersNearestServicePoint() {
+            LngLat nearby = new LngLat(-3.1879, 55.9451);
+            DroneInfo drone2 = new DroneInfo("Drone 2", 2, standardCapability);
+
+            when(availabilityService.queryAvailableDrones(anyList()))
+                    .thenReturn(new int[]{1, 2});
+            when(droneQueryService.fetchDroneOriginLocations())
+                    .thenReturn(Map.of(1, servicePoint, 2, nearby));
+            when(droneQueryService.fetchDrones())
+                    .thenReturn(List.of(testDrone, drone2));
+            when(droneQueryService.fetchRestrictedAreas())
+                    .thenReturn(List.of());
+            when(droneQueryService.servicePointIndex())
+                    .thenReturn(LocationIndex.build(List.of(
+                            new ServicePoints("Appleton Tower", 1, servicePoint),
+                            new ServicePoints("Nearby", 2, nearby)), ServicePoints::location));
+
+            Map<String, Object> geoJson = routingService.calcDeliveryPathAsGeoJson(List.of(testOrder1));
+
+            @SuppressWarnings("unchecked")
+            List<List<Double>> coordinates = (List<List<Double>>) geoJson.get("coordinates");
+
+            // Drone 1 can fly the order too, but drone 2 is based closer
+            assertEquals(nearby.lng(), coordinates.get(0).get(0), 0.0001);
+            assertEquals(nearby.lat(), coordinates.get(0).get(1), 0.0001);
+        }
+
         @Test
         @DisplayName("Returns empty GeoJSON when delivery is unreachable")
         void calcGeoJson_unreachableDelivery_returnsEmptyGeoJson() {
@@ -471,6 +508,170 @@ class DroneRoutingServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Routing metrics")
+    class RoutingMetricsTests {
+
+        @Test
+        @DisplayName("Records leg searches, allocation rounds and plan phases")
+        void calcDeliveryPlan_recordsMetrics() {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            DroneRoutingService service = new DroneRoutingService(availabilityService, droneQueryService, registry, null);
+
+            when(availabilityService.queryAvailableDrones(anyList()))
+                    .thenReturn(new int[]{1});
+            when(droneQueryService.fetchDroneOriginLocations())
+                    .thenReturn(Map.of(1, servicePoint));
+            when(droneQueryService.fetchDrones())
+                    .thenReturn(List.of(testDrone));
+            when(droneQueryService.fetchRestrictedAreas())
+                    .thenReturn(List.of());
+
+            service.calcDeliveryPlan(List.of(testOrder1));
+
+            assertTrue(registry.get("routing.leg.duration").tag("outcome", "found").timer().count() > 0);
+            assertTrue(registry.get("routing.leg.nodes.expanded").summary().totalAmount() > 0);
+            assertTrue(registry.get("routing.leg.legality.checks").summary().totalAmount() > 0);
+            assertEquals(1, registry.get("routing.allocation.rounds").summary().count());
+            for (String phase : List.of("availability", "context", "allocation", "assembly")) {
+                assertEquals(1, registry.get("routing.plan.phase").tag("phase", phase).timer().count(), phase);
+            }
+        }
+
+        @Test
+        @DisplayName("Profile records phases, legs and drones tried when requested")
+        void calcDeliveryPlan_withProfile_recordsProfile() {
+            when(availabilityService.queryAvailableDrones(anyList()))
+                    .thenReturn(new int[]{1});
+            when(droneQueryService.fetchDroneOriginLocations())
+                    .thenReturn(Map.of(1, servicePoint));
+            when(droneQueryService.fetchDrones())
+                    .thenReturn(List.of(testDrone));
+            when(droneQueryService.fetchRestrictedAreas())
+                    .thenReturn(List.of());
+
+            PlanProfileRecorder recorder = new PlanProfileRecorder();
+            routingService.calcDeliveryPlan(List.of(testOrder1), recorder);
+            PlanProfile profile = recorder.build();
+
+            assertFalse(profile.cached());
+            assertEquals(List.of("availability", "context", "allocation", "assembly"),
+                    profile.phases().stream().map(PlanProfile.Phase::name).toList());
+            assertFalse(profile.legs().isEmpty());
+            assertEquals("found", profile.legs().get(0).outcome());
+            assertEquals(List.of(new PlanProfile.DroneAttempt(1, 1, 1)), profile.dronesTried());
+        }
+
+        @Test
+        @DisplayName("An unused recorder reports a cached plan")
+        void unusedRecorder_reportsCached() {
+            assertTrue(new PlanProfileRecorder().build().cached());
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent planning")
+    class ConcurrentPlanningTests {
+
+        private PlanningExecutor planning;
+
+        @BeforeEach
+        void setUp() {
+            planning = new PlanningExecutor(new SimpleMeterRegistry(), 4, 16);
+        }
+
+        @AfterEach
+        void tearDown() {
+            planning.shutdown();
+        }
+
+        @Test
+        @DisplayName("Produces the same plan as sequential planning")
+        void calcDeliveryPlan_parallel_matchesSequential() {
+            // Drone 2 can carry neither order, so its evaluation is skipped over within a round
+            DroneInfo small = new DroneInfo("Small", 2, new DroneCapability(false, true, 1.0, 2000, 0.01, 1.0, 1.0));
+            DroneInfo single = new DroneInfo("Single", 3, new DroneCapability(false, true, 2.0, 2000, 0.02, 1.0, 1.0));
+
+            when(availabilityService.queryAvailableDrones(anyList()))
+                    .thenReturn(new int[]{3, 2, 1});
+            when(droneQueryService.fetchDroneOriginLocations())
+                    .thenReturn(Map.of(1, servicePoint, 2, servicePoint, 3, new LngLat(-3.189, 55.944)));
+            when(droneQueryService.fetchDrones())
+                    .thenReturn(List.of(testDrone, small, single));
+            when(droneQueryService.fetchRestrictedAreas())
+                    .thenReturn(List.of());
+
+            List<MedDispatchRec> orders = List.of(testOrder1, testOrder2);
+            DeliveryPlan sequential = routingService.calcDeliveryPlan(orders);
+            DeliveryPlan parallel = new DroneRoutingService(availabilityService, droneQueryService,
+                    new SimpleMeterRegistry(), planning).calcDeliveryPlan(orders);
+
+            assertEquals(2, sequential.dronePaths().size());
+            assertEquals(sequential, parallel);
+        }
+
+        @Test
+        @DisplayName("Fetches each ILP dataset before the availability query runs")
+        void calcDeliveryPlan_parallel_warmsCachesFirst() {
+            when(availabilityService.queryAvailableDrones(anyList()))
+                    .thenReturn(new int[0]);
+
+            new DroneRoutingService(availabilityService, droneQueryService,
+                    new SimpleMeterRegistry(), planning).calcDeliveryPlan(List.of(testOrder1));
+
+            // The warm-up fetches run in parallel, so each is ordered against the query alone
+            List<Consumer<DroneQueryService>> fetches = List.of(
+                    DroneQueryService::fetchDrones,
+                    DroneQueryService::fetchDroneAvailability,
+                    DroneQueryService::fetchServicePoints,
+                    DroneQueryService::fetchRestrictedAreas);
+            for (Consumer<DroneQueryService> fetch : fetches) {
+                InOrder order = inOrder(droneQueryService, availabilityService);
+                fetch.accept(order.verify(droneQueryService));
+                order.verify(availabilityService).queryAvailableDrones(anyList());
+            }
+        }
+
+        @Test
+        @DisplayName("A profiled plan requested from a virtual thread reports CPU time")
+        void calcDeliveryPlan_profiledFromVirtualThread_reportsCpuTime() throws Exception {
+            when(availabilityService.queryAvailableDrones(anyList()))
+                    .thenReturn(new int[]{1});
+            when(droneQueryService.fetchDroneOriginLocations())
+                    .thenReturn(Map.of(1, servicePoint));
+            when(droneQueryService.fetchDrones())
+                    .thenReturn(List.of(testDrone));
+            when(droneQueryService.fetchRestrictedAreas())
+                    .thenReturn(List.of());
+
+            DroneRoutingService service = new DroneRoutingService(availabilityService, droneQueryService,
+                    new SimpleMeterRegistry(), planning);
+            PlanProfileRecorder recorder = new PlanProfileRecorder();
+
+            try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+                requests.submit(() -> service.calcDeliveryPlan(List.of(testOrder1), recorder))
+                        .get(10, TimeUnit.SECONDS);
+            }
+            PlanProfile profile = recorder.build();
+
+            assertFalse(profile.cached());
+            assertTrue(profile.cpuMicros() > 0, "CPU time should be measured on a platform thread");
+        }
+
+        @Test
+        @DisplayName("Rethrows a failed upstream fetch")
+        void calcDeliveryPlan_fetchFails_rethrows() {
+            IllegalStateException failure = new IllegalStateException("ILP unavailable");
+            when(availabilityService.queryAvailableDrones(anyList())).thenThrow(failure);
+
+            DroneRoutingService service = new DroneRoutingService(availabilityService, droneQueryService,
+                    new SimpleMeterRegistry(), planning);
+
+            assertSame(failure, assertThrows(IllegalStateException.class,
+                    () -> service.calcDeliveryPlan(List.of(testOrder1))));
+        }
+    }
+
     // Helper method to verify hover exists in flight path
     private void assertHoverPresent(List<LngLat> flightPath) {
         assertNotNull(flightPath);
@@ -0,0 +1,157 @@
+package uk.ac.ed.acp.cw2.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import uk.ac.ed.acp.cw2.data.FleetOverrides;
+import uk.ac.ed.acp.cw2.data.FleetOverrides.CapabilityPatch;
+import uk.ac.ed.acp.cw2.dto.*;
+
+import java.sql.Timestamp;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Embedded H2 persistence")
+class EmbeddedPersistenceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private BatchedJdbcWriter writer;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writer = newWriter();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.shutdown();
+    }
+
+    private BatchedJdbcWriter newWriter() {
+        return new BatchedJdbcWriter(jdbcTemplate, new SimpleMeterRegistry(), 100, 10, 10);
+    }
+
+    @Test
+    @DisplayName("Plans are readable by id before and after the batch is written")
+    void plans_readableById() throws InterruptedException {
+        DeliveryPlanRepository repository = new DeliveryPlanRepository(jdbcTemplate, writer, objectMapper, 30, 100, 100);
+        DeliveryPlan plan = plan(12.5);
+
+        String id = repository.save(List.of(), plan);
+
+        assertEquals(plan, repository.findById(id).orElseThrow());
+
+        writer.shutdown();
+        assertEquals(plan, repository.findById(id).orElseThrow());
+        assertEquals(List.of(id), repository.findRecent(5).stream().map(DeliveryPlanSummary::id).toList());
+        assertTrue(repository.findById("missing").isEmpty());
+    }
+
+    @Test
+    @DisplayName("A plan whose write fails is still served from memory")
+    void failedWrite_keepsPlan() throws InterruptedException {
+        DeliveryPlanRepository repository = new DeliveryPlanRepository(jdbcTemplate, writer, objectMapper, 30, 100, 100);
+        jdbcTemplate.execute("DROP TABLE delivery_plan");
+
+        String id = repository.save(List.of(), plan(1.0));
+        writer.shutdown();
+
+        assertEquals(plan(1.0), repository.findById(id).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Only the newest max-unsaved plans with failed writes are kept")
+    void failedWrites_bounded() throws InterruptedException {
+        DeliveryPlanRepository repository = new DeliveryPlanRepository(jdbcTemplate, writer, objectMapper, 30, 100, 2);
+        jdbcTemplate.execute("DROP TABLE delivery_plan");
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(repository.save(List.of(), plan(i)));
+        }
+        writer.shutdown();
+        // Back up, but the failed plans were never written to it
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(jdbcTemplate.getDataSource());
+
+        assertTrue(repository.findById(ids.get(0)).isEmpty());
+        assertTrue(repository.findById(ids.get(1)).isEmpty());
+        assertEquals(plan(3), repository.findById(ids.get(3)).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Purge drops expired plans and keeps only the newest max-rows")
+    void purge_appliesRetention() throws InterruptedException {
+        DeliveryPlanRepository repository = new DeliveryPlanRepository(jdbcTemplate, writer, objectMapper, 30, 2, 100);
+        String expired = repository.save(List.of(), plan(1.0));
+        String oldest = repository.save(List.of(), plan(2.0));
+        String older = repository.save(List.of(), plan(3.0));
+        String newest = repository.save(List.of(), plan(4.0));
+        writer.shutdown();
+
+        long now = System.currentTimeMillis();
+        setCreatedAt(expired, now - TimeUnit.DAYS.toMillis(31));
+        setCreatedAt(oldest, now - 3_000);
+        setCreatedAt(older, now - 2_000);
+        setCreatedAt(newest, now - 1_000);
+
+        assertEquals(2, repository.purge());
+        assertEquals(List.of(newest, older), repository.findRecent(5).stream().map(DeliveryPlanSummary::id).toList());
+        assertTrue(repository.findById(expired).isEmpty());
+        assertTrue(repository.findById(oldest).isEmpty());
+        assertEquals(0, repository.purge());
+    }
+
+    @Test
+    @DisplayName("Overrides are restored by a new store")
+    void overrides_restoredAfterRestart() throws InterruptedException {
+        List<DroneAvailability> mornings = List.of(
+                new DroneAvailability("MONDAY", LocalTime.of(8, 0), LocalTime.of(12, 0)));
+
+        FleetOverrideStore store = new FleetOverrideStore(
+                new FleetOverrideRepository(jdbcTemplate, writer, objectMapper));
+        store.setMaintenance(1, true, "Inspection");
+        store.setMaintenance(2, true, null);
+        store.setMaintenance(2, false, null);
+        store.patchCapability(3, new CapabilityPatch(null, null, 9.0, null, null, null, null));
+        store.setSchedule(4, 5, mornings);
+        writer.shutdown();
+
+        writer = newWriter();
+        FleetOverrides restored = new FleetOverrideStore(
+                new FleetOverrideRepository(jdbcTemplate, writer, objectMapper)).current();
+
+        assertTrue(restored.inMaintenance(1));
+        assertEquals("Inspection", restored.maintenanceReason(1));
+        assertFalse(restored.inMaintenance(2));
+        assertEquals(9.0, restored.capabilityPatch(3).capacity());
+        assertNull(restored.capabilityPatch(3).cooling());
+        assertEquals(mornings, restored.schedule(4, 5));
+    }
+
+    private void setCreatedAt(String id, long millis) {
+        jdbcTemplate.update("UPDATE delivery_plan SET created_at = ? WHERE id = ?", new Timestamp(millis), id);
+    }
+
+    private static DeliveryPlan plan(double cost) {
+        return new DeliveryPlan(cost, 40, List.of(new DronePath(3, List.of(
+                new DeliveryPath(7, List.of(new LngLat(-3.186874, 55.944494), new LngLat(-3.187, 55.944)))))));
+    }
+}
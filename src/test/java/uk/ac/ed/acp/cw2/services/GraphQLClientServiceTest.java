@@ -0,0 +1,83 @@
+package uk.ac.ed.acp.cw2.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphqlErrorBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.graphql.ExecutionGraphQlRequest;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import reactor.core.publisher.Mono;
+import uk.ac.ed.acp.cw2.dto.DroneCapability;
+import uk.ac.ed.acp.cw2.dto.DroneInfo;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GraphQLClientService in-process execution")
+class GraphQLClientServiceTest {
+
+    private static final String QUERY = "{ drones { id name capability { capacity } } }";
+
+    @Mock
+    private ExecutionGraphQlService graphQlService;
+
+    private GraphQLClientService client;
+
+    @BeforeEach
+    void setUp() {
+        client = new GraphQLClientService(graphQlService, new ObjectMapper());
+    }
+
+    private void respondWith(ExecutionResult result) {
+        when(graphQlService.execute(any(ExecutionGraphQlRequest.class))).thenAnswer(invocation ->
+                Mono.just(new DefaultExecutionGraphQlResponse(
+                        ExecutionInput.newExecutionInput(QUERY).build(), result)));
+    }
+
+    @Test
+    @DisplayName("List fields convert straight to typed results")
+    void executeQueryForList_typed() {
+        respondWith(ExecutionResultImpl.newExecutionResult()
+                .data(Map.of("drones", List.of(
+                        Map.of("id", 1, "name", "Drone 1", "capability", Map.of("capacity", 4.0)))))
+                .build());
+
+        List<DroneInfo> drones = client.executeQueryForList(QUERY, null, "drones", DroneInfo.class);
+
+        assertEquals(1, drones.size());
+        assertEquals(1, drones.get(0).id());
+        assertEquals(4.0, drones.get(0).capability().capacity());
+    }
+
+    @Test
+    @DisplayName("Missing result path returns null")
+    void executeQueryAndParse_missingPath() {
+        respondWith(ExecutionResultImpl.newExecutionResult().data(Map.of()).build());
+
+        assertNull(client.executeQueryAndParse(QUERY, "drones", DroneCapability.class));
+    }
+
+    @Test
+    @DisplayName("GraphQL errors surface as exceptions")
+    void executeQuery_errors() {
+        respondWith(ExecutionResultImpl.newExecutionResult()
+                .addError(GraphqlErrorBuilder.newError().message("boom").build())
+                .build());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> client.executeQuery(QUERY));
+        assertTrue(e.getMessage().startsWith("GraphQL query failed"));
+    }
+}
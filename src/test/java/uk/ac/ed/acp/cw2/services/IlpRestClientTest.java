@@ -0,0 +1,86 @@
+package uk.ac.ed.acp.cw2.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import uk.ac.ed.acp.cw2.configuration.IlpRestServiceConfig;
+import uk.ac.ed.acp.cw2.dto.DroneInfo;
+import uk.ac.ed.acp.cw2.dto.DronesForServicePoints;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ILP REST client against the stub ILP server")
+class IlpRestClientTest {
+
+    private StubIlpServer stub;
+    private SimpleMeterRegistry meterRegistry;
+    private ClientHttpRequestFactory requestFactory;
+    private DroneQueryService droneQueryService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = StubIlpServer.start();
+        meterRegistry = new SimpleMeterRegistry();
+
+        IlpRestServiceConfig config = new IlpRestServiceConfig();
+        requestFactory = config.ilpRequestFactory(500, 300, 10, 5);
+        RestClient restClient = config.ilpRestClient(
+                RestClient.builder(), stub.baseUrl(), requestFactory, meterRegistry);
+
+        droneQueryService = new DroneQueryService(restClient, null);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ((HttpComponentsClientHttpRequestFactory) requestFactory).destroy();
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("Fetches and decodes gzip-compressed reference data")
+    void fetch_decodesGzipResponse() {
+        List<DroneInfo> drones = droneQueryService.fetch(new ParameterizedTypeReference<>() {}, "/drones");
+
+        assertEquals(3, drones.size());
+        assertEquals(1, drones.get(0).id());
+        assertTrue(drones.get(0).capability().cooling());
+        assertEquals(1, stub.gzipResponses(), "client should negotiate gzip");
+    }
+
+    @Test
+    @DisplayName("Records decoded response size per endpoint")
+    void fetch_recordsResponseSize() {
+        List<DronesForServicePoints> availability =
+                droneQueryService.fetch(new ParameterizedTypeReference<>() {}, "/drones-for-service-points");
+        assertEquals(2, availability.size());
+
+        DistributionSummary size = meterRegistry.find("ilp.client.response.size")
+                .tag("uri", "/drones-for-service-points")
+                .summary();
+
+        assertNotNull(size);
+        assertEquals(1, size.count());
+        assertTrue(size.totalAmount() > 0);
+    }
+
+    @Test
+    @DisplayName("Slow upstream fails with the configured read timeout")
+    void fetch_slowUpstream_timesOut() {
+        stub.delay("/drones", 2_000);
+
+        long start = System.currentTimeMillis();
+        assertThrows(ResourceAccessException.class,
+                () -> droneQueryService.fetch(new ParameterizedTypeReference<List<DroneInfo>>() {}, "/drones"));
+        assertTrue(System.currentTimeMillis() - start < 1_500, "should not wait for the full upstream delay");
+    }
+}
@@ -0,0 +1,108 @@
+package uk.ac.ed.acp.cw2.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PlanningExecutor Tests")
+class PlanningExecutorTest {
+
+    private PlanningExecutor planning;
+
+    @BeforeEach
+    void setUp() {
+        planning = new PlanningExecutor(new SimpleMeterRegistry(), 2, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        planning.shutdown();
+    }
+
+    @Test
+    @DisplayName("A non-positive parallelism means one thread per CPU")
+    void parallelism_defaultsToCpuCount() {
+        PlanningExecutor defaults = new PlanningExecutor(new SimpleMeterRegistry(), 0, 16);
+        try {
+            assertEquals(Runtime.getRuntime().availableProcessors(), defaults.parallelism());
+        } finally {
+            defaults.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("join returns once every task has succeeded")
+    void join_allSucceed() throws Exception {
+        try (PlanningExecutor.Scope scope = planning.ioScope()) {
+            Future<Integer> a = scope.fork(() -> 1);
+            Future<Integer> b = scope.fork(() -> 2);
+            scope.join();
+
+            assertEquals(3, a.resultNow() + b.resultNow());
+        }
+    }
+
+    @Test
+    @DisplayName("The first failure is rethrown and cancels the other tasks")
+    void join_failure_cancelsSiblings() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        IllegalStateException failure = new IllegalStateException("upstream failed");
+
+        try (PlanningExecutor.Scope scope = planning.ioScope()) {
+            Future<Object> slow = scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            scope.fork(() -> {
+                throw failure;
+            });
+
+            assertSame(failure, assertThrows(IllegalStateException.class, scope::join));
+            assertTrue(slow.isCancelled());
+        }
+        // close() waited for the slow task to stop
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    @DisplayName("get returns one result without waiting for the others")
+    void get_doesNotWaitForOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (PlanningExecutor.Scope scope = planning.cpuScope()) {
+            scope.fork(() -> release.await(1, TimeUnit.MINUTES));
+            Future<String> quick = scope.fork(() -> "done");
+
+            assertEquals("done", scope.get(quick));
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Tasks see the caller's MDC")
+    void fork_carriesMdc() throws Exception {
+        MDC.put("tenant", "t1");
+        try (PlanningExecutor.Scope scope = planning.cpuScope()) {
+            Future<String> tenant = scope.fork(() -> MDC.get("tenant"));
+            assertEquals("t1", scope.get(tenant));
+        } finally {
+            MDC.remove("tenant");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package uk.ac.ed.acp.cw2.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the ILP REST service, so tests do not depend on the real endpoint.
+ * Serves the fixtures in json_test_data/StubIlp by default; routes, latency and
+ * failures can be overridden per test.
+ */
+class StubIlpServer implements AutoCloseable {
+
+    private static final String[] DEFAULT_ROUTES = {
+            "/drones", "/service-points", "/drones-for-service-points", "/restricted-areas"
+    };
+
+    private final HttpServer server;
+    private final Map<String, byte[]> routes = new ConcurrentHashMap<>();
+    private final Map<String, Long> delaysMillis = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger gzipResponses = new AtomicInteger();
+
+    private StubIlpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    static StubIlpServer start() throws IOException {
+        StubIlpServer stub = new StubIlpServer();
+        for (String route : DEFAULT_ROUTES) {
+            stub.respond(route, fixture(route));
+        }
+        stub.server.start();
+        return stub;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    void respond(String path, String json) {
+        routes.put(path, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void delay(String path, long millis) {
+        delaysMillis.put(path, millis);
+    }
+
+    int requestCount(String path) {
+        AtomicInteger count = requestCounts.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    int gzipResponses() {
+        return gzipResponses.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requestCounts.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+
+        try (exchange) {
+            Long delay = delaysMillis.get(path);
+            if (delay != null) {
+                Thread.sleep(delay);
+            }
+
+            byte[] body = routes.get(path);
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = gzip(body);
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                gzipResponses.incrementAndGet();
+            }
+
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(bytes)) {
+            gz.write(body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String fixture(String route) throws IOException {
+        String resource = "/json_test_data/StubIlp" + route + ".json";
+        try (InputStream in = StubIlpServer.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing stub fixture " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}